@@ -0,0 +1,114 @@
+package com.example.statusmonitor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+// Instrumented: specs come from MonitorConfig, which streams through android.util.JsonReader
+@RunWith(AndroidJUnit4.class)
+public class ConfigDiffTest {
+
+    private static String monitor(String id, String host) {
+        return "{\"id\": \"" + id + "\", \"check\": {\"type\": \"ping\", \"host\": \"" + host + "\"}}";
+    }
+
+    private static List<MonitorSpec> specs(String... monitors) throws IOException {
+        return MonitorConfig.parse(new StringReader("{\"monitors\": [" + String.join(",", monitors) + "]}"))
+                .getMonitors();
+    }
+
+    private static MonitorEntity find(List<MonitorEntity> entities, String id) {
+        for (MonitorEntity entity : entities) {
+            if (entity.getId().equals(id)) return entity;
+        }
+        return null;
+    }
+
+    @Test
+    public void keepsUnchangedAndReplacesTheRest() throws IOException {
+        MonitorConfig initial = MonitorConfig.parse(new StringReader("{\"monitors\": ["
+                + monitor("same", "a.local") + "," + monitor("changed", "b.local") + ","
+                + monitor("removed", "c.local") + "]}"));
+        List<MonitorEntity> running = initial.createEntities();
+        MonitorEntity same = running.get(0);
+        MonitorEntity changed = running.get(1);
+        MonitorEntity removed = running.get(2);
+
+        ConfigDiff diff = ConfigDiff.compute(running,
+                specs(monitor("added", "d.local"), monitor("changed", "b2.local"), monitor("same", "a.local")));
+
+        assertEquals(3, diff.entities.size());
+        assertEquals("added", diff.entities.get(0).getId());
+        assertEquals("changed", diff.entities.get(1).getId());
+        assertSame(same, diff.entities.get(2));
+
+        assertEquals(2, diff.started.size());
+        assertNotNull(find(diff.started, "added"));
+        MonitorEntity restarted = find(diff.started, "changed");
+        assertNotSame(changed, restarted);
+        assertEquals("b2.local", restarted.getAddress());
+
+        assertEquals(2, diff.stopped.size());
+        assertTrue(diff.stopped.contains(changed));
+        assertTrue(diff.stopped.contains(removed));
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    public void identicalConfigIsEmpty() throws IOException {
+        List<MonitorSpec> specs = specs(monitor("a", "a.local"), monitor("b", "b.local"));
+        List<MonitorEntity> running = MonitorConfig.parse(new StringReader(
+                "{\"monitors\": [" + monitor("a", "a.local") + "," + monitor("b", "b.local") + "]}"))
+                .createEntities();
+        ConfigDiff diff = ConfigDiff.compute(running, specs);
+        assertTrue(diff.isEmpty());
+        assertSame(running.get(0), diff.entities.get(0));
+        assertSame(running.get(1), diff.entities.get(1));
+    }
+
+    @Test
+    public void largeConfig() throws IOException {
+        int count = 5000;
+        StringBuilder before = new StringBuilder("{\"monitors\": [");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) before.append(',');
+            before.append(monitor("m" + i, "h" + i + ".local"));
+        }
+        List<MonitorEntity> running = MonitorConfig.parse(new StringReader(before.append("]}").toString()))
+                .createEntities();
+
+        // Every 10th changes, the last 100 go and 100 new ones arrive
+        StringBuilder after = new StringBuilder("{\"monitors\": [");
+        for (int i = 0; i < count - 100; i++) {
+            if (i > 0) after.append(',');
+            after.append(monitor("m" + i, i % 10 == 0 ? "moved" + i + ".local" : "h" + i + ".local"));
+        }
+        for (int i = 0; i < 100; i++) {
+            after.append(',').append(monitor("new" + i, "n" + i + ".local"));
+        }
+        List<MonitorSpec> next = MonitorConfig.parse(new StringReader(after.append("]}").toString())).getMonitors();
+
+        ConfigDiff diff = ConfigDiff.compute(running, next);
+        assertEquals(count, diff.entities.size());
+        assertEquals(490 + 100, diff.started.size());
+        assertEquals(490 + 100, diff.stopped.size());
+
+        Set<MonitorEntity> kept = new HashSet<>(running);
+        int reused = 0;
+        for (MonitorEntity entity : diff.entities) {
+            if (kept.contains(entity)) reused++;
+        }
+        assertEquals(count - 100 - 490, reused);
+        assertSame(running.get(1), diff.entities.get(1));
+        assertNotSame(running.get(10), diff.entities.get(10));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.statusmonitor;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+// Instrumented: MonitorConfig streams through android.util.JsonReader
+@RunWith(AndroidJUnit4.class)
+public class MonitorConfigTest {
+
+    private static MonitorConfig parse(String json) throws IOException {
+        return MonitorConfig.parse(new StringReader(json));
+    }
+
+    private static void assertInvalid(String json) {
+        try {
+            parse(json);
+            fail("Accepted " + json);
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void parsesValidFile() throws IOException {
+        MonitorConfig config = parse("{"
+                + "\"powerSave\": {\"enabled\": true, \"windowMs\": 30000},"
+                + "\"metrics\": {\"enabled\": true, \"port\": 9100, \"bind\": \"lan\"},"
+                + "\"monitors\": ["
+                + "  {\"id\": \"pve0\", \"check\": {\"type\": \"health\", \"host\": \"10.0.0.1\", \"port\": 9999},"
+                + "   \"intervalMs\": 20000, \"notifications\": false,"
+                + "   \"latencySlo\": {\"thresholdMs\": 500}, \"thresholds\": {\"cpu\": null, \"sustain\": 2}},"
+                + "  {\"check\": {\"port\": 25570, \"host\": \"mc.local\", \"type\": \"minecraft\"},"
+                + "   \"name\": \"Survival\", \"id\": \"mc\"},"
+                + "  {\"id\": \"site\", \"check\": {\"type\": \"website\", \"url\": \"https://example.com\","
+                + "   \"expect\": \"Example\", \"multiplexed\": true}}"
+                + "]}");
+
+        assertTrue(config.isPowerSaveMode());
+        assertEquals(30000, config.getPowerSaveWindowMs());
+        assertEquals(9100, config.getMetricsPort());
+        assertTrue(config.isMetricsLan());
+        assertEquals(3, config.getMonitors().size());
+
+        MonitorSpec pve = config.getMonitors().get(0);
+        assertEquals("pve0", pve.name);
+        assertEquals("10.0.0.1", pve.address);
+        assertEquals(20000, pve.intervalMs);
+        assertFalse(pve.notifications);
+        assertEquals(500, pve.sloThresholdMs);
+        assertTrue(Float.isNaN(pve.cpuLimit));
+        assertEquals(2, pve.sustainSamples);
+
+        MonitorSpec mc = config.getMonitors().get(1);
+        assertEquals("Survival", mc.name);
+        assertEquals(25570, mc.port);
+        assertEquals(MonitorEntity.DEFAULT_CHECK_INTERVAL_MS, mc.intervalMs);
+
+        MonitorSpec site = config.getMonitors().get(2);
+        assertTrue(site.multiplexed);
+        assertNull(site.address);
+    }
+
+    @Test
+    public void defaults() throws IOException {
+        MonitorConfig config = parse("{\"monitors\": ["
+                + "{\"id\": \"mc\", \"check\": {\"type\": \"minecraft\", \"host\": \"mc.local\"}}]}");
+        assertFalse(config.isPowerSaveMode());
+        assertEquals(0, config.getMetricsPort());
+        assertEquals(25565, config.getMonitors().get(0).port);
+    }
+
+    @Test
+    public void skipsUnknownFields() throws IOException {
+        MonitorConfig config = parse("{\"version\": 2, \"extra\": {\"nested\": [1, 2]},"
+                + "\"monitors\": [{\"id\": \"a\", \"comment\": \"hi\", \"tags\": [\"x\"],"
+                + "\"check\": {\"type\": \"ping\", \"host\": \"a.local\", \"ttl\": 64}}]}");
+        assertEquals(1, config.getMonitors().size());
+        assertEquals("a.local", config.getMonitors().get(0).host);
+    }
+
+    @Test
+    public void rejectsDuplicateIds() {
+        assertInvalid("{\"monitors\": ["
+                + "{\"id\": \"a\", \"check\": {\"type\": \"ping\", \"host\": \"a.local\"}},"
+                + "{\"id\": \"a\", \"check\": {\"type\": \"ping\", \"host\": \"b.local\"}}]}");
+    }
+
+    @Test
+    public void rejectsMissingOrUnknownFields() {
+        assertInvalid("{\"monitors\": [{\"check\": {\"type\": \"ping\", \"host\": \"a.local\"}}]}");
+        assertInvalid("{\"monitors\": [{\"id\": \"a\", \"check\": {\"type\": \"health\", \"host\": \"a.local\"}}]}");
+        assertInvalid("{\"monitors\": [{\"id\": \"a\", \"check\": {\"type\": \"gopher\", \"host\": \"a.local\"}}]}");
+        assertInvalid("{\"metrics\": {\"enabled\": true, \"port\": 80}}");
+        assertInvalid("{\"metrics\": {\"bind\": \"everywhere\"}}");
+    }
+
+    @Test
+    public void wrongTypesAreIOExceptions() {
+        assertInvalid("{\"metrics\": {\"port\": \"x\"}}");
+        assertInvalid("{\"monitors\": {\"id\": \"a\"}}");
+        assertInvalid("{\"monitors\": [{\"id\": \"a\", \"intervalMs\": \"soon\","
+                + "\"check\": {\"type\": \"ping\", \"host\": \"a.local\"}}]}");
+        assertInvalid("{\"monitors\": [{\"id\": \"a\", \"check\": [\"ping\"]}]}");
+        assertInvalid("{\"powerSave\": {\"enabled\": \"yes\"}}");
+        assertInvalid("[]");
+        assertInvalid("{\"monitors\": [");
+    }
+}
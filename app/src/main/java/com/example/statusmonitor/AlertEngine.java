@@ -0,0 +1,132 @@
+package com.example.statusmonitor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+Alert state machine, one per monitor.
+
+A monitor has to fail CONFIRM of its last WINDOW checks before an incident opens,
+and pass CONFIRM of its last WINDOW before it closes, so a single dropped check
+neither alerts nor ends an outage. Each incident alerts once; a still-down monitor
+re-alerts at most every REPEAT_INTERVAL_MS, and recovery alerts are limited to one
+per RECOVERY_INTERVAL_MS per monitor so a flapping host can't spam. A recovery
+inside that interval still closes the incident, as a CLEARED alert that only
+removes the DOWN notification.
+
+DEGRADED hosts still answer, so they count as passing checks for incidents. A
+monitor that is DEGRADED for CONFIRM of its last WINDOW checks raises one DEGRADED
+alert, and can raise another only after it has been fully healthy for a window.
+
+NO_CONNECTION is the device's problem, not the monitor's, and is ignored.
+Not thread-safe - fed from the thread that applies check results.
+*/
+public class AlertEngine {
+
+    static final int WINDOW = 5;
+    static final int CONFIRM = 3;
+    static final long REPEAT_INTERVAL_MS = 60 * 60_000;
+    static final long RECOVERY_INTERVAL_MS = 10 * 60_000;
+
+    public enum Kind {
+        DOWN,        // Incident confirmed
+        STILL_DOWN,  // Repeat reminder for an open incident
+        RECOVERED,
+        CLEARED,     // Recovered again within RECOVERY_INTERVAL_MS: withdraw the DOWN alert, silently
+        DEGRADED     // Slow or overloaded, but answering
+    }
+
+    public static class Alert {
+        public final MonitorEntity entity;
+        public final Kind kind;
+        public final long incidentStart;  // Wall-clock time of the first failing check
+        public final long time;
+
+        Alert(MonitorEntity entity, Kind kind, long incidentStart, long time) {
+            this.entity = entity;
+            this.kind = kind;
+            this.incidentStart = incidentStart;
+            this.time = time;
+        }
+    }
+
+    private static class State {
+        int samples;          // Bit set = failed check, newest in bit 0
+        int degradedSamples;  // Bit set = DEGRADED check
+        int count;            // Samples in the window, up to WINDOW
+        boolean down;
+        boolean degraded;
+        long firstFailureAt = -1;
+        long incidentStart;
+        long lastAlertAt;
+        long lastRecoveryAt = -1;
+    }
+
+    private final Map<String, State> states = new HashMap<>();
+
+    /** Feeds one check result; returns the alert to post, or null. */
+    public Alert onResult(MonitorEntity entity, MonitorEntity.Status status, long now) {
+        if (status == MonitorEntity.Status.NO_CONNECTION) return null;
+
+        State state = states.get(entity.getId());
+        if (state == null) {
+            state = new State();
+            states.put(entity.getId(), state);
+        }
+
+        boolean failed = status == MonitorEntity.Status.OFFLINE;
+        state.samples = ((state.samples << 1) | (failed ? 1 : 0)) & ((1 << WINDOW) - 1);
+        boolean degraded = status == MonitorEntity.Status.DEGRADED;
+        state.degradedSamples = ((state.degradedSamples << 1) | (degraded ? 1 : 0)) & ((1 << WINDOW) - 1);
+        if (state.count < WINDOW) state.count++;
+        int failures = Integer.bitCount(state.samples);
+        int successes = state.count - failures;
+
+        if (!state.down) {
+            if (failures == 0) {
+                state.firstFailureAt = -1;
+            } else if (failed && state.firstFailureAt < 0) {
+                state.firstFailureAt = now;
+            }
+            if (failures >= CONFIRM) {
+                state.down = true;
+                state.incidentStart = state.firstFailureAt;
+                state.lastAlertAt = now;
+                return new Alert(entity, Kind.DOWN, state.incidentStart, now);
+            }
+            return checkDegraded(entity, state, now);
+        }
+
+        if (successes >= CONFIRM) {
+            state.down = false;
+            state.firstFailureAt = -1;
+            if (state.lastRecoveryAt < 0 || now - state.lastRecoveryAt >= RECOVERY_INTERVAL_MS) {
+                state.lastRecoveryAt = now;
+                return new Alert(entity, Kind.RECOVERED, state.incidentStart, now);
+            }
+            return new Alert(entity, Kind.CLEARED, state.incidentStart, now);
+        }
+
+        if (failed && now - state.lastAlertAt >= REPEAT_INTERVAL_MS) {
+            state.lastAlertAt = now;
+            return new Alert(entity, Kind.STILL_DOWN, state.incidentStart, now);
+        }
+        return null;
+    }
+
+    private Alert checkDegraded(MonitorEntity entity, State state, long now) {
+        int degradedCount = Integer.bitCount(state.degradedSamples);
+        if (!state.degraded && degradedCount >= CONFIRM) {
+            state.degraded = true;
+            return new Alert(entity, Kind.DEGRADED, now, now);
+        }
+        if (state.degraded && state.samples == 0 && state.degradedSamples == 0 && state.count == WINDOW) {
+            state.degraded = false;
+        }
+        return null;
+    }
+
+    public void forget(String id) {
+        states.remove(id);
+    }
+}
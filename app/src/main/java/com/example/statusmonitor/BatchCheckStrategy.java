@@ -0,0 +1,21 @@
+package com.example.statusmonitor;
+
+import java.util.List;
+
+/*
+A check that can probe many monitors in one operation, e.g. one ICMP socket for
+every ping target.
+
+When several due monitors have strategies of the same BatchCheckStrategy class,
+StatusChecker hands them all to one checkAll() call on a single pool thread
+instead of running check() once per monitor.
+*/
+public interface BatchCheckStrategy extends StatusCheckStrategy {
+
+    /**
+     * Checks every entity; each one's strategy is of this class. Returns results in
+     * the order of entities, or null if batching isn't possible right now, in which
+     * case each entity is checked on its own.
+     */
+    Result[] checkAll(List<MonitorEntity> entities);
+}
@@ -0,0 +1,78 @@
+package com.example.statusmonitor;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Thread pool for StatusChecker that can say how busy it is.
+
+Up to maxThreads checks run at once; beyond that they queue (up to maxQueued)
+and past that they're rejected. Idle threads time out like a cached pool's, so
+a quiet checker holds no threads. Counts rejected tasks and how long the
+slowest task waited between execute() and starting to run - a growing wait is
+the first sign of saturation, long before results go stale.
+*/
+class CheckExecutor extends ThreadPoolExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    CheckExecutor(int maxThreads, int maxQueued) {
+        super(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(maxQueued), new Factory());
+        allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        try {
+            super.execute(new Timed(command));
+        } catch (RejectedExecutionException e) {
+            if (!isShutdown()) rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    long getRejectedCount() {
+        return rejected.get();
+    }
+
+    long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    private final class Timed implements Runnable {
+        private final Runnable task;
+        private final long queuedAt = System.nanoTime();
+
+        Timed(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long wait = System.nanoTime() - queuedAt;
+            long max;
+            while (wait > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, wait)) {
+                // Lost a race with another thread; retry against its value
+            }
+            task.run();
+        }
+    }
+
+    private static final class Factory implements ThreadFactory {
+        private final AtomicInteger next = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, "check-" + next.getAndIncrement());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.statusmonitor;
+
+/*
+Cumulative check counters for one monitor since the service started: results
+per status, and a latency histogram with fixed Prometheus-style bounds (each
+bucket counts latencies <= its bound; the last bucket is +Inf).
+
+Not thread-safe - written and read on the thread that applies check results.
+*/
+public class CheckStats {
+
+    static final long[] BUCKET_BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final long[] checksByStatus = new long[MonitorEntity.Status.values().length];
+    private final long[] buckets = new long[BUCKET_BOUNDS_MS.length + 1];
+    private long latencyCount;
+    private long latencySumMs;
+
+    /** Counts one result; latencyMs < 0 means the check had no latency. */
+    public void record(MonitorEntity.Status status, long latencyMs) {
+        checksByStatus[status.ordinal()]++;
+        if (latencyMs < 0) return;
+        int i = 0;
+        while (i < BUCKET_BOUNDS_MS.length && latencyMs > BUCKET_BOUNDS_MS[i]) i++;
+        buckets[i]++;
+        latencyCount++;
+        latencySumMs += latencyMs;
+    }
+
+    public long getChecks(MonitorEntity.Status status) {
+        return checksByStatus[status.ordinal()];
+    }
+
+    /** Latencies <= BUCKET_BOUNDS_MS[i], or all of them for i == BUCKET_BOUNDS_MS.length. */
+    public long getCumulativeCount(int i) {
+        long sum = 0;
+        for (int b = 0; b <= i; b++) sum += buckets[b];
+        return sum;
+    }
+
+    public long getLatencyCount() {
+        return latencyCount;
+    }
+
+    public long getLatencySumMs() {
+        return latencySumMs;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.statusmonitor;
+
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+Watches StatusChecker's running checks and gives up on any still running after
+DEADLINE_MS - every check has its own socket timeouts, so one that outlives
+them is stuck (a read on a half-dead connection, a wedged ping process, DNS).
+The slowest healthy check, WebsiteCheck or SimpleHealthCheck failing twice,
+takes 2 x (15 s connect + 15 s read) = 60 s; the deadline leaves 30 s on top
+for DNS and TLS.
+
+A stuck check is answered for: the watchdog captures its thread's stack for the
+diagnostics screen and the log, closes whatever the check registered through
+onCancel() (socket, connection, call, process) to unblock it, interrupts the
+thread and delivers the check's fallback result. Whatever the check returns
+afterwards is dropped. A thread blocked in something that can't be closed or
+interrupted (a DNS lookup) stays busy until it returns, but no longer holds up
+the monitor's result.
+
+Scans run every SCAN_MS only while checks are in flight.
+*/
+public final class CheckWatchdog {
+
+    private static final String TAG = "CheckWatchdog";
+    static final long DEADLINE_MS = 90_000;
+    static final long SCAN_MS = 5_000;
+    private static final int KEPT_TRACES = 4;
+
+    static final class Check {
+        final List<MonitorEntity> entities;
+        final Thread thread;
+        final long startedAt;
+        private final Runnable onStuck;
+        private final List<Closeable> resources = new ArrayList<>();
+        private boolean done;
+
+        Check(List<MonitorEntity> entities, Runnable onStuck) {
+            this.entities = entities;
+            this.thread = Thread.currentThread();
+            this.startedAt = System.nanoTime();
+            this.onStuck = onStuck;
+        }
+    }
+
+    private static final ThreadLocal<Check> CURRENT = new ThreadLocal<>();
+
+    private final Set<Check> inFlight = new HashSet<>();
+    private final Deque<String> traces = new ArrayDeque<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "check-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+    private final long deadlineMs;
+    private final long scanMs;
+    private boolean scanScheduled;
+    private long stuck;
+
+    CheckWatchdog() {
+        this(DEADLINE_MS, SCAN_MS);
+    }
+
+    CheckWatchdog(long deadlineMs, long scanMs) {
+        this.deadlineMs = deadlineMs;
+        this.scanMs = scanMs;
+    }
+
+    /**
+     * Registers something to close if the check running on this thread is given up
+     * on: its socket, connection, call or process. No-op outside a check.
+     */
+    public static void onCancel(Closeable resource) {
+        Check check = CURRENT.get();
+        if (check == null) return;
+        synchronized (check) {
+            if (!check.done) {
+                check.resources.add(resource);
+                return;
+            }
+        }
+        closeQuietly(resource);
+    }
+
+    /** Starts watching the check about to run on this thread; onStuck delivers its fallback result. */
+    Check begin(List<MonitorEntity> entities, Runnable onStuck) {
+        Check check = new Check(entities, onStuck);
+        CURRENT.set(check);
+        synchronized (this) {
+            inFlight.add(check);
+            if (!scanScheduled) scheduleScan();
+        }
+        return check;
+    }
+
+    /** Stops watching; false if the watchdog already gave up on the check and answered for it. */
+    boolean end(Check check) {
+        CURRENT.remove();
+        synchronized (this) {
+            inFlight.remove(check);
+        }
+        synchronized (check) {
+            if (!check.done) {
+                check.done = true;
+                return true;
+            }
+        }
+        // Don't let the watchdog's interrupt leak into the pool thread's next task
+        Thread.interrupted();
+        return false;
+    }
+
+    private void scan() {
+        long now = System.nanoTime();
+        List<Check> overdue = new ArrayList<>();
+        synchronized (this) {
+            for (Check check : inFlight) {
+                if (now - check.startedAt >= deadlineMs * 1_000_000L) overdue.add(check);
+            }
+            inFlight.removeAll(overdue);
+            scanScheduled = false;
+            if (!inFlight.isEmpty()) scheduleScan();
+        }
+        for (Check check : overdue) {
+            // They're out of inFlight already: one failure must not leave the rest unanswered
+            try {
+                giveUp(check, now);
+            } catch (RuntimeException e) {
+                // Ignore: giveUp() has answered for the check by the time it logs
+            }
+        }
+    }
+
+    // Caller holds this
+    private void scheduleScan() {
+        try {
+            executor.schedule(this::scan, scanMs, TimeUnit.MILLISECONDS);
+            scanScheduled = true;
+        } catch (RejectedExecutionException e) {
+            // Shut down; checks still draining aren't watched
+        }
+    }
+
+    private void giveUp(Check check, long now) {
+        String trace;
+        synchronized (check) {
+            if (check.done) return;
+            check.done = true;
+            trace = describe(check, now);
+            for (Closeable resource : check.resources) closeQuietly(resource);
+            check.resources.clear();
+            check.thread.interrupt();
+        }
+        synchronized (this) {
+            stuck++;
+            traces.addFirst(trace);
+            while (traces.size() > KEPT_TRACES) traces.removeLast();
+        }
+        for (MonitorEntity entity : check.entities) {
+            FlightRecorder.record(entity, FlightRecorder.Event.CANCELLED, 0);
+        }
+        check.onStuck.run();
+        Log.w(TAG, trace);
+    }
+
+    private static String describe(Check check, long now) {
+        StringBuilder sb = new StringBuilder("Stuck ");
+        for (int i = 0; i < check.entities.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(check.entities.get(i).getId());
+        }
+        sb.append(" for ").append((now - check.startedAt) / 1_000_000_000).append(" s on ")
+                .append(check.thread.getName());
+        for (StackTraceElement frame : check.thread.getStackTrace()) {
+            sb.append("\n    at ").append(frame);
+        }
+        return sb.toString();
+    }
+
+    synchronized int getInFlight() {
+        return inFlight.size();
+    }
+
+    /** Age of the longest-running check in milliseconds, 0 if none. */
+    synchronized long getOldestMs() {
+        long now = System.nanoTime();
+        long oldest = 0;
+        for (Check check : inFlight) oldest = Math.max(oldest, now - check.startedAt);
+        return oldest / 1_000_000;
+    }
+
+    synchronized long getStuckCount() {
+        return stuck;
+    }
+
+    /** Stacks of the most recently stuck checks, newest first. */
+    synchronized List<String> getStuckTraces() {
+        return new ArrayList<>(traces);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void closeQuietly(Closeable resource) {
+        try {
+            resource.close();
+        } catch (IOException | RuntimeException e) {
+            // Ignore
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.statusmonitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Reconciles the running monitors with a newly loaded config.
+
+A monitor whose spec fingerprint is unchanged keeps its MonitorEntity - status,
+uptime counters, metrics and latency history carry over and its timer is left
+alone. Added and changed monitors get fresh entities to schedule; removed and
+replaced ones are listed for cancelling. O(n) in the number of monitors.
+*/
+final class ConfigDiff {
+
+    /** The new monitor list, in config order. */
+    final List<MonitorEntity> entities = new ArrayList<>();
+    /** Added or changed: schedule these. */
+    final List<MonitorEntity> started = new ArrayList<>();
+    /** Removed or replaced: cancel these. */
+    final List<MonitorEntity> stopped = new ArrayList<>();
+
+    private ConfigDiff() {
+    }
+
+    boolean isEmpty() {
+        return started.isEmpty() && stopped.isEmpty();
+    }
+
+    static ConfigDiff compute(List<MonitorEntity> current, List<MonitorSpec> next) {
+        Map<String, MonitorEntity> running = new HashMap<>();
+        for (MonitorEntity entity : current) running.put(entity.getId(), entity);
+
+        ConfigDiff diff = new ConfigDiff();
+        for (MonitorSpec spec : next) {
+            MonitorEntity old = running.remove(spec.id);
+            if (old != null && spec.fingerprint.equals(old.getFingerprint())) {
+                diff.entities.add(old);
+                continue;
+            }
+            if (old != null) diff.stopped.add(old);
+            MonitorEntity entity = spec.build();
+            diff.entities.add(entity);
+            diff.started.add(entity);
+        }
+        diff.stopped.addAll(running.values());
+        return diff;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.statusmonitor;
+
+import android.os.FileObserver;
+import android.os.Handler;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+Reloads monitors.json when it changes on disk.
+
+Watches the directory rather than the file, so editors and adb push that replace
+the file by rename are seen too. Events are debounced for SETTLE_MS, the file is
+parsed on a background thread, and a valid config is handed to the listener on the
+given handler's thread. An invalid file is logged and ignored; the running config stays.
+*/
+public class ConfigWatcher {
+
+    private static final String TAG = "ConfigWatcher";
+    private static final long SETTLE_MS = 500;
+
+    public interface Listener {
+        void onConfigChanged(MonitorConfig config);
+    }
+
+    private final File file;
+    private final Listener listener;
+    private final Handler handler;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "config-watcher");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final FileObserver observer;
+    private ScheduledFuture<?> pending;
+
+    public ConfigWatcher(File file, Handler handler, Listener listener) {
+        this.file = file;
+        this.handler = handler;
+        this.listener = listener;
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory()) dir.mkdirs();
+        // The String constructor is deprecated on API 29+ but the File one needs 29
+        observer = new FileObserver(dir != null ? dir.getPath() : ".",
+                FileObserver.CLOSE_WRITE | FileObserver.MOVED_TO | FileObserver.DELETE) {
+            @Override
+            public void onEvent(int event, String path) {
+                if (file.getName().equals(path)) scheduleReload();
+            }
+        };
+    }
+
+    public void start() {
+        observer.startWatching();
+    }
+
+    public void stop() {
+        observer.stopWatching();
+        executor.shutdownNow();
+    }
+
+    private synchronized void scheduleReload() {
+        if (pending != null) pending.cancel(false);
+        pending = executor.schedule(this::reload, SETTLE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void reload() {
+        if (!file.exists()) {
+            Log.i(TAG, file + " removed; keeping the running config");
+            return;
+        }
+        try {
+            MonitorConfig config = MonitorConfig.parse(file);
+            handler.post(() -> listener.onConfigChanged(config));
+        } catch (IOException e) {
+            Log.e(TAG, "Ignoring " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.statusmonitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/*
+Per-monitor cost table for DiagnosticsActivity and its CSV export, most CPU first.
+*/
+public final class CostReport {
+
+    public static final String CSV_HEADER =
+            "id,checks,cpu_ms,wall_ms,rx_bytes,tx_bytes,cpu_ms_per_check,rx_bytes_per_check,tx_bytes_per_check";
+
+    private CostReport() {}
+
+    /** Fixed-width text table for a monospace view. */
+    public static String table(List<MonitorEntity> entities) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-16s %6s %8s %8s %8s %8s%n",
+                "monitor", "checks", "cpu/chk", "wall/chk", "rx/chk", "tx/chk"));
+        long cpu = 0;
+        long rx = 0;
+        long tx = 0;
+        for (MonitorEntity entity : sorted(entities)) {
+            MonitorCost cost = entity.getCost();
+            long checks = cost.getChecks();
+            cpu += cost.getCpuNanos();
+            rx += cost.getRxBytes();
+            tx += cost.getTxBytes();
+            sb.append(String.format(Locale.ROOT, "%-16s %6d %8s %8s %8s %8s%n",
+                    truncate(entity.getId(), 16), checks,
+                    millis(perCheck(cost.getCpuNanos(), checks)),
+                    millis(perCheck(cost.getWallNanos(), checks)),
+                    bytes(perCheck(cost.getRxBytes(), checks)),
+                    bytes(perCheck(cost.getTxBytes(), checks))));
+        }
+        sb.append(String.format(Locale.ROOT, "%ntotal cpu %s, rx %s, tx %s%n", millis(cpu), bytes(rx), bytes(tx)));
+        return sb.toString();
+    }
+
+    public static String csv(List<MonitorEntity> entities) {
+        StringBuilder sb = new StringBuilder(CSV_HEADER).append('\n');
+        for (MonitorEntity entity : sorted(entities)) {
+            MonitorCost cost = entity.getCost();
+            long checks = cost.getChecks();
+            sb.append(csvField(entity.getId())).append(',')
+                    .append(checks).append(',')
+                    .append(cost.getCpuNanos() / 1_000_000).append(',')
+                    .append(cost.getWallNanos() / 1_000_000).append(',')
+                    .append(cost.getRxBytes()).append(',')
+                    .append(cost.getTxBytes()).append(',')
+                    .append(String.format(Locale.ROOT, "%.2f", perCheck(cost.getCpuNanos(), checks) / 1e6)).append(',')
+                    .append(perCheck(cost.getRxBytes(), checks)).append(',')
+                    .append(perCheck(cost.getTxBytes(), checks)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static List<MonitorEntity> sorted(List<MonitorEntity> entities) {
+        List<MonitorEntity> sorted = new ArrayList<>(entities);
+        Collections.sort(sorted, (a, b) -> Long.compare(b.getCost().getCpuNanos(), a.getCost().getCpuNanos()));
+        return sorted;
+    }
+
+    private static long perCheck(long total, long checks) {
+        return checks > 0 ? total / checks : 0;
+    }
+
+    private static String millis(long nanos) {
+        if (nanos < 10_000_000) return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+        if (nanos < 10_000_000_000L) return (nanos / 1_000_000) + " ms";
+        return (nanos / 1_000_000_000) + " s";
+    }
+
+    private static String bytes(long bytes) {
+        if (bytes < 10 * 1024) return bytes + " B";
+        if (bytes < 10 * 1024 * 1024) return (bytes / 1024) + " KB";
+        return (bytes / (1024 * 1024)) + " MB";
+    }
+
+    private static String truncate(String s, int max) {
+        return s.length() <= max ? s : s.substring(0, max - 1) + "~";
+    }
+
+    private static String csvField(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0) return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
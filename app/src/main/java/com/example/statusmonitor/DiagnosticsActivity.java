@@ -0,0 +1,132 @@
+package com.example.statusmonitor;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/*
+Shows how busy the checker pool is (see PoolStats, with the stacks of checks the
+watchdog gave up on) and what each monitor's checks cost (see MonitorCost).
+Exports the cost numbers as CSV: written to monitor-cost.csv in the app's
+external files directory for adb pull, and offered to the share sheet. "Dump
+trace" writes the FlightRecorder ring next to it as check-trace.json.
+*/
+public class DiagnosticsActivity extends AppCompatActivity {
+
+    private static final long REFRESH_MS = 2000;
+    private static final String CSV_FILE = "monitor-cost.csv";
+    private static final String TRACE_FILE = "check-trace.json";
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            render();
+            handler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    private TextView costTable;
+    private MonitorService monitorService;
+    private boolean bound = false;
+
+    private final ServiceConnection serviceConnection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder service) {
+            monitorService = ((MonitorService.LocalBinder) service).getService();
+            bound = true;
+            handler.removeCallbacks(refresh);
+            handler.post(refresh);
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            bound = false;
+            monitorService = null;
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_diagnostics);
+        costTable = findViewById(R.id.costTable);
+        findViewById(R.id.exportButton).setOnClickListener(v -> export());
+        findViewById(R.id.traceButton).setOnClickListener(v -> dumpTrace());
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        bindService(new Intent(this, MonitorService.class), serviceConnection, Context.BIND_AUTO_CREATE);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        handler.removeCallbacks(refresh);
+        if (bound) {
+            unbindService(serviceConnection);
+            bound = false;
+        }
+    }
+
+    private void render() {
+        if (monitorService != null) {
+            costTable.setText(monitorService.getPoolStats().format() + "\n"
+                    + CostReport.table(monitorService.getEntities()));
+        }
+    }
+
+    private void export() {
+        if (monitorService == null) return;
+        String csv = CostReport.csv(monitorService.getEntities());
+
+        File file = outputFile(CSV_FILE);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+            Toast.makeText(this, getString(R.string.diagnostics_exported, file.getPath()), Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Toast.makeText(this, e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+
+        Intent send = new Intent(Intent.ACTION_SEND)
+                .setType("text/csv")
+                .putExtra(Intent.EXTRA_SUBJECT, CSV_FILE)
+                .putExtra(Intent.EXTRA_TEXT, csv);
+        startActivity(Intent.createChooser(send, getString(R.string.diagnostics_export)));
+    }
+
+    private void dumpTrace() {
+        File file = outputFile(TRACE_FILE);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            FlightRecorder.writeChromeTrace(out);
+            Toast.makeText(this, getString(R.string.diagnostics_exported, file.getPath()), Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            Toast.makeText(this, e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private File outputFile(String name) {
+        File dir = getExternalFilesDir(null);
+        return new File(dir != null ? dir : getFilesDir(), name);
+    }
+}
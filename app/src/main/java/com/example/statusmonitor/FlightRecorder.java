@@ -0,0 +1,287 @@
+package com.example.statusmonitor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/*
+Always-on flight recorder for checks: the last CAPACITY trace events in a fixed
+ring, so an intermittent "Timeout" can be taken apart after the fact.
+
+  SCHEDULED   handed to the checker pool (scheduler thread)
+  STARTED     picked up by a checker thread
+  DNS_DONE    host name resolved
+  CONNECTED   connection up, including TLS for HTTPS
+  FIRST_BYTE  first response bytes (or headers) in
+  RETRIED     the check starts another attempt; arg is the attempt number
+  FINISHED    result produced; arg is the status ordinal
+  CANCELLED   timer removed, or result dropped because the monitor went away
+
+Each event is a System.nanoTime() timestamp, a thread id, the monitor and one
+long argument, kept in preallocated parallel arrays: recording allocates nothing
+and holds a lock for a handful of stores. StatusChecker binds the monitor to the
+checking thread, so transports only call mark(); events on a thread with no
+monitor bound (a batched ping pass) belong to no monitor.
+
+writeChromeTrace() dumps the ring in Chrome's trace event format for
+ui.perfetto.dev or chrome://tracing: one slice per check from STARTED to
+FINISHED on its thread, everything else as instants.
+*/
+public final class FlightRecorder {
+
+    public enum Event {
+        SCHEDULED("scheduled"),
+        STARTED("started"),
+        DNS_DONE("dns done"),
+        CONNECTED("connected"),
+        FIRST_BYTE("first byte"),
+        RETRIED("retried"),
+        FINISHED("finished"),
+        CANCELLED("cancelled");
+
+        final String label;
+
+        Event(String label) {
+            this.label = label;
+        }
+    }
+
+    static final int CAPACITY = 1 << 13;
+    private static final int MASK = CAPACITY - 1;
+    private static final int NO_MONITOR = -1;
+    private static final int MAX_THREAD_NAMES = 256;
+    private static final Event[] EVENTS = Event.values();
+
+    private static final Object lock = new Object();
+    private static final long[] times = new long[CAPACITY];
+    private static final long[] threads = new long[CAPACITY];
+    private static final long[] args = new long[CAPACITY];
+    private static final int[] monitors = new int[CAPACITY];
+    private static final byte[] events = new byte[CAPACITY];
+    private static long count;
+
+    // Monitor ids are interned once; events store the index
+    private static final Map<String, Integer> monitorKeys = new HashMap<>();
+    private static final List<String> monitorIds = new ArrayList<>();
+    private static final Map<Long, String> threadNames = new LinkedHashMap<Long, String>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            return size() > MAX_THREAD_NAMES;
+        }
+    };
+
+    private static final class ThreadState {
+        final long tid;
+        int monitor = NO_MONITOR;
+
+        ThreadState(Thread thread) {
+            tid = thread.getId();
+            synchronized (lock) {
+                threadNames.put(tid, thread.getName());
+            }
+        }
+    }
+
+    private static final ThreadLocal<ThreadState> THREAD = new ThreadLocal<ThreadState>() {
+        @Override
+        protected ThreadState initialValue() {
+            return new ThreadState(Thread.currentThread());
+        }
+    };
+
+    private FlightRecorder() {}
+
+    /** Records an event for entity on this thread. */
+    public static void record(MonitorEntity entity, Event event, long arg) {
+        ThreadState state = THREAD.get();
+        synchronized (lock) {
+            append(System.nanoTime(), state.tid, keyOf(entity.getId()), event, arg);
+        }
+    }
+
+    /** Records an event for the monitor bound to this thread, if any. */
+    public static void mark(Event event) {
+        mark(event, 0);
+    }
+
+    public static void mark(Event event, long arg) {
+        ThreadState state = THREAD.get();
+        synchronized (lock) {
+            append(System.nanoTime(), state.tid, state.monitor, event, arg);
+        }
+    }
+
+    /** Binds entity to this thread for mark() and records STARTED. */
+    static void begin(MonitorEntity entity) {
+        ThreadState state = THREAD.get();
+        synchronized (lock) {
+            state.monitor = keyOf(entity.getId());
+            append(System.nanoTime(), state.tid, state.monitor, Event.STARTED, 0);
+        }
+    }
+
+    /** Records FINISHED with the result's status and unbinds the thread. */
+    static void end(MonitorEntity.Status status) {
+        ThreadState state = THREAD.get();
+        synchronized (lock) {
+            append(System.nanoTime(), state.tid, state.monitor, Event.FINISHED, status.ordinal());
+            state.monitor = NO_MONITOR;
+        }
+    }
+
+    private static void append(long time, long tid, int monitor, Event event, long arg) {
+        int i = (int) (count++ & MASK);
+        times[i] = time;
+        threads[i] = tid;
+        monitors[i] = monitor;
+        events[i] = (byte) event.ordinal();
+        args[i] = arg;
+    }
+
+    private static int keyOf(String id) {
+        Integer key = monitorKeys.get(id);
+        if (key == null) {
+            key = monitorIds.size();
+            monitorKeys.put(id, key);
+            monitorIds.add(id);
+        }
+        return key;
+    }
+
+    /** Number of events recorded since start, including those the ring has overwritten. */
+    static long count() {
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    /** Writes the ring, oldest first, as a Chrome trace event JSON document. */
+    public static void writeChromeTrace(Writer out) throws IOException {
+        int size;
+        long[] time = new long[CAPACITY];
+        long[] thread = new long[CAPACITY];
+        long[] arg = new long[CAPACITY];
+        int[] monitor = new int[CAPACITY];
+        byte[] event = new byte[CAPACITY];
+        List<String> ids;
+        Map<Long, String> names;
+        synchronized (lock) {
+            size = (int) Math.min(count, CAPACITY);
+            int first = (int) ((count - size) & MASK);
+            for (int n = 0; n < size; n++) {
+                int i = (first + n) & MASK;
+                time[n] = times[i];
+                thread[n] = threads[i];
+                arg[n] = args[i];
+                monitor[n] = monitors[i];
+                event[n] = events[i];
+            }
+            ids = new ArrayList<>(monitorIds);
+            names = new HashMap<>(threadNames);
+        }
+
+        // Pair each STARTED with the next FINISHED of the same monitor on the same thread
+        int[] finishedAt = new int[size];
+        Map<Long, Integer> open = new HashMap<>();
+        for (int n = 0; n < size; n++) {
+            finishedAt[n] = -1;
+            Long slot = (thread[n] << 20) ^ monitor[n];
+            if (event[n] == Event.STARTED.ordinal()) {
+                open.put(slot, n);
+            } else if (event[n] == Event.FINISHED.ordinal()) {
+                Integer started = open.remove(slot);
+                if (started != null) finishedAt[started] = n;
+            }
+        }
+        boolean[] paired = new boolean[size];
+        for (int n = 0; n < size; n++) {
+            if (finishedAt[n] >= 0) paired[finishedAt[n]] = true;
+        }
+
+        long origin = size > 0 ? time[0] : 0;
+        Set<Long> seenThreads = new LinkedHashSet<>();
+        out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean comma = false;
+        for (int n = 0; n < size; n++) {
+            seenThreads.add(thread[n]);
+            Event e = EVENTS[event[n]];
+            if (e == Event.FINISHED && paired[n]) continue;
+            String name = monitor[n] == NO_MONITOR ? null : ids.get(monitor[n]);
+
+            StringBuilder sb = new StringBuilder(comma ? ",\n" : "\n");
+            comma = true;
+            if (e == Event.STARTED && finishedAt[n] >= 0) {
+                int end = finishedAt[n];
+                sb.append("{\"name\":").append(quote(name != null ? name : "check"))
+                        .append(",\"cat\":\"check\",\"ph\":\"X\",\"ts\":").append(micros(time[n] - origin))
+                        .append(",\"dur\":").append(micros(time[end] - time[n]))
+                        .append(",\"pid\":1,\"tid\":").append(thread[n])
+                        .append(",\"args\":{\"status\":").append(quote(statusName(arg[end]))).append("}}");
+            } else {
+                sb.append("{\"name\":").append(quote(e.label))
+                        .append(",\"cat\":\"check\",\"ph\":\"i\",\"s\":\"t\",\"ts\":").append(micros(time[n] - origin))
+                        .append(",\"pid\":1,\"tid\":").append(thread[n])
+                        .append(",\"args\":{");
+                if (name != null) sb.append("\"monitor\":").append(quote(name));
+                if (e == Event.RETRIED || e == Event.FINISHED) {
+                    if (name != null) sb.append(',');
+                    if (e == Event.RETRIED) {
+                        sb.append("\"attempt\":").append(arg[n]);
+                    } else {
+                        sb.append("\"status\":").append(quote(statusName(arg[n])));
+                    }
+                }
+                sb.append("}}");
+            }
+            out.write(sb.toString());
+        }
+        for (Long tid : seenThreads) {
+            String threadName = names.get(tid);
+            if (threadName == null) continue;
+            out.write((comma ? ",\n" : "\n") + "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + tid
+                    + ",\"args\":{\"name\":" + quote(threadName) + "}}");
+            comma = true;
+        }
+        out.write("\n]}\n");
+        out.flush();
+    }
+
+    /** Forgets every event; for tests. */
+    static void clear() {
+        synchronized (lock) {
+            count = 0;
+        }
+    }
+
+    private static String statusName(long ordinal) {
+        MonitorEntity.Status[] values = MonitorEntity.Status.values();
+        if (ordinal < 0) return "none";
+        return ordinal < values.length ? values[(int) ordinal].name() : "?";
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
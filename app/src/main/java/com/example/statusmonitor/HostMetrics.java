@@ -0,0 +1,28 @@
+package com.example.statusmonitor;
+
+/*
+Resource snapshot reported by a host's health endpoint.
+
+Percentages are 0-100 and NaN when the host didn't report them; network counters
+are cumulative bytes since boot, -1 when absent (MetricsHistory turns them into
+rates).
+*/
+public class HostMetrics {
+
+    public final float cpuPercent;
+    public final float load1;
+    public final float memoryPercent;
+    public final float diskPercent;
+    public final long netRxBytes;
+    public final long netTxBytes;
+
+    public HostMetrics(float cpuPercent, float load1, float memoryPercent, float diskPercent,
+                       long netRxBytes, long netTxBytes) {
+        this.cpuPercent = cpuPercent;
+        this.load1 = load1;
+        this.memoryPercent = memoryPercent;
+        this.diskPercent = diskPercent;
+        this.netRxBytes = netRxBytes;
+        this.netTxBytes = netTxBytes;
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.statusmonitor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*
+Persistent, append-only log of status periods ("incidents") per monitor.
+
+Every status change appends one fixed-size record for the new period and closes
+the previous one by filling in its end time - the only in-place write. Files live
+in <dir>/:
+
+  log         64-byte records in start-time order:
+                0  u32  monitor key (line number in "monitors")
+                4  u8   status ordinal, 3 bytes reserved
+                8  i64  start, wall clock ms
+                16 i64  end, 0 while the period is open
+                24 u8   cause length, then up to 39 bytes of UTF-8 cause message
+  index-<key> u32 record numbers of that monitor's records, ascending
+  monitors    monitor ids, one per line
+
+The log is ordered by start time (a clock stepping back is clamped), and so is each
+monitor's index. A query like "all OFFLINE periods of pve1 in the last month"
+binary-searches that index and reads only the matching records, however many
+years are on disk; a query across all monitors does the same per monitor. Index
+files are opened on demand and at most MAX_OPEN_INDEXES stay open, least recently
+used closed first, so thousands of monitors don't hold thousands of descriptors.
+
+All file access happens on one background thread; record() never blocks the
+caller. query() waits for that thread, so call it off the main thread.
+*/
+public class IncidentLog {
+
+    static final int RECORD_SIZE = 64;
+    static final int MAX_OPEN_INDEXES = 16;
+    private static final int MAX_CAUSE_BYTES = RECORD_SIZE - 25;
+
+    public static class Incident {
+        public final String monitorId;
+        public final MonitorEntity.Status status;
+        public final long start;
+        public final long end;       // 0 while ongoing
+        public final String cause;
+
+        Incident(String monitorId, MonitorEntity.Status status, long start, long end, String cause) {
+            this.monitorId = monitorId;
+            this.status = status;
+            this.start = start;
+            this.end = end;
+            this.cause = cause;
+        }
+
+        public boolean isOngoing() {
+            return end == 0;
+        }
+
+        public long getDuration(long now) {
+            return (end == 0 ? now : end) - start;
+        }
+    }
+
+    private static class Open {
+        MonitorEntity.Status status;
+        long record;
+    }
+
+    private final File dir;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "incident-log");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final byte[] buffer = new byte[RECORD_SIZE];
+    private final ByteBuffer record = ByteBuffer.wrap(buffer);
+
+    // Owned by the executor thread
+    private RandomAccessFile log;
+    private final Map<String, Integer> keys = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final Map<Integer, RandomAccessFile> indexes =
+            new LinkedHashMap<Integer, RandomAccessFile>(MAX_OPEN_INDEXES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, RandomAccessFile> eldest) {
+                    if (size() <= MAX_OPEN_INDEXES) return false;
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+    private final Map<String, Open> open = new HashMap<>();
+    private long lastStart;
+
+    public IncidentLog(File dir) {
+        this.dir = dir;
+        executor.execute(this::load);
+    }
+
+    /**
+     * Feeds a check result; a change of status closes the open period and starts a new one.
+     * NO_CONNECTION says nothing about the monitor, so it neither opens nor ends a period.
+     */
+    public void record(String monitorId, MonitorEntity.Status status, long time, String cause) {
+        if (status == MonitorEntity.Status.NO_CONNECTION) return;
+        executor.execute(() -> {
+            try {
+                append(monitorId, status, time, cause);
+            } catch (IOException e) {
+                // Best effort; the next transition tries again
+            }
+        });
+    }
+
+    /** Closes the monitor's open period, if any: it was removed or replaced and has no status any more. */
+    public void end(String monitorId, long time) {
+        executor.execute(() -> {
+            try {
+                finish(monitorId, time);
+            } catch (IOException e) {
+                // Best effort
+            }
+        });
+    }
+
+    /**
+     * Periods overlapping [from, to], oldest first. monitorId and status may be null for
+     * "any". Blocks until pending writes are done - don't call on the main thread.
+     */
+    public List<Incident> query(String monitorId, MonitorEntity.Status status, long from, long to) {
+        try {
+            return executor.submit(() -> find(monitorId, status, from, to)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
+        } catch (ExecutionException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    public void close() {
+        executor.execute(() -> {
+            closeQuietly(log);
+            for (RandomAccessFile index : indexes.values()) closeQuietly(index);
+            indexes.clear();
+        });
+        executor.shutdown();
+        try {
+            executor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void load() {
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) return;
+            log = new RandomAccessFile(new File(dir, "log"), "rw");
+            // Drop a torn trailing record left by a crash mid-append
+            log.setLength(log.length() / RECORD_SIZE * RECORD_SIZE);
+
+            File monitors = new File(dir, "monitors");
+            if (monitors.exists()) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(monitors))) {
+                    String id;
+                    while ((id = reader.readLine()) != null) {
+                        keys.put(id, ids.size());
+                        ids.add(id);
+                    }
+                }
+            }
+
+            // Reopen each monitor's last period if it was never closed
+            for (int key = 0; key < ids.size(); key++) {
+                RandomAccessFile index = index(key);
+                long entries = index.length() / 4;
+                if (entries == 0) continue;
+                index.seek((entries - 1) * 4);
+                long recordNo = index.readInt() & 0xFFFFFFFFL;
+                if (!read(recordNo) || record.getLong(16) != 0) continue;
+                Open o = new Open();
+                o.status = status(buffer[4]);
+                o.record = recordNo;
+                open.put(ids.get(key), o);
+            }
+            long records = log.length() / RECORD_SIZE;
+            if (records > 0 && read(records - 1)) lastStart = record.getLong(8);
+        } catch (IOException e) {
+            closeQuietly(log);
+            log = null;
+        }
+    }
+
+    private void append(String monitorId, MonitorEntity.Status status, long time, String cause) throws IOException {
+        if (log == null) return;
+        Open current = open.get(monitorId);
+        if (current != null && current.status == status) return;
+
+        // Keep the log sorted by start even if the wall clock steps back
+        long start = Math.max(time, lastStart);
+        int key = key(monitorId);
+
+        if (current != null) {
+            log.seek(current.record * RECORD_SIZE + 16);
+            log.writeLong(start);
+        } else {
+            current = new Open();
+            open.put(monitorId, current);
+        }
+
+        long recordNo = log.length() / RECORD_SIZE;
+        record.clear();
+        record.putInt(key);
+        record.put((byte) status.ordinal()).put((byte) 0).putShort((short) 0);
+        record.putLong(start);
+        record.putLong(0);
+        byte[] causeBytes = cause != null ? cause.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int causeLength = utf8Prefix(causeBytes, MAX_CAUSE_BYTES);
+        record.put((byte) causeLength).put(causeBytes, 0, causeLength);
+        while (record.hasRemaining()) record.put((byte) 0);
+
+        log.seek(recordNo * RECORD_SIZE);
+        log.write(buffer);
+        RandomAccessFile index = index(key);
+        index.seek(index.length());
+        index.writeInt((int) recordNo);
+
+        current.status = status;
+        current.record = recordNo;
+        lastStart = start;
+    }
+
+    private void finish(String monitorId, long time) throws IOException {
+        Open current = open.remove(monitorId);
+        if (current == null || log == null) return;
+        log.seek(current.record * RECORD_SIZE + 16);
+        log.writeLong(Math.max(time, lastStart));
+    }
+
+    private List<Incident> find(String monitorId, MonitorEntity.Status status, long from, long to) throws IOException {
+        List<Incident> result = new ArrayList<>();
+        if (log == null) return result;
+
+        if (monitorId != null) {
+            Integer key = keys.get(monitorId);
+            if (key != null) findForMonitor(result, key, status, from, to);
+        } else {
+            for (int key = 0; key < ids.size(); key++) {
+                findForMonitor(result, key, status, from, to);
+            }
+            Collections.sort(result, (a, b) -> Long.compare(a.start, b.start));
+        }
+        return result;
+    }
+
+    private void findForMonitor(List<Incident> result, int key, MonitorEntity.Status status,
+                                long from, long to) throws IOException {
+        RandomAccessFile index = index(key);
+        long entries = index.length() / 4;
+        // The period in progress at 'from' started before it, so step back one entry
+        long first = Math.max(0, lowerBound(index, entries, from) - 1);
+        for (long i = first; i < entries; i++) {
+            index.seek(i * 4);
+            if (!read(index.readInt() & 0xFFFFFFFFL)) break;
+            if (record.getLong(8) > to) break;
+            collect(result, status, from);
+        }
+    }
+
+    private void collect(List<Incident> result, MonitorEntity.Status status, long from) {
+        MonitorEntity.Status recordStatus = status(buffer[4]);
+        long end = record.getLong(16);
+        if (status != null && recordStatus != status) return;
+        if (end != 0 && end <= from) return;
+        int key = record.getInt(0);
+        int causeLength = Math.min(buffer[24] & 0xFF, MAX_CAUSE_BYTES);
+        result.add(new Incident(key < ids.size() ? ids.get(key) : "?", recordStatus,
+                record.getLong(8), end, new String(buffer, 25, causeLength, StandardCharsets.UTF_8)));
+    }
+
+    /** First index entry whose record starts at or after time. */
+    private long lowerBound(RandomAccessFile index, long count, long time) throws IOException {
+        long lo = 0;
+        long hi = count;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            index.seek(mid * 4);
+            if (!read(index.readInt() & 0xFFFFFFFFL)) return count;
+            if (record.getLong(8) < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private boolean read(long recordNo) throws IOException {
+        long offset = recordNo * RECORD_SIZE;
+        if (offset + RECORD_SIZE > log.length()) return false;
+        log.seek(offset);
+        log.readFully(buffer);
+        record.clear();
+        return true;
+    }
+
+    private int key(String monitorId) throws IOException {
+        Integer key = keys.get(monitorId);
+        if (key != null) return key;
+        try (Writer writer = new FileWriter(new File(dir, "monitors"), true)) {
+            writer.write(monitorId + "\n");
+        }
+        key = ids.size();
+        keys.put(monitorId, key);
+        ids.add(monitorId);
+        return key;
+    }
+
+    private RandomAccessFile index(int key) throws IOException {
+        RandomAccessFile index = indexes.get(key);
+        if (index == null) {
+            index = new RandomAccessFile(new File(dir, "index-" + key), "rw");
+            index.setLength(index.length() / 4 * 4);
+            indexes.put(key, index);
+        }
+        return index;
+    }
+
+    private static MonitorEntity.Status status(byte ordinal) {
+        MonitorEntity.Status[] values = MonitorEntity.Status.values();
+        return ordinal >= 0 && ordinal < values.length ? values[ordinal] : MonitorEntity.Status.OFFLINE;
+    }
+
+    // Longest prefix of at most max bytes that doesn't split a UTF-8 sequence
+    private static int utf8Prefix(byte[] bytes, int max) {
+        if (bytes.length <= max) return bytes.length;
+        int n = max;
+        while (n > 0 && (bytes[n] & 0xC0) == 0x80) n--;
+        return n;
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        if (file == null) return;
+        try {
+            file.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.statusmonitor;
+
+import java.util.Locale;
+
+/*
+Latency objective for a monitor, e.g. "p95 < 500 ms over 5 minutes".
+
+"pXX < T" holds exactly when at most (100 - XX)% of the window's samples exceed T,
+so a Tracker only counts samples and slow samples - no latencies are stored or
+sorted. The window slides in SLOTS sub-windows; a result costs O(1) and a check of
+the objective O(SLOTS). The window needs MIN_SAMPLES before it can be violated.
+
+Usage:
+  new MonitorEntity.Builder("pve0", "pve0")
+          .latencySlo(new LatencySlo(500, 0.95, 5 * 60_000))
+*/
+public class LatencySlo {
+
+    static final int SLOTS = 10;
+    static final int MIN_SAMPLES = 5;
+
+    private final long thresholdMs;
+    private final double percentile;
+    private final long windowMs;
+    private final long slotMs;
+
+    public LatencySlo(long thresholdMs, double percentile, long windowMs) {
+        if (thresholdMs <= 0) throw new IllegalArgumentException("thresholdMs must be positive");
+        if (percentile <= 0 || percentile >= 1) throw new IllegalArgumentException("percentile must be in (0, 1)");
+        if (windowMs < SLOTS) throw new IllegalArgumentException("windowMs too small");
+        this.thresholdMs = thresholdMs;
+        this.percentile = percentile;
+        this.windowMs = windowMs;
+        this.slotMs = windowMs / SLOTS;
+    }
+
+    public long getThresholdMs() { return thresholdMs; }
+    public double getPercentile() { return percentile; }
+    public long getWindowMs() { return windowMs; }
+
+    public Tracker newTracker() {
+        return new Tracker();
+    }
+
+    /** e.g. "p95 < 500 ms" */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "p%s < %d ms",
+                trimZeros(percentile * 100), thresholdMs);
+    }
+
+    private static String trimZeros(double value) {
+        String s = String.format(Locale.ROOT, "%.2f", value);
+        while (s.endsWith("0")) s = s.substring(0, s.length() - 1);
+        return s.endsWith(".") ? s.substring(0, s.length() - 1) : s;
+    }
+
+    /** Sliding sample counts for one monitor. Not thread-safe. */
+    public class Tracker {
+        private final long[] slotEpoch = new long[SLOTS];
+        private final int[] slotTotal = new int[SLOTS];
+        private final int[] slotSlow = new int[SLOTS];
+        private int total;
+        private int slow;
+
+        Tracker() {
+            for (int i = 0; i < SLOTS; i++) slotEpoch[i] = Long.MIN_VALUE;
+        }
+
+        public void add(long now, long latencyMs) {
+            expire(now);
+            long epoch = now / slotMs;
+            int slot = (int) (epoch % SLOTS);
+            if (slotEpoch[slot] != epoch) {
+                // Empty, or left behind by the clock stepping backwards
+                total -= slotTotal[slot];
+                slow -= slotSlow[slot];
+                slotTotal[slot] = 0;
+                slotSlow[slot] = 0;
+                slotEpoch[slot] = epoch;
+            }
+            slotTotal[slot]++;
+            total++;
+            if (latencyMs > thresholdMs) {
+                slotSlow[slot]++;
+                slow++;
+            }
+        }
+
+        public boolean isViolated(long now) {
+            expire(now);
+            return total >= MIN_SAMPLES && slow > (long) Math.floor(total * (1 - percentile) + 1e-9);
+        }
+
+        public int getTotal() { return total; }
+        public int getSlow() { return slow; }
+
+        /** e.g. "p95 > 500 ms (3/15 slow)" */
+        public String describeViolation() {
+            return String.format(Locale.ROOT, "p%s > %d ms (%d/%d slow)",
+                    trimZeros(percentile * 100), thresholdMs, slow, total);
+        }
+
+        // Drops slots that have slid out of the window
+        private void expire(long now) {
+            long oldest = now / slotMs - (SLOTS - 1);
+            for (int i = 0; i < SLOTS; i++) {
+                if (slotEpoch[i] != Long.MIN_VALUE && slotEpoch[i] < oldest) {
+                    total -= slotTotal[i];
+                    slow -= slotSlow[i];
+                    slotTotal[i] = 0;
+                    slotSlow[i] = 0;
+                    slotEpoch[i] = Long.MIN_VALUE;
+                }
+            }
+        }
+    }
+}
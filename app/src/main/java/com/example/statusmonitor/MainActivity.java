@@ -24,14 +24,20 @@ import androidx.recyclerview.widget.SimpleItemAnimator;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-public class MainActivity extends AppCompatActivity implements MonitorService.StatusUpdateListener {
+import java.util.List;
+
+public class MainActivity extends AppCompatActivity
+        implements StatusEventBus.Subscriber, StatusAdapter.NotificationToggleListener {
 
     private static final int NOTIFICATION_PERMISSION_CODE = 100;
+    // More monitors waiting than this and the list is redrawn in full instead
+    private static final int UPDATE_QUEUE_CAPACITY = 256;
 
     private RecyclerView recyclerView;
     private TextView subtitleText;
     private StatusAdapter adapter;
     private MonitorService monitorService;
+    private StatusEventBus.Subscription subscription;
     private boolean bound = false;
 
     private final ServiceConnection serviceConnection = new ServiceConnection() {
@@ -39,15 +45,15 @@ public class MainActivity extends AppCompatActivity implements MonitorService.St
         public void onServiceConnected(ComponentName name, IBinder service) {
             MonitorService.LocalBinder binder = (MonitorService.LocalBinder) service;
             monitorService = binder.getService();
-            monitorService.setStatusUpdateListener(MainActivity.this);
             bound = true;
 
-            adapter = new StatusAdapter(monitorService.getEntities());
+            adapter = new StatusAdapter(MainActivity.this);
             recyclerView.setAdapter(adapter);
             adapter.startTimerUpdates();
 
-            int count = monitorService.getEntities().size();
-            subtitleText.setText(getString(R.string.app_subtitle, count));
+            // Delivers the current list first
+            subscription = monitorService.getStatusBus().subscribe(
+                    ContextCompat.getMainExecutor(MainActivity.this), UPDATE_QUEUE_CAPACITY, MainActivity.this);
         }
 
         @Override
@@ -88,6 +94,9 @@ public class MainActivity extends AppCompatActivity implements MonitorService.St
             }
         });
 
+        findViewById(R.id.diagnosticsButton).setOnClickListener(v ->
+                startActivity(new Intent(this, DiagnosticsActivity.class)));
+
         startMonitorService();
     }
 
@@ -127,9 +136,10 @@ public class MainActivity extends AppCompatActivity implements MonitorService.St
 
     private void unbindFromService() {
         if (bound) {
-            if (monitorService != null) {
-                monitorService.setStatusUpdateListener(null);
+            if (monitorService != null && subscription != null) {
+                monitorService.getStatusBus().unsubscribe(subscription);
             }
+            subscription = null;
             unbindService(serviceConnection);
             bound = false;
         }
@@ -149,9 +159,24 @@ public class MainActivity extends AppCompatActivity implements MonitorService.St
     }
 
     @Override
-    public void onStatusUpdated(MonitorEntity entity) {
+    public void onStatusUpdated(MonitorRow row) {
         if (adapter != null) {
-            adapter.updateEntity(entity);
+            adapter.updateRow(row);
+        }
+    }
+
+    @Override
+    public void onMonitorsChanged(List<MonitorRow> rows) {
+        if (adapter != null) {
+            adapter.setRows(rows);
+            subtitleText.setText(getString(R.string.app_subtitle, rows.size()));
+        }
+    }
+
+    @Override
+    public void onNotificationsToggled(String id, boolean enabled) {
+        if (monitorService != null) {
+            monitorService.setNotificationsEnabled(id, enabled);
         }
     }
 }
@@ -0,0 +1,57 @@
+package com.example.statusmonitor;
+
+import java.util.Locale;
+
+/*
+Resource limits above which a reachable host counts as DEGRADED.
+
+A limit must hold on average over the last sustainSamples checks, so one CPU spike
+doesn't flip the card; a limit of NaN disables that metric.
+
+Usage:
+  new MonitorEntity.Builder("pve2", "pve2")
+          .metricThresholds(new MetricThresholds(85, 90, 95, 3))
+*/
+public class MetricThresholds {
+
+    public static final MetricThresholds DEFAULT = new MetricThresholds(90, 90, 90, 3);
+
+    private final float cpuPercent;
+    private final float memoryPercent;
+    private final float diskPercent;
+    private final int sustainSamples;
+
+    public MetricThresholds(float cpuPercent, float memoryPercent, float diskPercent, int sustainSamples) {
+        if (sustainSamples <= 0 || sustainSamples > MetricsHistory.CAPACITY) {
+            throw new IllegalArgumentException("sustainSamples out of range: " + sustainSamples);
+        }
+        this.cpuPercent = cpuPercent;
+        this.memoryPercent = memoryPercent;
+        this.diskPercent = diskPercent;
+        this.sustainSamples = sustainSamples;
+    }
+
+    /** Returns what is over its limit (e.g. "CPU 97%, MEM 93%"), or null if the host is healthy. */
+    public String evaluate(MetricsHistory history) {
+        StringBuilder reason = null;
+        reason = check(reason, "CPU", history, MetricsHistory.Field.CPU, cpuPercent);
+        reason = check(reason, "MEM", history, MetricsHistory.Field.MEMORY, memoryPercent);
+        reason = check(reason, "DISK", history, MetricsHistory.Field.DISK, diskPercent);
+        return reason != null ? reason.toString() : null;
+    }
+
+    private StringBuilder check(StringBuilder reason, String label, MetricsHistory history,
+                                MetricsHistory.Field field, float limit) {
+        if (Float.isNaN(limit)) return reason;
+        float average = history.average(field, sustainSamples);
+        if (Float.isNaN(average) || average < limit) return reason;
+
+        if (reason == null) {
+            reason = new StringBuilder();
+        } else {
+            reason.append(", ");
+        }
+        return reason.append(label).append(' ')
+                .append(String.format(Locale.ROOT, "%.0f", history.latest(field))).append('%');
+    }
+}
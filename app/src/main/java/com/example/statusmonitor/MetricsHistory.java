@@ -0,0 +1,92 @@
+package com.example.statusmonitor;
+
+/*
+Rolling per-monitor series of host metrics.
+
+Fixed rings of floats, one per Field, sharing a timestamp ring - about 4 KB per
+monitor for an hour at the default interval, allocated only for monitors whose
+checks report metrics. Network counters are stored as rates (bytes/s) derived
+from consecutive samples; a counter reset (reboot) yields NaN for that sample.
+
+Not thread-safe - written and read on the thread that applies check results.
+*/
+public class MetricsHistory {
+
+    public static final int CAPACITY = 180;
+
+    public enum Field {
+        CPU,
+        LOAD,
+        MEMORY,
+        DISK,
+        NET_RX,   // bytes/s
+        NET_TX    // bytes/s
+    }
+
+    private final long[] times = new long[CAPACITY];
+    private final float[][] series = new float[Field.values().length][CAPACITY];
+    private int head;   // Next write position
+    private int size;
+
+    private long lastCounterTime = -1;
+    private long lastRx = -1;
+    private long lastTx = -1;
+
+    public void record(long time, HostMetrics metrics) {
+        times[head] = time;
+        series[Field.CPU.ordinal()][head] = metrics.cpuPercent;
+        series[Field.LOAD.ordinal()][head] = metrics.load1;
+        series[Field.MEMORY.ordinal()][head] = metrics.memoryPercent;
+        series[Field.DISK.ordinal()][head] = metrics.diskPercent;
+        series[Field.NET_RX.ordinal()][head] = rate(lastRx, metrics.netRxBytes, time);
+        series[Field.NET_TX.ordinal()][head] = rate(lastTx, metrics.netTxBytes, time);
+
+        lastCounterTime = time;
+        lastRx = metrics.netRxBytes;
+        lastTx = metrics.netTxBytes;
+
+        head = (head + 1) % CAPACITY;
+        if (size < CAPACITY) size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Sample i, 0 = oldest. NaN if the host didn't report it. */
+    public float get(Field field, int i) {
+        return series[field.ordinal()][index(i)];
+    }
+
+    public long getTime(int i) {
+        return times[index(i)];
+    }
+
+    public float latest(Field field) {
+        return size == 0 ? Float.NaN : get(field, size - 1);
+    }
+
+    /** Mean of the newest n reported samples; NaN unless all n are present. */
+    public float average(Field field, int n) {
+        if (n <= 0 || n > size) return Float.NaN;
+        float sum = 0;
+        for (int i = size - n; i < size; i++) {
+            float v = get(field, i);
+            if (Float.isNaN(v)) return Float.NaN;
+            sum += v;
+        }
+        return sum / n;
+    }
+
+    private int index(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("sample " + i + " of " + size);
+        return (head - size + i + CAPACITY) % CAPACITY;
+    }
+
+    private float rate(long previous, long current, long time) {
+        if (previous < 0 || current < previous || lastCounterTime < 0 || time <= lastCounterTime) {
+            return Float.NaN;
+        }
+        return (current - previous) * 1000f / (time - lastCounterTime);
+    }
+}
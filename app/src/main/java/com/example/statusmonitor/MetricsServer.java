@@ -0,0 +1,164 @@
+package com.example.statusmonitor;
+
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+/*
+Minimal HTTP/1.1 server for Prometheus scrapes of GET /metrics.
+
+Serves whatever was last passed to publish(): MonitorService renders the page
+(see PrometheusFormat) on its own schedule and hands over finished bytes, so a
+scrape is a single write and never touches monitor state or waits on checks.
+One thread accepts and answers requests one at a time - scrapers are few. The
+whole request head has to arrive within HEAD_TIMEOUT_MS, not just each read,
+so a client trickling bytes can't hold the thread for longer than that. Every
+response closes the connection.
+
+Binds to the loopback address, or to every interface when lan is set.
+*/
+public class MetricsServer {
+
+    private static final String TAG = "MetricsServer";
+    private static final int SOCKET_TIMEOUT_MS = 5000;
+    private static final long HEAD_TIMEOUT_MS = 5000;
+    private static final int MAX_REQUEST_HEAD = 8 * 1024;
+
+    private final int port;
+    private final boolean lan;
+    private volatile byte[] body = new byte[0];
+    private ServerSocket serverSocket;
+    private Thread thread;
+
+    public MetricsServer(int port, boolean lan) {
+        this.port = port;
+        this.lan = lan;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public boolean isLan() {
+        return lan;
+    }
+
+    /** Replaces the page served to scrapes. */
+    public void publish(String text) {
+        body = text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public synchronized void start() throws IOException {
+        if (serverSocket != null) return;
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(lan ? new InetSocketAddress(port) : new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        serverSocket = socket;
+        thread = new Thread(() -> serve(socket), "metrics-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (serverSocket == null) return;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+        serverSocket = null;
+        thread = null;
+    }
+
+    private void serve(ServerSocket server) {
+        while (!server.isClosed()) {
+            try (Socket client = server.accept()) {
+                client.setSoTimeout(SOCKET_TIMEOUT_MS);
+                handle(client);
+            } catch (SocketException e) {
+                // Closed by stop(), or the client went away
+            } catch (IOException e) {
+                Log.w(TAG, "Request failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handle(Socket client) throws IOException {
+        String requestLine = readHead(client);
+        OutputStream out = client.getOutputStream();
+        if (requestLine == null) return;
+
+        String[] parts = requestLine.split(" ");
+        if (parts.length < 2) {
+            respond(out, "400 Bad Request", null, false);
+            return;
+        }
+        boolean head = parts[0].equals("HEAD");
+        if (!head && !parts[0].equals("GET")) {
+            respond(out, "405 Method Not Allowed", null, false);
+            return;
+        }
+        String path = parts[1];
+        int query = path.indexOf('?');
+        if (query >= 0) path = path.substring(0, query);
+        if (!path.equals("/metrics")) {
+            respond(out, "404 Not Found", null, false);
+            return;
+        }
+        respond(out, "200 OK", body, head);
+    }
+
+    // Returns the request line after consuming the rest of the head, or null if the client sent nothing
+    private static String readHead(Socket client) throws IOException {
+        InputStream in = new BufferedInputStream(client.getInputStream(), 1024);
+        long deadline = System.nanoTime() + HEAD_TIMEOUT_MS * 1_000_000;
+        StringBuilder line = new StringBuilder();
+        String requestLine = null;
+        int read = 0;
+        int c;
+        while (true) {
+            if (in.available() == 0) {
+                // About to block on the socket: wait no longer than the head has left
+                long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMs <= 0) throw new SocketTimeoutException("Request head timed out");
+                client.setSoTimeout((int) Math.min(remainingMs, SOCKET_TIMEOUT_MS));
+            }
+            if ((c = in.read()) < 0) break;
+            if (++read > MAX_REQUEST_HEAD) throw new IOException("Request head too large");
+            if (c == '\r') continue;
+            if (c != '\n') {
+                line.append((char) c);
+                continue;
+            }
+            if (requestLine == null) {
+                requestLine = line.toString();
+            } else if (line.length() == 0) {
+                return requestLine;
+            }
+            line.setLength(0);
+        }
+        return requestLine;
+    }
+
+    private static void respond(OutputStream out, String status, byte[] body, boolean headOnly) throws IOException {
+        byte[] content = body != null ? body : status.concat("\n").getBytes(StandardCharsets.UTF_8);
+        String contentType = body != null ? PrometheusFormat.CONTENT_TYPE : "text/plain; charset=utf-8";
+        String head = "HTTP/1.1 " + status + "\r\n"
+                + "Content-Type: " + contentType + "\r\n"
+                + "Content-Length: " + content.length + "\r\n"
+                + "Connection: close\r\n\r\n";
+        out.write(head.getBytes(StandardCharsets.US_ASCII));
+        if (!headOnly) out.write(content);
+        out.flush();
+    }
+}
@@ -1,104 +1,206 @@
 package com.example.statusmonitor;
 
-import com.example.statusmonitor.checks.MinecraftCheck;
-import com.example.statusmonitor.checks.PingCheck;
-import com.example.statusmonitor.checks.SimpleHealthCheck;
-import com.example.statusmonitor.checks.WebsiteCheck;
-
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /*
-Monitor configuration.
+Monitor configuration, loaded from monitors.json.
+
+The app reads monitors.json from its external files directory
+(/sdcard/Android/data/com.example.statusmonitor/files/, writable with adb push) and
+falls back to the copy bundled in assets. Edits to the external file are applied
+while running without restarting unchanged monitors - see ConfigWatcher and
+ConfigDiff. The file is parsed as a stream, so thousands of monitors load in one
+pass without building a JSON tree.
+
+{
+  "powerSave": {"enabled": false, "windowMs": 60000},
+  "metrics": {"enabled": false, "port": 9464, "bind": "localhost"},
+  "monitors": [
+    {"id": "pve0", "name": "pve0", "address": "82.117.106.223",
+     "check": {"type": "health", "host": "82.117.106.223", "port": 9999},
+     "intervalMs": 20000, "notifications": true,
+     "latencySlo": {"thresholdMs": 500, "percentile": 0.95, "windowMs": 300000},
+     "thresholds": {"cpu": 90, "memory": 90, "disk": 90, "sustain": 3}}
+  ]
+}
+
+Only id and check are required; name defaults to the id and address to the
+check's host.
+
+Check types:
+  - ping       host                        - ICMP ping
+  - health     host, port                  - HTTP GET /health
+  - udp        host, port                  - single-datagram UDP heartbeat (name + uptime)
+  - website    url, expect, multiplexed    - HTTP GET and check content; multiplexed
+                                             shares one HTTP/2 connection per host
+  - minecraft  host, port (default 25565)  - Minecraft SLP protocol
 
-Available checks:
-  - PingCheck(host)                  - ICMP ping
-  - SimpleHealthCheck(port, host)    - HTTP GET /health
-  - WebsiteCheck(url, expectedText)  - HTTP GET and check content
-  - MinecraftCheck(host, port)       - Minecraft SLP protocol
+Power-save mode: checks run in aligned bursts (each monitor at most once per window),
+woken by inexact alarms that Doze batches into its maintenance windows.
+
+Metrics: serves GET /metrics in Prometheus text format on the port (1024-65535),
+bound to "localhost" (adb forward) or "lan" (every interface) - see MetricsServer.
 */
 public class MonitorConfig {
 
-    private static List<MonitorEntity> monitors;
-
-    public static List<MonitorEntity> getMonitors() {
-        if (monitors == null) {
-            monitors = new ArrayList<>();
-
-            String lab22PublicIP = "82.117.106.223";
-
-            // lab22 router - ICMP ping
-            monitors.add(new MonitorEntity.Builder("lab22-router", "lab22 router")
-                    .address(lab22PublicIP)
-                    .checkStrategy(new PingCheck(lab22PublicIP))
-                    .build());
-
-            // pve0 - HTTP health check
-            monitors.add(new MonitorEntity.Builder("pve0", "pve0")
-                    .address(lab22PublicIP)
-                    .checkStrategy(new SimpleHealthCheck(9999, lab22PublicIP))
-                    .build());
-
-            // pve1 - HTTP health check
-            monitors.add(new MonitorEntity.Builder("pve1", "pve1")
-                    .address(lab22PublicIP)
-                    .checkStrategy(new SimpleHealthCheck(9994, lab22PublicIP))
-                    .build());
-
-            // pve2 - HTTP health check
-            monitors.add(new MonitorEntity.Builder("pve2", "pve2")
-                    .address(lab22PublicIP)
-                    .checkStrategy(new SimpleHealthCheck(9998, lab22PublicIP))
-                    .build());
-
-            // pve3 - HTTP health check
-            monitors.add(new MonitorEntity.Builder("pve3", "pve3")
-                    .address(lab22PublicIP)
-                    .checkStrategy(new SimpleHealthCheck(9995, lab22PublicIP))
-                    .build());
-
-
-            // kaskasapakte - HTTP health check
-            monitors.add(new MonitorEntity.Builder("kaskasapakte", "kaskasapakte")
-                    .address(lab22PublicIP)
-                    .checkStrategy(new SimpleHealthCheck(9997, lab22PublicIP))
-                    .build());
-
-            // tolpagorni - HTTP health check
-            monitors.add(new MonitorEntity.Builder("tolpagorni", "tolpagorni")
-                    .address(lab22PublicIP)
-                    .checkStrategy(new SimpleHealthCheck(9996, lab22PublicIP))
-                    .build());
-
-            // Minecraft server
-            monitors.add(new MonitorEntity.Builder("Tarfala", "Tarfala")
-                    .address(lab22PublicIP)
-                    .checkStrategy(new MinecraftCheck(lab22PublicIP))
-                    .build());
-
-            // xandware.se - website check
-            monitors.add(new MonitorEntity.Builder("xandware", "xandware.se")
-                    .address("xandware.se")
-                    .checkStrategy(new WebsiteCheck("https://xandware.se", "xandware"))
-                    .build());
-
-            // mydatalog.xandware.se - website check
-            monitors.add(new MonitorEntity.Builder("mydatalog", "mydatalog.xandware.se")
-                    .address("mydatalog.xandware.se")
-                    .checkStrategy(new WebsiteCheck("https://mydatalog.xandware.se", "mydatalog"))
-                    .build());
-
-            // rungine.se - website check
-            monitors.add(new MonitorEntity.Builder("rungine", "rungine.se")
-                    .address("rungine.se")
-                    .checkStrategy(new WebsiteCheck("https://rungine.se", "rungine"))
-                    .build());
+    private static final String TAG = "MonitorConfig";
+    public static final String FILE_NAME = "monitors.json";
+    public static final int DEFAULT_METRICS_PORT = 9464;
+
+    private final boolean powerSaveMode;
+    private final long powerSaveWindowMs;
+    private final int metricsPort;      // 0 = metrics server off
+    private final boolean metricsLan;
+    private final List<MonitorSpec> monitors;
+
+    private MonitorConfig(boolean powerSaveMode, long powerSaveWindowMs, int metricsPort, boolean metricsLan,
+                          List<MonitorSpec> monitors) {
+        this.powerSaveMode = powerSaveMode;
+        this.powerSaveWindowMs = powerSaveWindowMs;
+        this.metricsPort = metricsPort;
+        this.metricsLan = metricsLan;
+        this.monitors = Collections.unmodifiableList(monitors);
+    }
 
-        }
+    public boolean isPowerSaveMode() {
+        return powerSaveMode;
+    }
+
+    public long getPowerSaveWindowMs() {
+        return powerSaveWindowMs;
+    }
+
+    /** Port of the metrics server, or 0 if it's disabled. */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    /** Whether the metrics server listens on every interface rather than just loopback. */
+    public boolean isMetricsLan() {
+        return metricsLan;
+    }
+
+    public List<MonitorSpec> getMonitors() {
         return monitors;
     }
 
-    public static void reset() {
-        monitors = null;
+    public List<MonitorEntity> createEntities() {
+        List<MonitorEntity> entities = new ArrayList<>(monitors.size());
+        for (MonitorSpec spec : monitors) entities.add(spec.build());
+        return entities;
+    }
+
+    /** The user-editable config file; it may not exist. */
+    public static File getFile(Context context) {
+        File dir = context.getExternalFilesDir(null);
+        return new File(dir != null ? dir : context.getFilesDir(), FILE_NAME);
+    }
+
+    /** Loads the user's config, or the bundled one if there is none or it's invalid. */
+    public static MonitorConfig load(Context context) {
+        File file = getFile(context);
+        if (file.exists()) {
+            try {
+                return parse(file);
+            } catch (IOException e) {
+                Log.e(TAG, "Ignoring " + file + ": " + e.getMessage());
+            }
+        }
+        try (InputStream in = context.getAssets().open(FILE_NAME)) {
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Bundled " + FILE_NAME + " is invalid", e);
+        }
+    }
+
+    public static MonitorConfig parse(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    /** Any malformed or invalid input is reported as an IOException. */
+    public static MonitorConfig parse(Reader in) throws IOException {
+        try {
+            return read(in);
+        } catch (IllegalStateException | NumberFormatException e) {
+            // JsonReader's unchecked errors for a value of the wrong type, e.g. "port": "x"
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static MonitorConfig read(Reader in) throws IOException {
+        boolean powerSave = false;
+        long windowMs = 60_000;
+        boolean metrics = false;
+        int metricsPort = DEFAULT_METRICS_PORT;
+        String metricsBind = "localhost";
+        List<MonitorSpec> monitors = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+
+        JsonReader reader = new JsonReader(new BufferedReader(in, 16 * 1024));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "powerSave":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "enabled": powerSave = reader.nextBoolean(); break;
+                            case "windowMs": windowMs = reader.nextLong(); break;
+                            default: reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "metrics":
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "enabled": metrics = reader.nextBoolean(); break;
+                            case "port": metricsPort = reader.nextInt(); break;
+                            case "bind": metricsBind = reader.nextString(); break;
+                            default: reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "monitors":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        MonitorSpec spec = MonitorSpec.read(reader);
+                        if (!ids.add(spec.id)) throw new IOException("Duplicate monitor id: " + spec.id);
+                        monitors.add(spec);
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (windowMs <= 0) throw new IOException("powerSave.windowMs must be positive");
+        if (metricsPort < 1024 || metricsPort > 65535) throw new IOException("metrics.port must be 1024-65535");
+        if (!metricsBind.equals("localhost") && !metricsBind.equals("lan")) {
+            throw new IOException("metrics.bind must be \"localhost\" or \"lan\"");
+        }
+        return new MonitorConfig(powerSave, windowMs, metrics ? metricsPort : 0, metricsBind.equals("lan"), monitors);
     }
 }
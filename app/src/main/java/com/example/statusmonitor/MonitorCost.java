@@ -0,0 +1,88 @@
+package com.example.statusmonitor;
+
+import android.os.Debug;
+
+import java.util.List;
+
+/*
+What one monitor's checks have cost since the service started: number of checks,
+CPU time of the checking thread, wall time, and bytes read and written.
+
+StatusChecker brackets every check with start() and record(). Bytes are counted
+by the transports themselves through countRx()/countTx() into a per-thread
+tally: HTTP bodies as received (still compressed), Minecraft packets, UDP
+datagrams and ICMP echoes. HTTP headers, TLS and TCP/IP overhead aren't
+included - for the full wire cost per monitor, StatusChecker also tags each
+check's sockets with TrafficStats (see adb shell dumpsys netstats detail). CPU
+spent on helper threads (OkHttp's HTTP/2 reader, connect racing) isn't
+attributed. A batched check's cost is split evenly across its monitors.
+
+Counters are written from the checker pool and read from the UI.
+*/
+public class MonitorCost {
+
+    private static final ThreadLocal<long[]> TALLY = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[2];  // rx, tx
+        }
+    };
+
+    private long checks;
+    private long cpuNanos;
+    private long wallNanos;
+    private long rxBytes;
+    private long txBytes;
+
+    /** Bytes received by the check running on this thread. */
+    public static void countRx(long bytes) {
+        TALLY.get()[0] += bytes;
+    }
+
+    /** Bytes sent by the check running on this thread. */
+    public static void countTx(long bytes) {
+        TALLY.get()[1] += bytes;
+    }
+
+    /** Starts measuring a check on this thread; pass the returned mark to record(). */
+    static long[] start() {
+        long[] tally = TALLY.get();
+        tally[0] = 0;
+        tally[1] = 0;
+        return new long[] {threadCpuNanos(), System.nanoTime()};
+    }
+
+    void record(long[] mark) {
+        long[] tally = TALLY.get();
+        add(1, threadCpuNanos() - mark[0], System.nanoTime() - mark[1], tally[0], tally[1]);
+    }
+
+    static void recordBatch(List<MonitorEntity> entities, long[] mark) {
+        long[] tally = TALLY.get();
+        long n = entities.size();
+        long cpu = threadCpuNanos() - mark[0];
+        long wall = System.nanoTime() - mark[1];
+        for (MonitorEntity entity : entities) {
+            entity.getCost().add(1, cpu / n, wall / n, tally[0] / n, tally[1] / n);
+        }
+    }
+
+    private synchronized void add(long checks, long cpuNanos, long wallNanos, long rxBytes, long txBytes) {
+        this.checks += checks;
+        this.cpuNanos += cpuNanos;
+        this.wallNanos += wallNanos;
+        this.rxBytes += rxBytes;
+        this.txBytes += txBytes;
+    }
+
+    public synchronized long getChecks() { return checks; }
+    public synchronized long getCpuNanos() { return cpuNanos; }
+    public synchronized long getWallNanos() { return wallNanos; }
+    public synchronized long getRxBytes() { return rxBytes; }
+    public synchronized long getTxBytes() { return txBytes; }
+
+    private static long threadCpuNanos() {
+        long nanos = Debug.threadCpuTimeNanos();
+        return nanos >= 0 ? nanos : 0;
+    }
+}
@@ -5,8 +5,12 @@ Represents a monitored entity (server, service, or program).
 */
 public class MonitorEntity {
 
+    public static final long DEFAULT_CHECK_INTERVAL_MS = 20_000;
+
+    // Persisted by ordinal (IncidentLog) - add new values at the end
     public enum Status {
         ONLINE,
+        DEGRADED,      // Reachable but unhealthy: over its resource thresholds or latency SLO
         OFFLINE,
         NO_CONNECTION  // Device has no internet / can't reach network
     }
@@ -15,18 +19,34 @@ public class MonitorEntity {
     private final String name;
     private final String address;
     private final StatusCheckStrategy checkStrategy;
+    private final long checkIntervalMs;
+    private final MetricThresholds metricThresholds;
+    private final LatencySlo latencySlo;                 // Null = no latency objective
+    private final LatencySlo.Tracker latencyTracker;
+    private final String fingerprint;                    // MonitorSpec this was built from; null if built in code
     private Status status;
     private String message;
     private String uptime;  // Optional uptime string from health check
     private boolean notificationsEnabled;
     private long lastCheckTime;
     private Status previousStatus;
+    private boolean stale;  // Restored from StateSnapshot, no fresh result yet
+    private HostMetrics metrics;
+    private MetricsHistory metricsHistory;  // Created on the first metrics sample
+    private final UptimeStats uptimeStats = new UptimeStats();
+    private final MonitorCost cost = new MonitorCost();
+    private final CheckStats checkStats = new CheckStats();
 
     private MonitorEntity(Builder builder) {
         this.id = builder.id;
         this.name = builder.name;
         this.address = builder.address;
         this.checkStrategy = builder.checkStrategy;
+        this.checkIntervalMs = builder.checkIntervalMs;
+        this.metricThresholds = builder.metricThresholds;
+        this.latencySlo = builder.latencySlo;
+        this.latencyTracker = latencySlo != null ? latencySlo.newTracker() : null;
+        this.fingerprint = builder.fingerprint;
         this.status = Status.OFFLINE;
         this.message = "Checking...";
         this.uptime = null;
@@ -39,12 +59,23 @@ public class MonitorEntity {
     public String getName() { return name; }
     public String getAddress() { return address; }
     public StatusCheckStrategy getCheckStrategy() { return checkStrategy; }
+    public long getCheckIntervalMs() { return checkIntervalMs; }
     public Status getStatus() { return status; }
     public String getMessage() { return message; }
     public String getUptime() { return uptime; }
     public boolean isNotificationsEnabled() { return notificationsEnabled; }
     public long getLastCheckTime() { return lastCheckTime; }
     public Status getPreviousStatus() { return previousStatus; }
+    public boolean isStale() { return stale; }
+    public MetricThresholds getMetricThresholds() { return metricThresholds; }
+    public LatencySlo getLatencySlo() { return latencySlo; }
+    public LatencySlo.Tracker getLatencyTracker() { return latencyTracker; }
+    public String getFingerprint() { return fingerprint; }
+    public HostMetrics getMetrics() { return metrics; }
+    public MetricsHistory getMetricsHistory() { return metricsHistory; }
+    public UptimeStats getUptimeStats() { return uptimeStats; }
+    public MonitorCost getCost() { return cost; }
+    public CheckStats getCheckStats() { return checkStats; }
 
     public void setStatus(Status status) {
         this.previousStatus = this.status;
@@ -55,11 +86,21 @@ public class MonitorEntity {
     public void setUptime(String uptime) { this.uptime = uptime; }
     public void setNotificationsEnabled(boolean enabled) { this.notificationsEnabled = enabled; }
     public void setLastCheckTime(long time) { this.lastCheckTime = time; }
+    public void setStale(boolean stale) { this.stale = stale; }
+
+    /** Shows the last known state from a previous run until the first fresh result arrives. */
+    public void restoreState(Status status, String message, String uptime, long lastCheckTime) {
+        this.status = status;
+        this.message = message;
+        this.uptime = uptime;
+        this.lastCheckTime = lastCheckTime;
+        this.stale = true;
+    }
 
-    /** True only when status changed to OFFLINE (service down). No notify for NO_CONNECTION or back online. */
-    public boolean shouldNotify() {
-        if (!notificationsEnabled || previousStatus == null || previousStatus == status) return false;
-        return status == Status.OFFLINE;
+    public void recordMetrics(long time, HostMetrics metrics) {
+        this.metrics = metrics;
+        if (metricsHistory == null) metricsHistory = new MetricsHistory();
+        metricsHistory.record(time, metrics);
     }
 
     public static class Builder {
@@ -68,6 +109,10 @@ public class MonitorEntity {
         private String address;
         private boolean notificationsEnabled = true;
         private StatusCheckStrategy checkStrategy;
+        private long checkIntervalMs = DEFAULT_CHECK_INTERVAL_MS;
+        private MetricThresholds metricThresholds = MetricThresholds.DEFAULT;
+        private LatencySlo latencySlo;
+        private String fingerprint;
 
         public Builder(String id, String name) {
             this.id = id;
@@ -77,11 +122,21 @@ public class MonitorEntity {
         public Builder address(String address) { this.address = address; return this; }
         public Builder notificationsEnabled(boolean enabled) { this.notificationsEnabled = enabled; return this; }
         public Builder checkStrategy(StatusCheckStrategy strategy) { this.checkStrategy = strategy; return this; }
+        public Builder checkInterval(long intervalMs) { this.checkIntervalMs = intervalMs; return this; }
+        public Builder metricThresholds(MetricThresholds thresholds) { this.metricThresholds = thresholds; return this; }
+        public Builder latencySlo(LatencySlo slo) { this.latencySlo = slo; return this; }
+        public Builder fingerprint(String fingerprint) { this.fingerprint = fingerprint; return this; }
 
         public MonitorEntity build() {
             if (checkStrategy == null) {
                 throw new IllegalStateException("checkStrategy is required");
             }
+            if (checkIntervalMs <= 0) {
+                throw new IllegalStateException("checkInterval must be positive");
+            }
+            if (metricThresholds == null) {
+                throw new IllegalStateException("metricThresholds is required");
+            }
             return new MonitorEntity(this);
         }
     }
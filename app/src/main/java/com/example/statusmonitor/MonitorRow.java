@@ -0,0 +1,92 @@
+package com.example.statusmonitor;
+
+import java.util.Locale;
+
+/*
+What the status list shows for one monitor, captured on the state reducer thread
+when a result is applied. Immutable, so the UI can hold rows while the reducer
+keeps changing the monitors they came from. All text is formatted up front; the
+adapter only picks colors and elapsed time.
+*/
+public final class MonitorRow {
+
+    private static final UptimeStats.Window[] CARD_WINDOWS = {
+            UptimeStats.Window.DAY, UptimeStats.Window.WEEK, UptimeStats.Window.MONTH};
+
+    public final String id;
+    public final String name;
+    public final String address;
+    public final String checkType;
+    public final MonitorEntity.Status status;
+    public final String message;        // Result message with uptime and host metrics
+    public final String availability;   // Empty until there is data
+    public final long lastCheckTime;
+    public final boolean stale;
+    public final boolean notificationsEnabled;
+
+    private MonitorRow(MonitorEntity entity, long now) {
+        this.id = entity.getId();
+        this.name = entity.getName();
+        this.address = entity.getAddress() != null ? entity.getAddress() : "";
+        this.checkType = entity.getCheckStrategy().getDescription();
+        this.status = entity.getStatus();
+        this.message = formatMessage(entity);
+        this.availability = formatAvailability(entity.getUptimeStats(), now);
+        this.lastCheckTime = entity.getLastCheckTime();
+        this.stale = entity.isStale();
+        this.notificationsEnabled = entity.isNotificationsEnabled();
+    }
+
+    /** Must run on the thread that applies check results. */
+    public static MonitorRow of(MonitorEntity entity, long now) {
+        return new MonitorRow(entity, now);
+    }
+
+    private static String formatMessage(MonitorEntity entity) {
+        String message = entity.getMessage();
+        String uptime = entity.getUptime();
+        if (uptime != null && !uptime.isEmpty()) {
+            message = message + " \nuptime: " + uptime;
+        }
+        HostMetrics metrics = entity.getMetrics();
+        if (metrics != null) {
+            message = message + "\n" + formatMetrics(metrics);
+        }
+        return message;
+    }
+
+    private static String formatAvailability(UptimeStats stats, long now) {
+        StringBuilder sb = new StringBuilder();
+        for (UptimeStats.Window window : CARD_WINDOWS) {
+            float percent = stats.getUptimePercent(window, now);
+            if (Float.isNaN(percent)) continue;
+            if (sb.length() > 0) sb.append("  ");
+            sb.append(window.label).append(' ').append(formatPercent(percent));
+        }
+        long outages = stats.getOutages(UptimeStats.Window.WEEK, now);
+        if (outages > 0) {
+            sb.append("  ").append(outages).append(outages == 1 ? " outage/7d" : " outages/7d");
+        }
+        return sb.toString();
+    }
+
+    static String formatPercent(float percent) {
+        if (percent >= 100f) return "100%";
+        // Round down so 99.996% doesn't read as a perfect 100.00%
+        return String.format(Locale.ROOT, "%.2f%%", Math.floor(percent * 100) / 100);
+    }
+
+    private static String formatMetrics(HostMetrics metrics) {
+        StringBuilder sb = new StringBuilder();
+        appendPercent(sb, "cpu", metrics.cpuPercent);
+        appendPercent(sb, "mem", metrics.memoryPercent);
+        appendPercent(sb, "disk", metrics.diskPercent);
+        return sb.toString();
+    }
+
+    private static void appendPercent(StringBuilder sb, String label, float value) {
+        if (Float.isNaN(value)) return;
+        if (sb.length() > 0) sb.append("  ");
+        sb.append(label).append(' ').append(Math.round(value)).append('%');
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.statusmonitor;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Background scheduler giving every monitor its own periodic timer.
+
+Timers live in a TimingWheel driven by a dedicated thread that sleeps until the
+next occupied slot, so an idle wheel costs nothing and thousands of monitors cost
+one wake-up per distinct deadline. Monitors due on the same tick are handed to
+the dispatcher together. Never touches the main looper.
+
+A batch window aligns every deadline to a shared grid so checks fire in bursts;
+the idle listener learns when the next burst is due so it can arm a wake-up alarm.
+*/
+public class MonitorScheduler {
+
+    private static final String TAG = "MonitorScheduler";
+    static final long TICK_MS = 100;
+
+    public interface Dispatcher {
+        /** Called on the scheduler thread. The list is reused - copy it to keep it. */
+        void onDue(List<MonitorEntity> due);
+    }
+
+    public interface IdleListener {
+        /** Called on the scheduler thread whenever the next due time changes. Long.MAX_VALUE = nothing scheduled. */
+        void onIdle(long nextDueElapsedMs);
+    }
+
+    private final Object lock = new Object();
+    private final TimingWheel<MonitorEntity> wheel = new TimingWheel<>(0);
+    private final Map<String, TimingWheel.Timer<MonitorEntity>> timers = new HashMap<>();
+    private final Dispatcher dispatcher;
+    private IdleListener idleListener;
+    private final long origin;
+    private Thread thread;
+    private volatile boolean running = false;
+    private long wakeTick = Long.MAX_VALUE;
+    private long reportedDue = -1;
+
+    public MonitorScheduler(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+        this.origin = SystemClock.elapsedRealtime();
+    }
+
+    public void start() {
+        synchronized (lock) {
+            if (running) return;
+            running = true;
+            if (thread == null || !thread.isAlive()) {
+                thread = new Thread(this::loop, "monitor-scheduler");
+                thread.start();
+            }
+        }
+    }
+
+    public void setIdleListener(IdleListener listener) {
+        synchronized (lock) {
+            this.idleListener = listener;
+            this.reportedDue = -1;
+        }
+    }
+
+    /**
+     * Aligns all deadlines to multiples of windowMs (0 disables) so monitors with different
+     * intervals share wake-ups. A monitor then runs at most once per window.
+     */
+    public void setBatchWindow(long windowMs) {
+        synchronized (lock) {
+            wheel.setAlignment(windowMs > 0 ? toTicks(windowMs) : 1);
+            for (TimingWheel.Timer<MonitorEntity> timer : timers.values()) {
+                wheel.reschedule(timer, timer.getDeadline() - wheel.currentTick());
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /** Re-evaluates due timers now, e.g. after an alarm woke the device from deep sleep. */
+    public void poke() {
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+    }
+
+    /** Schedules the entity (or moves its existing timer) to fire after initialDelayMs, then every check interval. */
+    public void schedule(MonitorEntity entity, long initialDelayMs) {
+        synchronized (lock) {
+            long period = toTicks(entity.getCheckIntervalMs());
+            // The wheel only turns when the thread wakes, so measure the delay from real time
+            long delay = toTicks(initialDelayMs) + currentTick() - wheel.currentTick();
+            TimingWheel.Timer<MonitorEntity> timer = timers.get(entity.getId());
+            if (timer == null || timer.getPayload() != entity) {
+                if (timer != null) wheel.cancel(timer);
+                timer = wheel.schedule(entity, delay, period);
+                timers.put(entity.getId(), timer);
+            } else {
+                timer.setPeriod(period);
+                wheel.reschedule(timer, delay);
+            }
+            if (timer.getDeadline() < wakeTick) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    public void cancel(MonitorEntity entity) {
+        synchronized (lock) {
+            TimingWheel.Timer<MonitorEntity> timer = timers.remove(entity.getId());
+            if (timer != null) {
+                wheel.cancel(timer);
+                FlightRecorder.record(entity, FlightRecorder.Event.CANCELLED, 0);
+            }
+        }
+    }
+
+    public void cancelAll() {
+        synchronized (lock) {
+            for (TimingWheel.Timer<MonitorEntity> timer : timers.values()) {
+                wheel.cancel(timer);
+            }
+            timers.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return wheel.size();
+        }
+    }
+
+    private void loop() {
+        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+        List<MonitorEntity> due = new ArrayList<>();
+
+        while (true) {
+            synchronized (lock) {
+                if (!running) return;
+                wheel.advanceTo(currentTick(), timer -> due.add(timer.getPayload()));
+                if (due.isEmpty()) {
+                    waitForNextEvent();
+                    continue;
+                }
+            }
+
+            try {
+                dispatcher.onDue(due);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Dispatch failed", e);
+            }
+            due.clear();
+        }
+    }
+
+    // Called with lock held
+    private void waitForNextEvent() {
+        if (idleListener != null) {
+            long due = wheel.nextExpiryTick();
+            if (due != reportedDue) {
+                reportedDue = due;
+                idleListener.onIdle(due == Long.MAX_VALUE ? Long.MAX_VALUE : origin + due * TICK_MS);
+            }
+        }
+
+        long next = wheel.nextEventTick();
+        wakeTick = next;
+        try {
+            if (next == Long.MAX_VALUE) {
+                lock.wait();
+            } else {
+                long waitMs = origin + next * TICK_MS - SystemClock.elapsedRealtime();
+                if (waitMs > 0) lock.wait(waitMs);
+            }
+        } catch (InterruptedException e) {
+            running = false;
+        } finally {
+            wakeTick = Long.MAX_VALUE;
+        }
+    }
+
+    private long currentTick() {
+        return (SystemClock.elapsedRealtime() - origin) / TICK_MS;
+    }
+
+    private static long toTicks(long ms) {
+        return (ms + TICK_MS - 1) / TICK_MS;
+    }
+}
@@ -10,31 +10,77 @@ import android.content.pm.ServiceInfo;
 import android.os.Binder;
 import android.os.Build;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
-import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
 
 import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+/*
+Foreground service that owns the monitors.
+
+Threads:
+  main       lifecycle and binder calls from the activities
+  reducer    "state-reducer": applies check results and config reloads, runs
+             AlertEngine, writes the snapshot and incident log, builds and posts
+             notifications, renders metrics - every write to monitor state
+  scheduler  MonitorScheduler hands due monitors to StatusChecker's pool, whose
+             results go to the reducer
+
+Nothing outside the reducer reads a MonitorEntity's state while it changes:
+each applied result becomes an immutable MonitorRow published on the
+StatusEventBus, which subscribers (the status list) receive on their own
+executors.
+*/
 public class MonitorService extends Service {
 
+    private static final String TAG = "MonitorService";
     private static final String CHANNEL_ID = "monitor_service";
     private static final int NOTIFICATION_ID = 1;
-    private static final long CHECK_INTERVAL_MS = 20_000;
+    // First round after a warm start is spread over this window instead of one burst
+    private static final long WARM_START_SPREAD_MS = 5000;
+    // Metrics are re-rendered at most this often, and only after something changed
+    private static final long METRICS_RENDER_MS = 2000;
 
     private final IBinder binder = new LocalBinder();
-    private Handler handler;
+    private MonitorScheduler scheduler;
+    private PowerSaveController powerSave;
     private StatusChecker statusChecker;
     private NotificationHelper notificationHelper;
+    private final AlertEngine alertEngine = new AlertEngine();
+    private IncidentLog incidentLog;
+    private StateSnapshot snapshot;
+    private MonitorSettings settings;
+    private HandlerThread reducerThread;
+    private Handler reducer;
+    private volatile boolean isRunning = false;
+
+    // Reducer thread
+    private MonitorConfig config;
+    private ConfigWatcher configWatcher;
+    private boolean warmStart;
     private List<MonitorEntity> entities;
-    private StatusUpdateListener listener;
-    private boolean isRunning = false;
+    private final Map<String, MonitorEntity> active = new HashMap<>();
+    private final Runnable metricsRender = this::renderMetrics;
+    private MetricsServer metricsServer;
+    private boolean metricsRenderPending;
+    private PendingIntent foregroundIntent;
+    private NotificationCompat.Builder foregroundBuilder;
+    private volatile String foregroundText;
 
-    public interface StatusUpdateListener {
-        void onStatusUpdated(MonitorEntity entity);
-    }
+    private final StatusEventBus statusBus = new StatusEventBus();
+    // Copy of entities for other threads, replaced on every list change
+    private volatile List<MonitorEntity> visibleEntities = Collections.emptyList();
 
     public class LocalBinder extends Binder {
         MonitorService getService() {
@@ -45,21 +91,39 @@ public class MonitorService extends Service {
     @Override
     public void onCreate() {
         super.onCreate();
-        handler = new Handler(Looper.getMainLooper());
-        statusChecker = new StatusChecker(this);
-        notificationHelper = new NotificationHelper(this);
-        entities = MonitorConfig.getMonitors();
+        scheduler = new MonitorScheduler(this::performChecks);
+        powerSave = new PowerSaveController(this);
+        scheduler.setIdleListener(powerSave::onIdle);
+        reducerThread = new HandlerThread("state-reducer", Process.THREAD_PRIORITY_BACKGROUND);
+        reducerThread.start();
+        reducer = new Handler(reducerThread.getLooper());
+        statusChecker = new StatusChecker(this, reducer);
+        notificationHelper = new NotificationHelper(this, reducerThread.getLooper());
+        incidentLog = new IncidentLog(new File(getFilesDir(), "incidents"));
+
+        settings = new MonitorSettings(this);
+        snapshot = new StateSnapshot(new File(getFilesDir(), "state"));
+        configWatcher = new ConfigWatcher(MonitorConfig.getFile(this), reducer, this::applyConfig);
         createNotificationChannel();
+        // The disk reads run first on the reducer; everything posted later sees the monitors
+        reducer.post(this::loadMonitors);
+        reducer.post(this::applyMetrics);
     }
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
+        if (intent != null && PowerSaveController.ACTION_WAKE.equals(intent.getAction()) && isRunning) {
+            powerSave.onAlarm();
+            scheduler.poke();
+            return START_STICKY;
+        }
+
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE) {
-            startForeground(NOTIFICATION_ID, createForegroundNotification(), ServiceInfo.FOREGROUND_SERVICE_TYPE_SPECIAL_USE);
+            startForeground(NOTIFICATION_ID, createForegroundNotification(foregroundContentText(visibleEntities.size())), ServiceInfo.FOREGROUND_SERVICE_TYPE_SPECIAL_USE);
         } else {
-            startForeground(NOTIFICATION_ID, createForegroundNotification());
+            startForeground(NOTIFICATION_ID, createForegroundNotification(foregroundContentText(visibleEntities.size())));
         }
-        startMonitoring();
+        reducer.post(this::startMonitoring);
         return START_STICKY;
     }
 
@@ -76,56 +140,229 @@ public class MonitorService extends Service {
         if (statusChecker != null) {
             statusChecker.shutdown();
         }
+        // Runs after everything already queued; results arriving later are dropped
+        reducer.post(() -> {
+            // Here rather than on main so it can't run before loadMonitors() starts it
+            configWatcher.stop();
+            reducer.removeCallbacks(metricsRender);
+            if (metricsServer != null) {
+                metricsServer.stop();
+            }
+            notificationHelper.cancelPending();
+            incidentLog.close();
+            snapshot.close();
+            settings.close();
+        });
+        reducerThread.quitSafely();
     }
 
-    public void setStatusUpdateListener(StatusUpdateListener listener) {
-        this.listener = listener;
+    /** Rows of every monitor as results are applied; subscribe to follow them. */
+    public StatusEventBus getStatusBus() {
+        return statusBus;
     }
 
+    /** The current monitors, for reading their thread-safe parts (id, cost) from other threads. */
     public List<MonitorEntity> getEntities() {
-        return entities;
+        return visibleEntities;
     }
 
+    /** Main thread, from the notification switch. Saved in the background. */
+    public void setNotificationsEnabled(String id, boolean enabled) {
+        settings.setNotificationsEnabled(id, enabled);
+        reducer.post(() -> {
+            MonitorEntity entity = active.get(id);
+            if (entity == null) return;
+            entity.setNotificationsEnabled(enabled);
+            statusBus.publish(MonitorRow.of(entity, System.currentTimeMillis()));
+        });
+    }
+
+    public PoolStats getPoolStats() {
+        return statusChecker.getPoolStats();
+    }
+
+    /** Status periods of every monitor, persisted across restarts. Query it off the main thread. */
+    public IncidentLog getIncidentLog() {
+        return incidentLog;
+    }
+
+    /** Fires every monitor on the next scheduler tick; each timer restarts its interval from there. */
     public void checkNow() {
-        performChecks();
+        reducer.post(() -> {
+            if (!isRunning) return;
+            for (MonitorEntity entity : entities) {
+                scheduler.schedule(entity, 0);
+            }
+        });
     }
 
+    // Reducer thread
+    private void loadMonitors() {
+        config = MonitorConfig.load(this);
+        entities = config.createEntities();
+        settings.load();
+        for (MonitorEntity entity : entities) {
+            settings.applyTo(entity);
+            active.put(entity.getId(), entity);
+        }
+        warmStart = snapshot.restore(entities) > 0;
+        publishMonitors();
+        configWatcher.start();
+        // onStartCommand may have counted the monitors before they were loaded
+        if (foregroundText != null) updateForegroundNotification();
+    }
+
+    // Reducer thread
     private void startMonitoring() {
         if (isRunning) return;
         isRunning = true;
-        performChecks();
+        applyPowerMode(config.isPowerSaveMode());
+        scheduler.start();
+        if (!warmStart) {
+            for (MonitorEntity entity : entities) {
+                scheduler.schedule(entity, 0);
+            }
+            return;
+        }
+
+        // The UI already shows last-known state, so there is no rush: stalest first,
+        // spread out so the first round doesn't open every connection at once
+        List<MonitorEntity> order = new ArrayList<>(entities);
+        Collections.sort(order, (a, b) -> Long.compare(a.getLastCheckTime(), b.getLastCheckTime()));
+        for (int i = 0; i < order.size(); i++) {
+            scheduler.schedule(order.get(i), WARM_START_SPREAD_MS * i / order.size());
+        }
     }
 
     private void stopMonitoring() {
         isRunning = false;
-        handler.removeCallbacksAndMessages(null);
+        scheduler.cancelAll();
+        scheduler.stop();
+        powerSave.setEnabled(false);
     }
 
-    private final Runnable checkRunnable = () -> {
-        if (isRunning) {
-            performChecks();
+    private void applyPowerMode(boolean enabled) {
+        powerSave.setEnabled(enabled);
+        scheduler.setBatchWindow(enabled ? config.getPowerSaveWindowMs() : 0);
+    }
+
+    // Reducer thread, from ConfigWatcher: restart only what changed
+    private void applyConfig(MonitorConfig next) {
+        ConfigDiff diff = ConfigDiff.compute(entities, next.getMonitors());
+        boolean powerChanged = next.isPowerSaveMode() != config.isPowerSaveMode()
+                || next.getPowerSaveWindowMs() != config.getPowerSaveWindowMs();
+        config = next;
+
+        long now = System.currentTimeMillis();
+        for (MonitorEntity entity : diff.stopped) {
+            scheduler.cancel(entity);
+            // A replacement starts its own period with its first result
+            incidentLog.end(entity.getId(), now);
+            alertEngine.forget(entity.getId());
+            snapshot.forget(entity.getId());
+            active.remove(entity.getId());
         }
-    };
+        entities.clear();
+        entities.addAll(diff.entities);
+        for (MonitorEntity entity : diff.started) {
+            settings.applyTo(entity);
+            active.put(entity.getId(), entity);
+            if (isRunning) scheduler.schedule(entity, 0);
+        }
+        if (powerChanged && isRunning) applyPowerMode(config.isPowerSaveMode());
+        applyMetrics();
+        scheduleMetricsRender();
 
-    private void performChecks() {
-        for (MonitorEntity entity : entities) {
-            statusChecker.checkStatus(entity, (checkedEntity, result) -> {
-                checkedEntity.setStatus(result.status);
-                checkedEntity.setMessage(result.message);
-                checkedEntity.setUptime(result.uptime);
-                checkedEntity.setLastCheckTime(System.currentTimeMillis());
+        publishMonitors();
+        updateForegroundNotification();
+    }
 
-                if (listener != null) {
-                    listener.onStatusUpdated(checkedEntity);
-                }
+    // Runs on the scheduler thread; checks themselves run on the StatusChecker pool
+    private void performChecks(List<MonitorEntity> due) {
+        powerSave.beginBurst(due.size());
+        statusChecker.checkAll(due, this::onCheckResult);
+        reducer.post(this::updateForegroundNotification);
+    }
 
-                if (checkedEntity.isNotificationsEnabled() && result.status == MonitorEntity.Status.OFFLINE) {
-                    notificationHelper.notifyStatusChange(checkedEntity);
-                }
-            });
+    // Reducer thread, once per checked monitor
+    private void onCheckResult(MonitorEntity checkedEntity, StatusCheckStrategy.Result result) {
+        powerSave.onCheckFinished();
+        // Dropped by a saturated checker; the next round will try again
+        if (result == null) return;
+        // Removed or replaced by a config reload while the check was running
+        if (active.get(checkedEntity.getId()) != checkedEntity) {
+            FlightRecorder.record(checkedEntity, FlightRecorder.Event.CANCELLED, 0);
+            return;
         }
 
-        handler.postDelayed(checkRunnable, CHECK_INTERVAL_MS);
+        long now = System.currentTimeMillis();
+        StatusCheckStrategy.Result applied = applyHealth(checkedEntity, result, now);
+        MonitorEntity.Status status = applied.status;
+
+        checkedEntity.setStatus(status);
+        checkedEntity.setMessage(applied.message);
+        checkedEntity.setUptime(applied.uptime);
+        checkedEntity.setLastCheckTime(now);
+        checkedEntity.setStale(false);
+        snapshot.update(checkedEntity);
+
+        checkedEntity.getUptimeStats().record(now, status);
+        checkedEntity.getCheckStats().record(status, result.latencyMs);
+        incidentLog.record(checkedEntity.getId(), status, now, applied.message);
+        AlertEngine.Alert alert = alertEngine.onResult(checkedEntity, status, now);
+        if (alert != null && alert.kind == AlertEngine.Kind.DOWN) {
+            checkedEntity.getUptimeStats().recordOutage(alert.incidentStart);
+        }
+        if (alert != null) {
+            notificationHelper.post(alert);
+        }
+        statusBus.publish(MonitorRow.of(checkedEntity, now));
+        scheduleMetricsRender();
+    }
+
+    private void publishMonitors() {
+        visibleEntities = Collections.unmodifiableList(new ArrayList<>(entities));
+        long now = System.currentTimeMillis();
+        List<MonitorRow> rows = new ArrayList<>(entities.size());
+        for (MonitorEntity entity : entities) rows.add(MonitorRow.of(entity, now));
+        statusBus.publishAll(rows);
+    }
+
+    // Starts, restarts or stops the metrics server to match the config
+    private void applyMetrics() {
+        int port = config.getMetricsPort();
+        if (metricsServer != null && metricsServer.getPort() == port && metricsServer.isLan() == config.isMetricsLan()) {
+            return;
+        }
+        if (metricsServer != null) {
+            metricsServer.stop();
+            metricsServer = null;
+        }
+        if (port == 0) return;
+
+        MetricsServer server = new MetricsServer(port, config.isMetricsLan());
+        try {
+            server.start();
+        } catch (IOException e) {
+            Log.e(TAG, "Metrics server can't listen on port " + port + ": " + e.getMessage());
+            return;
+        }
+        metricsServer = server;
+        renderMetrics();
+    }
+
+    private void scheduleMetricsRender() {
+        if (metricsServer == null || metricsRenderPending) return;
+        metricsRenderPending = true;
+        reducer.postDelayed(metricsRender, METRICS_RENDER_MS);
+    }
+
+    // Reducer thread, where the stats it reads are written; scrapes only see the finished text
+    private void renderMetrics() {
+        metricsRenderPending = false;
+        if (metricsServer != null) {
+            metricsServer.publish(PrometheusFormat.render(entities, statusChecker.getPoolStats()));
+        }
     }
 
     private void createNotificationChannel() {
@@ -143,19 +380,62 @@ public class MonitorService extends Service {
         }
     }
 
-    private Notification createForegroundNotification() {
-        Intent intent = new Intent(this, MainActivity.class);
-        PendingIntent pendingIntent = PendingIntent.getActivity(
-                this, 0, intent, PendingIntent.FLAG_IMMUTABLE
-        );
+    /**
+     * Feeds a reachable result into the monitor's metrics history and latency SLO, and
+     * downgrades it to DEGRADED when either is out of bounds.
+     */
+    private StatusCheckStrategy.Result applyHealth(MonitorEntity entity, StatusCheckStrategy.Result result, long now) {
+        if (result.status != MonitorEntity.Status.ONLINE) return result;
+
+        String reason = null;
+        if (result.metrics != null) {
+            entity.recordMetrics(now, result.metrics);
+            reason = entity.getMetricThresholds().evaluate(entity.getMetricsHistory());
+        }
+
+        LatencySlo.Tracker latency = entity.getLatencyTracker();
+        if (latency != null && result.latencyMs >= 0) {
+            latency.add(now, result.latencyMs);
+            if (latency.isViolated(now)) {
+                String violation = latency.describeViolation();
+                reason = reason != null ? reason + ", " + violation : violation;
+            }
+        }
+        return reason != null ? result.degraded(reason) : result;
+    }
 
-        return new NotificationCompat.Builder(this, CHANNEL_ID)
-                .setContentTitle("Status Monitor")
-                .setContentText("Monitoring " + entities.size() + " entities")
-                .setSmallIcon(android.R.drawable.ic_menu_info_details)
-                .setContentIntent(pendingIntent)
-                .setOngoing(true)
-                .setSilent(true)
-                .build();
+    // Reducer thread
+    private void updateForegroundNotification() {
+        String text = foregroundContentText(entities.size());
+        if (text.equals(foregroundText)) return;
+        NotificationManager manager = getSystemService(NotificationManager.class);
+        if (manager != null) {
+            manager.notify(NOTIFICATION_ID, createForegroundNotification(text));
+        }
+    }
+
+    private String foregroundContentText(int monitors) {
+        String text = "Monitoring " + monitors + " entities";
+        if (powerSave.isEnabled()) {
+            text += ", power save";
+        }
+        return text + ", " + powerSave.getWakeupsPerHour() + " wakeups/h";
+    }
+
+    // Main thread from onStartCommand, reducer thread otherwise; only the text changes between calls
+    private synchronized Notification createForegroundNotification(String text) {
+        foregroundText = text;
+        if (foregroundBuilder == null) {
+            foregroundIntent = PendingIntent.getActivity(
+                    this, 0, new Intent(this, MainActivity.class), PendingIntent.FLAG_IMMUTABLE
+            );
+            foregroundBuilder = new NotificationCompat.Builder(this, CHANNEL_ID)
+                    .setContentTitle("Status Monitor")
+                    .setSmallIcon(android.R.drawable.ic_menu_info_details)
+                    .setContentIntent(foregroundIntent)
+                    .setOngoing(true)
+                    .setSilent(true);
+        }
+        return foregroundBuilder.setContentText(text).build();
     }
 }
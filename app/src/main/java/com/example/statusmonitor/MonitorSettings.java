@@ -0,0 +1,120 @@
+package com.example.statusmonitor;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+Per-monitor settings the user changes in the app, currently whether a monitor
+posts notifications.
+
+load() reads everything once when the service starts, on the reducer; after that
+the store is memory only. Changes are written behind, at most once per WRITE_DELAY_MS, with
+commit() on a background thread, so a run of toggles costs one write and no
+write ever waits on, or makes the main thread wait for, the disk.
+
+Stored in the "status_monitor_prefs" SharedPreferences as notify_<id>. Monitors
+without an entry keep the value from monitors.json.
+*/
+public class MonitorSettings {
+
+    private static final String PREFS_NAME = "status_monitor_prefs";
+    private static final String PREF_NOTIFY_PREFIX = "notify_";
+    static final long WRITE_DELAY_MS = 1000;
+
+    private final Context context;
+    private final long writeDelayMs;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "monitor-settings");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final Map<String, Boolean> notify = new HashMap<>();
+    private final Map<String, Boolean> dirty = new HashMap<>();
+    private SharedPreferences prefs;
+    private ScheduledFuture<?> pendingWrite;
+    private boolean writeScheduled;
+    private boolean closed;
+
+    public MonitorSettings(Context context) {
+        this.context = context.getApplicationContext();
+        this.writeDelayMs = WRITE_DELAY_MS;
+    }
+
+    MonitorSettings(SharedPreferences prefs, long writeDelayMs) {
+        this.context = null;
+        this.prefs = prefs;
+        this.writeDelayMs = writeDelayMs;
+    }
+
+    public void load() {
+        if (prefs == null) prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        Map<String, ?> all = prefs.getAll();
+        synchronized (notify) {
+            for (Map.Entry<String, ?> entry : all.entrySet()) {
+                if (entry.getKey().startsWith(PREF_NOTIFY_PREFIX) && entry.getValue() instanceof Boolean) {
+                    notify.put(entry.getKey().substring(PREF_NOTIFY_PREFIX.length()), (Boolean) entry.getValue());
+                }
+            }
+        }
+    }
+
+    /** Overrides the entity's configured settings with the saved ones. */
+    public void applyTo(MonitorEntity entity) {
+        Boolean enabled;
+        synchronized (notify) {
+            enabled = notify.get(entity.getId());
+        }
+        if (enabled != null) entity.setNotificationsEnabled(enabled);
+    }
+
+    /** Takes effect in memory now; the disk catches up within WRITE_DELAY_MS. Ignored after close(). */
+    public void setNotificationsEnabled(String id, boolean enabled) {
+        synchronized (notify) {
+            if (closed) return;
+            notify.put(id, enabled);
+            dirty.put(id, enabled);
+            if (writeScheduled) return;
+            writeScheduled = true;
+            pendingWrite = executor.schedule(this::write, writeDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Writes any pending changes now and stops the writer thread. */
+    public void close() {
+        synchronized (notify) {
+            if (closed) return;
+            closed = true;
+            if (pendingWrite != null) pendingWrite.cancel(false);
+        }
+        // A commit already running must land first, or it could overwrite newer values
+        executor.shutdown();
+        try {
+            executor.awaitTermination(writeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        write();
+    }
+
+    private void write() {
+        Map<String, Boolean> changes;
+        synchronized (notify) {
+            writeScheduled = false;
+            if (dirty.isEmpty()) return;
+            changes = new HashMap<>(dirty);
+            dirty.clear();
+        }
+        SharedPreferences.Editor editor = prefs.edit();
+        for (Map.Entry<String, Boolean> entry : changes.entrySet()) {
+            editor.putBoolean(PREF_NOTIFY_PREFIX + entry.getKey(), entry.getValue());
+        }
+        editor.commit();
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.statusmonitor;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import com.example.statusmonitor.checks.MinecraftCheck;
+import com.example.statusmonitor.checks.PingCheck;
+import com.example.statusmonitor.checks.SimpleHealthCheck;
+import com.example.statusmonitor.checks.UdpHeartbeatCheck;
+import com.example.statusmonitor.checks.WebsiteCheck;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/*
+One monitor as declared in monitors.json (see MonitorConfig for the format).
+
+Specs are plain values; build() turns one into a live MonitorEntity. The
+fingerprint covers every field, so two specs with the same fingerprint build
+equivalent monitors - ConfigDiff uses it to keep unchanged monitors running.
+*/
+public final class MonitorSpec {
+
+    private static final int DEFAULT_MINECRAFT_PORT = 25565;
+
+    final String id;
+    final String name;
+    final String address;
+    final long intervalMs;
+    final boolean notifications;
+    final String type;
+    final String host;
+    final int port;
+    final String url;
+    final String expect;
+    final boolean multiplexed;
+    final long sloThresholdMs;      // 0 = no latency objective
+    final double sloPercentile;
+    final long sloWindowMs;
+    final float cpuLimit;
+    final float memoryLimit;
+    final float diskLimit;
+    final int sustainSamples;
+    final String fingerprint;
+
+    private MonitorSpec(Fields f) {
+        this.id = f.id;
+        this.name = f.name != null ? f.name : f.id;
+        this.address = f.address != null ? f.address : f.host;
+        this.intervalMs = f.intervalMs;
+        this.notifications = f.notifications;
+        this.type = f.type;
+        this.host = f.host;
+        this.port = f.port;
+        this.url = f.url;
+        this.expect = f.expect;
+        this.multiplexed = f.multiplexed;
+        this.sloThresholdMs = f.sloThresholdMs;
+        this.sloPercentile = f.sloPercentile;
+        this.sloWindowMs = f.sloWindowMs;
+        this.cpuLimit = f.cpuLimit;
+        this.memoryLimit = f.memoryLimit;
+        this.diskLimit = f.diskLimit;
+        this.sustainSamples = f.sustainSamples;
+        this.fingerprint = String.format(Locale.ROOT, "%s|%s|%s|%d|%b|%s|%s|%d|%s|%s|%b|%d|%s|%d|%s|%s|%s|%d",
+                id, name, address, intervalMs, notifications, type, host, port, url, expect, multiplexed,
+                sloThresholdMs, sloPercentile, sloWindowMs, cpuLimit, memoryLimit, diskLimit, sustainSamples);
+    }
+
+    public String getId() { return id; }
+    public String getFingerprint() { return fingerprint; }
+
+    public MonitorEntity build() {
+        MonitorEntity.Builder builder = new MonitorEntity.Builder(id, name)
+                .address(address)
+                .checkStrategy(createStrategy())
+                .checkInterval(intervalMs)
+                .notificationsEnabled(notifications)
+                .metricThresholds(new MetricThresholds(cpuLimit, memoryLimit, diskLimit, sustainSamples))
+                .fingerprint(fingerprint);
+        if (sloThresholdMs > 0) {
+            builder.latencySlo(new LatencySlo(sloThresholdMs, sloPercentile, sloWindowMs));
+        }
+        return builder.build();
+    }
+
+    private StatusCheckStrategy createStrategy() {
+        switch (type) {
+            case "ping":
+                return new PingCheck(host);
+            case "health":
+                return new SimpleHealthCheck(port, host);
+            case "udp":
+                return new UdpHeartbeatCheck(port, host);
+            case "website":
+                return new WebsiteCheck(url, expect, multiplexed);
+            case "minecraft":
+                return new MinecraftCheck(host, port);
+            default:
+                throw new IllegalStateException("Unknown check type: " + type);
+        }
+    }
+
+    /** Reads one monitor object; field order doesn't matter and unknown fields are skipped. */
+    static MonitorSpec read(JsonReader reader) throws IOException {
+        Fields f = new Fields();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id": f.id = nextString(reader); break;
+                case "name": f.name = nextString(reader); break;
+                case "address": f.address = nextString(reader); break;
+                case "intervalMs": f.intervalMs = reader.nextLong(); break;
+                case "notifications": f.notifications = reader.nextBoolean(); break;
+                case "check": readCheck(reader, f); break;
+                case "latencySlo": readSlo(reader, f); break;
+                case "thresholds": readThresholds(reader, f); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return f.validate();
+    }
+
+    private static void readCheck(JsonReader reader, Fields f) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type": f.type = nextString(reader); break;
+                case "host": f.host = nextString(reader); break;
+                case "port": f.port = reader.nextInt(); break;
+                case "url": f.url = nextString(reader); break;
+                case "expect": f.expect = nextString(reader); break;
+                case "multiplexed": f.multiplexed = reader.nextBoolean(); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readSlo(JsonReader reader, Fields f) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "thresholdMs": f.sloThresholdMs = reader.nextLong(); break;
+                case "percentile": f.sloPercentile = reader.nextDouble(); break;
+                case "windowMs": f.sloWindowMs = reader.nextLong(); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readThresholds(JsonReader reader, Fields f) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "cpu": f.cpuLimit = nextLimit(reader); break;
+                case "memory": f.memoryLimit = nextLimit(reader); break;
+                case "disk": f.diskLimit = nextLimit(reader); break;
+                case "sustain": f.sustainSamples = reader.nextInt(); break;
+                default: reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    // null disables the limit
+    private static float nextLimit(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return Float.NaN;
+        }
+        return (float) reader.nextDouble();
+    }
+
+    // Mutable scratch for one object while it streams past
+    private static class Fields {
+        String id;
+        String name;
+        String address;
+        long intervalMs = MonitorEntity.DEFAULT_CHECK_INTERVAL_MS;
+        boolean notifications = true;
+        String type;
+        String host;
+        int port = -1;
+        String url;
+        String expect;
+        boolean multiplexed;
+        long sloThresholdMs;
+        double sloPercentile = 0.95;
+        long sloWindowMs = 5 * 60_000;
+        float cpuLimit = 90;
+        float memoryLimit = 90;
+        float diskLimit = 90;
+        int sustainSamples = 3;
+
+        MonitorSpec validate() throws IOException {
+            if (id == null || id.isEmpty()) throw new IOException("Monitor without an id");
+            if (type == null) throw new IOException(id + ": missing check type");
+            if (intervalMs <= 0) throw new IOException(id + ": intervalMs must be positive");
+            switch (type) {
+                case "ping":
+                    require(host != null, "check.host");
+                    break;
+                case "health":
+                case "udp":
+                    require(host != null, "check.host");
+                    require(port > 0 && port < 65536, "check.port");
+                    break;
+                case "website":
+                    require(url != null, "check.url");
+                    require(expect != null, "check.expect");
+                    break;
+                case "minecraft":
+                    require(host != null, "check.host");
+                    if (port == -1) port = DEFAULT_MINECRAFT_PORT;
+                    require(port > 0 && port < 65536, "check.port");
+                    break;
+                default:
+                    throw new IOException(id + ": unknown check type \"" + type + "\"");
+            }
+            if (sloThresholdMs > 0) {
+                require(sloPercentile > 0 && sloPercentile < 1, "latencySlo.percentile");
+                require(sloWindowMs >= LatencySlo.SLOTS, "latencySlo.windowMs");
+            }
+            require(sustainSamples > 0 && sustainSamples <= MetricsHistory.CAPACITY, "thresholds.sustain");
+            return new MonitorSpec(this);
+        }
+
+        private void require(boolean valid, String field) throws IOException {
+            if (!valid) throw new IOException(id + ": missing or invalid " + field);
+        }
+    }
+}
@@ -6,21 +6,49 @@ import android.app.PendingIntent;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Posts AlertEngine alerts. Alerts arriving within COALESCE_MS are collected, and
+when SUMMARY_THRESHOLD or more monitors go down (or recover) together they are
+posted as one grouped summary instead of one notification each. A CLEARED alert
+posts nothing; it removes the monitor's own notification.
+
+post() and cancelPending() must be called on the looper's thread.
+*/
 public class NotificationHelper {
 
     private static final String CHANNEL_ID = "status_alerts";
     private static final String CHANNEL_NAME = "Status Alerts";
+    private static final String GROUP_KEY = "com.example.statusmonitor.ALERTS";
+    private static final int DOWN_SUMMARY_ID = 2;
+    private static final int RECOVERED_SUMMARY_ID = 3;
+    private static final long COALESCE_MS = 3000;
+    private static final int SUMMARY_THRESHOLD = 3;
 
     private final Context context;
     private final NotificationManagerCompat notificationManager;
+    private final PendingIntent contentIntent;
+    private final Handler handler;
+    private final List<AlertEngine.Alert> pending = new ArrayList<>();
+    private final Runnable flushRunnable = this::flush;
 
-    public NotificationHelper(Context context) {
+    public NotificationHelper(Context context, Looper looper) {
         this.context = context;
         this.notificationManager = NotificationManagerCompat.from(context);
+        this.handler = new Handler(looper);
+
+        Intent intent = new Intent(context, MainActivity.class);
+        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+        this.contentIntent = PendingIntent.getActivity(context, 0, intent, PendingIntent.FLAG_IMMUTABLE);
+
         createNotificationChannel();
     }
 
@@ -40,31 +68,124 @@ public class NotificationHelper {
         }
     }
 
-    /** Notify only when the service is actually offline (not for NO_CONNECTION or back online). */
-    public void notifyStatusChange(MonitorEntity entity) {
-        if (!entity.isNotificationsEnabled() || entity.getStatus() != MonitorEntity.Status.OFFLINE) return;
+    /** Queues an alert; it is posted, possibly as part of a summary, after the coalescing delay. */
+    public void post(AlertEngine.Alert alert) {
+        // Clearing still applies if notifications were switched off after the DOWN was posted
+        if (!alert.entity.isNotificationsEnabled() && alert.kind != AlertEngine.Kind.CLEARED) return;
+        pending.add(alert);
+        if (pending.size() == 1) {
+            handler.postDelayed(flushRunnable, COALESCE_MS);
+        }
+    }
 
-        String title = entity.getName() + " OFFLINE";
-        String message = entity.getMessage();
+    public void cancelPending() {
+        handler.removeCallbacks(flushRunnable);
+        pending.clear();
+    }
 
-        Intent intent = new Intent(context, MainActivity.class);
-        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-        PendingIntent pendingIntent = PendingIntent.getActivity(
-                context, 0, intent, PendingIntent.FLAG_IMMUTABLE
-        );
+    private void flush() {
+        List<AlertEngine.Alert> down = new ArrayList<>();
+        List<AlertEngine.Alert> recovered = new ArrayList<>();
+        List<AlertEngine.Alert> cleared = new ArrayList<>();
+        for (AlertEngine.Alert alert : pending) {
+            if (alert.kind == AlertEngine.Kind.CLEARED) {
+                cleared.add(alert);
+            } else if (alert.kind == AlertEngine.Kind.DEGRADED) {
+                // Early warnings stay individual, never part of an outage summary
+                notifySafely(alert.entity.getId().hashCode(), buildSingle(alert));
+            } else {
+                (alert.kind == AlertEngine.Kind.RECOVERED ? recovered : down).add(alert);
+            }
+        }
+        pending.clear();
+
+        if (down.size() >= SUMMARY_THRESHOLD) {
+            notifySafely(DOWN_SUMMARY_ID, buildSummary(down, " monitors OFFLINE", false));
+        } else {
+            for (AlertEngine.Alert alert : down) {
+                notifySafely(alert.entity.getId().hashCode(), buildSingle(alert));
+            }
+        }
+
+        if (recovered.size() >= SUMMARY_THRESHOLD) {
+            notifySafely(RECOVERED_SUMMARY_ID, buildSummary(recovered, " monitors back ONLINE", true));
+        } else {
+            for (AlertEngine.Alert alert : recovered) {
+                notifySafely(alert.entity.getId().hashCode(), buildSingle(alert));
+            }
+        }
+
+        // Last, so a DOWN from this same batch is withdrawn too
+        for (AlertEngine.Alert alert : cleared) {
+            notificationManager.cancel(alert.entity.getId().hashCode());
+        }
+    }
 
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
-                .setSmallIcon(android.R.drawable.ic_dialog_alert)
+    private NotificationCompat.Builder buildSingle(AlertEngine.Alert alert) {
+        MonitorEntity entity = alert.entity;
+        if (alert.kind == AlertEngine.Kind.DEGRADED) {
+            return baseBuilder(true)
+                    .setContentTitle(entity.getName() + " DEGRADED")
+                    .setContentText(entity.getMessage())
+                    .setWhen(alert.time);
+        }
+        boolean recovered = alert.kind == AlertEngine.Kind.RECOVERED;
+
+        String title = entity.getName() + (recovered ? " back ONLINE" : " OFFLINE");
+        String message = recovered
+                ? "Down for " + formatDuration(alert.time - alert.incidentStart)
+                : entity.getMessage();
+
+        return baseBuilder(recovered)
                 .setContentTitle(title)
                 .setContentText(message)
-                .setPriority(NotificationCompat.PRIORITY_HIGH)
-                .setContentIntent(pendingIntent)
+                .setWhen(alert.time);
+    }
+
+    private NotificationCompat.Builder buildSummary(List<AlertEngine.Alert> alerts, String suffix, boolean recovered) {
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle();
+        StringBuilder names = new StringBuilder();
+        for (AlertEngine.Alert alert : alerts) {
+            String detail = recovered
+                    ? "down " + formatDuration(alert.time - alert.incidentStart)
+                    : alert.entity.getMessage();
+            style.addLine(alert.entity.getName() + " - " + detail);
+            if (names.length() > 0) names.append(", ");
+            names.append(alert.entity.getName());
+        }
+
+        return baseBuilder(recovered)
+                .setContentTitle(alerts.size() + suffix)
+                .setContentText(names.toString())
+                .setStyle(style)
+                .setNumber(alerts.size())
+                .setGroupSummary(true);
+    }
+
+    private NotificationCompat.Builder baseBuilder(boolean quiet) {
+        return new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(quiet ? android.R.drawable.ic_dialog_info : android.R.drawable.ic_dialog_alert)
+                .setPriority(quiet ? NotificationCompat.PRIORITY_DEFAULT : NotificationCompat.PRIORITY_HIGH)
+                .setSilent(quiet)
+                .setGroup(GROUP_KEY)
+                .setContentIntent(contentIntent)
                 .setAutoCancel(true);
+    }
 
+    private void notifySafely(int id, NotificationCompat.Builder builder) {
         try {
-            notificationManager.notify(entity.getId().hashCode(), builder.build());
+            notificationManager.notify(id, builder.build());
         } catch (SecurityException e) {
             // Notification permission not granted
         }
     }
+
+    static String formatDuration(long ms) {
+        long minutes = Math.max(0, ms) / 60_000;
+        if (minutes < 1) return "<1m";
+        if (minutes < 60) return minutes + "m";
+        long hours = minutes / 60;
+        if (hours < 24) return hours + "h " + (minutes % 60) + "m";
+        return (hours / 24) + "d " + (hours % 24) + "h";
+    }
 }
@@ -0,0 +1,47 @@
+package com.example.statusmonitor;
+
+import java.util.List;
+import java.util.Locale;
+
+/*
+Snapshot of StatusChecker's thread pool and watchdog for the diagnostics screen.
+*/
+public final class PoolStats {
+
+    public final int active;
+    public final int queued;
+    public final long completed;
+    public final long rejected;
+    public final long maxWaitMs;
+    public final int inFlight;
+    public final long oldestMs;
+    public final long stuck;
+    public final List<String> stuckTraces;
+
+    PoolStats(int active, int queued, long completed, long rejected, long maxWaitMs,
+              int inFlight, long oldestMs, long stuck, List<String> stuckTraces) {
+        this.active = active;
+        this.queued = queued;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.maxWaitMs = maxWaitMs;
+        this.inFlight = inFlight;
+        this.oldestMs = oldestMs;
+        this.stuck = stuck;
+        this.stuckTraces = stuckTraces;
+    }
+
+    /** Summary lines followed by the stacks of the latest stuck checks. */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "pool     active %d, queued %d, completed %d, rejected %d%n",
+                active, queued, completed, rejected));
+        sb.append(String.format(Locale.ROOT, "checks   in flight %d, oldest %d ms, max wait to start %d ms%n",
+                inFlight, oldestMs, maxWaitMs));
+        sb.append(String.format(Locale.ROOT, "watchdog %d stuck%n", stuck));
+        for (String trace : stuckTraces) {
+            sb.append('\n').append(trace).append('\n');
+        }
+        return sb.toString();
+    }
+}
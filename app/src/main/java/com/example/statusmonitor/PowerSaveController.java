@@ -0,0 +1,121 @@
+package com.example.statusmonitor;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.PowerManager;
+import android.os.SystemClock;
+
+/*
+Power-save mode for dedicated monitoring devices.
+
+With the scheduler's batch window set, due checks fire together in one burst.
+Between bursts this arms an inexact allow-while-idle alarm, which Doze folds into
+its maintenance windows, and a partial wake lock is held only while a burst is in
+flight - the radio wakes once per burst instead of trickling.
+
+Bursts are counted in either mode so wake-ups per hour can be compared.
+*/
+public class PowerSaveController {
+
+    static final String ACTION_WAKE = "com.example.statusmonitor.action.POWER_WAKE";
+
+    private static final String WAKE_LOCK_TAG = "StatusMonitor:burst";
+    private static final long ALARM_WAKE_LOCK_MS = 10_000;
+    private static final long BURST_WAKE_LOCK_MS = 60_000;
+    private static final long MINUTE_MS = 60_000;
+
+    private final AlarmManager alarmManager;
+    private final PowerManager.WakeLock wakeLock;
+    private final PendingIntent wakeIntent;
+    private final int[] wakeupsPerMinute = new int[60];
+    private long lastMinute;
+    private boolean enabled = false;
+    private long armedAt = -1;
+    private int inFlight = 0;
+
+    public PowerSaveController(Context context) {
+        this.alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        this.wakeLock = powerManager.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, WAKE_LOCK_TAG);
+        this.wakeLock.setReferenceCounted(false);
+
+        Intent intent = new Intent(context, MonitorService.class).setAction(ACTION_WAKE);
+        this.wakeIntent = PendingIntent.getService(context, 0, intent,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+        this.lastMinute = SystemClock.elapsedRealtime() / MINUTE_MS;
+    }
+
+    public synchronized boolean isEnabled() { return enabled; }
+
+    public synchronized void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            cancelAlarm();
+            inFlight = 0;
+            if (wakeLock.isHeld()) wakeLock.release();
+        }
+    }
+
+    /** Scheduler idle callback: arm a single wake-up for the next burst. */
+    public synchronized void onIdle(long nextDueElapsedMs) {
+        if (!enabled) return;
+        if (nextDueElapsedMs == Long.MAX_VALUE) {
+            cancelAlarm();
+        } else if (nextDueElapsedMs != armedAt) {
+            alarmManager.setAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, nextDueElapsedMs, wakeIntent);
+            armedAt = nextDueElapsedMs;
+        }
+    }
+
+    /** The wake-up alarm fired; keep the CPU up until the scheduler has dispatched the burst. */
+    public synchronized void onAlarm() {
+        armedAt = -1;
+        if (enabled && !wakeLock.isHeld()) {
+            wakeLock.acquire(ALARM_WAKE_LOCK_MS);
+        }
+    }
+
+    public synchronized void beginBurst(int checks) {
+        recordWakeup();
+        if (!enabled) return;
+        inFlight += checks;
+        wakeLock.acquire(BURST_WAKE_LOCK_MS);
+    }
+
+    public synchronized void onCheckFinished() {
+        if (inFlight > 0 && --inFlight == 0 && wakeLock.isHeld()) {
+            wakeLock.release();
+        }
+    }
+
+    /** Check bursts (radio wake-ups) in the last 60 minutes. */
+    public synchronized int getWakeupsPerHour() {
+        roll();
+        int total = 0;
+        for (int count : wakeupsPerMinute) total += count;
+        return total;
+    }
+
+    private void recordWakeup() {
+        roll();
+        wakeupsPerMinute[(int) (lastMinute % wakeupsPerMinute.length)]++;
+    }
+
+    private void roll() {
+        long minute = SystemClock.elapsedRealtime() / MINUTE_MS;
+        long steps = Math.min(minute - lastMinute, wakeupsPerMinute.length);
+        for (long m = 1; m <= steps; m++) {
+            wakeupsPerMinute[(int) ((lastMinute + m) % wakeupsPerMinute.length)] = 0;
+        }
+        lastMinute = minute;
+    }
+
+    private void cancelAlarm() {
+        if (armedAt >= 0) {
+            alarmManager.cancel(wakeIntent);
+            armedAt = -1;
+        }
+    }
+}
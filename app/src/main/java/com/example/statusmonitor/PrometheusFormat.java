@@ -0,0 +1,149 @@
+package com.example.statusmonitor;
+
+import java.util.List;
+
+/*
+Renders monitor state and checker metrics in the Prometheus text exposition
+format (version 0.0.4) for MetricsServer.
+
+  statusmonitor_up                            1 if ONLINE or DEGRADED
+  statusmonitor_status                        one series per status, 1 for the current one
+  statusmonitor_stale                         1 while showing restored last-known state
+  statusmonitor_last_check_timestamp_seconds
+  statusmonitor_checks_total                  results by status
+  statusmonitor_check_latency_seconds         histogram
+  statusmonitor_check_cpu_seconds_total, statusmonitor_check_{rx,tx}_bytes_total
+  statusmonitor_pool_*                        StatusChecker's pool and watchdog
+
+Per-monitor series carry monitor (the id) and name labels.
+*/
+public final class PrometheusFormat {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final MonitorEntity.Status[] STATUSES = MonitorEntity.Status.values();
+
+    private PrometheusFormat() {}
+
+    /** Must run on the thread that applies check results, like the stats it reads. */
+    public static String render(List<MonitorEntity> entities, PoolStats pool) {
+        StringBuilder sb = new StringBuilder(256 + entities.size() * 2048);
+
+        header(sb, "statusmonitor_up", "gauge", "Whether the monitor is reachable (ONLINE or DEGRADED).");
+        for (MonitorEntity entity : entities) {
+            MonitorEntity.Status status = entity.getStatus();
+            boolean up = status == MonitorEntity.Status.ONLINE || status == MonitorEntity.Status.DEGRADED;
+            sample(sb, "statusmonitor_up", labels(entity), up ? 1 : 0);
+        }
+
+        header(sb, "statusmonitor_status", "gauge", "Current status of the monitor, 1 for the active status.");
+        for (MonitorEntity entity : entities) {
+            String labels = labels(entity);
+            for (MonitorEntity.Status status : STATUSES) {
+                sample(sb, "statusmonitor_status", labels + ",status=\"" + status.name() + "\"",
+                        entity.getStatus() == status ? 1 : 0);
+            }
+        }
+
+        header(sb, "statusmonitor_stale", "gauge", "Whether the status is last-known state restored at startup.");
+        for (MonitorEntity entity : entities) {
+            sample(sb, "statusmonitor_stale", labels(entity), entity.isStale() ? 1 : 0);
+        }
+
+        header(sb, "statusmonitor_last_check_timestamp_seconds", "gauge", "Unix time of the last check result.");
+        for (MonitorEntity entity : entities) {
+            if (entity.getLastCheckTime() <= 0) continue;
+            sample(sb, "statusmonitor_last_check_timestamp_seconds", labels(entity), entity.getLastCheckTime() / 1000.0);
+        }
+
+        header(sb, "statusmonitor_checks_total", "counter", "Check results by status since the service started.");
+        for (MonitorEntity entity : entities) {
+            String labels = labels(entity);
+            CheckStats stats = entity.getCheckStats();
+            for (MonitorEntity.Status status : STATUSES) {
+                sample(sb, "statusmonitor_checks_total", labels + ",status=\"" + status.name() + "\"",
+                        stats.getChecks(status));
+            }
+        }
+
+        header(sb, "statusmonitor_check_latency_seconds", "histogram", "Check latency.");
+        for (MonitorEntity entity : entities) {
+            String labels = labels(entity);
+            CheckStats stats = entity.getCheckStats();
+            for (int i = 0; i <= CheckStats.BUCKET_BOUNDS_MS.length; i++) {
+                String le = i < CheckStats.BUCKET_BOUNDS_MS.length
+                        ? number(CheckStats.BUCKET_BOUNDS_MS[i] / 1000.0) : "+Inf";
+                sample(sb, "statusmonitor_check_latency_seconds_bucket", labels + ",le=\"" + le + "\"",
+                        stats.getCumulativeCount(i));
+            }
+            sample(sb, "statusmonitor_check_latency_seconds_sum", labels, stats.getLatencySumMs() / 1000.0);
+            sample(sb, "statusmonitor_check_latency_seconds_count", labels, stats.getLatencyCount());
+        }
+
+        header(sb, "statusmonitor_check_cpu_seconds_total", "counter", "CPU time spent checking the monitor.");
+        for (MonitorEntity entity : entities) {
+            sample(sb, "statusmonitor_check_cpu_seconds_total", labels(entity), entity.getCost().getCpuNanos() / 1e9);
+        }
+        header(sb, "statusmonitor_check_rx_bytes_total", "counter", "Payload bytes received by the monitor's checks.");
+        for (MonitorEntity entity : entities) {
+            sample(sb, "statusmonitor_check_rx_bytes_total", labels(entity), entity.getCost().getRxBytes());
+        }
+        header(sb, "statusmonitor_check_tx_bytes_total", "counter", "Payload bytes sent by the monitor's checks.");
+        for (MonitorEntity entity : entities) {
+            sample(sb, "statusmonitor_check_tx_bytes_total", labels(entity), entity.getCost().getTxBytes());
+        }
+
+        if (pool != null) {
+            gauge(sb, "statusmonitor_pool_active_threads", "Checker threads running a check.", pool.active);
+            gauge(sb, "statusmonitor_pool_queued_checks", "Checks waiting for a checker thread.", pool.queued);
+            counter(sb, "statusmonitor_pool_completed_checks_total", "Checker tasks completed.", pool.completed);
+            counter(sb, "statusmonitor_pool_rejected_checks_total", "Checks dropped because the pool was full.", pool.rejected);
+            gauge(sb, "statusmonitor_pool_max_wait_seconds", "Longest wait between scheduling and starting a check.",
+                    pool.maxWaitMs / 1000.0);
+            gauge(sb, "statusmonitor_pool_in_flight_checks", "Checks being watched by the watchdog.", pool.inFlight);
+            gauge(sb, "statusmonitor_pool_oldest_check_seconds", "Age of the longest-running check.", pool.oldestMs / 1000.0);
+            counter(sb, "statusmonitor_pool_stuck_checks_total", "Checks the watchdog gave up on.", pool.stuck);
+        }
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void gauge(StringBuilder sb, String name, String help, double value) {
+        header(sb, name, "gauge", help);
+        sb.append(name).append(' ').append(number(value)).append('\n');
+    }
+
+    private static void counter(StringBuilder sb, String name, String help, long value) {
+        header(sb, name, "counter", help);
+        sb.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name).append('{').append(labels).append("} ").append(number(value)).append('\n');
+    }
+
+    private static String labels(MonitorEntity entity) {
+        return "monitor=\"" + escape(entity.getId()) + "\",name=\"" + escape(entity.getName()) + "\"";
+    }
+
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') sb.append("\\\\");
+            else if (c == '"') sb.append("\\\"");
+            else if (c == '\n') sb.append("\\n");
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+}
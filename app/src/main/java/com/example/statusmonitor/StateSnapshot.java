@@ -0,0 +1,176 @@
+package com.example.statusmonitor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+Last-known state of every monitor, kept on disk for warm starts.
+
+update() captures an entity's displayed state in memory; the file is rewritten
+behind, at most once per WRITE_DELAY_MS, on a background thread, so a burst of
+results costs one small write. restore() runs on the reducer before the first
+monitor list is published and marks the restored entities stale until their first
+fresh result, so the UI has something to show before any check has finished.
+
+File: magic, version, record count, then per monitor id, status ordinal, message,
+uptime and last check time. Written to a temp file and renamed, so a
+crash mid-write leaves the previous snapshot intact.
+*/
+public class StateSnapshot {
+
+    private static final int MAGIC = 0x534D5353;  // "SMSS"
+    private static final int VERSION = 1;
+    static final long WRITE_DELAY_MS = 5000;
+
+    private static class Record {
+        final String id;
+        final MonitorEntity.Status status;
+        final String message;
+        final String uptime;
+        final long lastCheckTime;
+
+        Record(String id, MonitorEntity.Status status, String message, String uptime, long lastCheckTime) {
+            this.id = id;
+            this.status = status;
+            this.message = message;
+            this.uptime = uptime;
+            this.lastCheckTime = lastCheckTime;
+        }
+    }
+
+    private final File file;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "state-snapshot");
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final Map<String, Record> latest = new HashMap<>();
+    private boolean writeScheduled;
+    private ScheduledFuture<?> pendingWrite;
+    private boolean closed;
+
+    public StateSnapshot(File file) {
+        this.file = file;
+    }
+
+    /** Applies the saved state to matching entities and returns how many were restored. */
+    public int restore(List<MonitorEntity> entities) {
+        Map<String, Record> saved = read();
+        int restored = 0;
+        synchronized (latest) {
+            latest.putAll(saved);
+        }
+        for (MonitorEntity entity : entities) {
+            Record record = saved.get(entity.getId());
+            if (record == null || record.lastCheckTime == 0) continue;
+            entity.restoreState(record.status, record.message, record.uptime, record.lastCheckTime);
+            restored++;
+        }
+        return restored;
+    }
+
+    /** Captures the entity's current state; the file catches up within WRITE_DELAY_MS. Ignored after close(). */
+    public void update(MonitorEntity entity) {
+        Record record = new Record(entity.getId(), entity.getStatus(), entity.getMessage(),
+                entity.getUptime(), entity.getLastCheckTime());
+        synchronized (latest) {
+            if (closed) return;
+            latest.put(record.id, record);
+            if (writeScheduled) return;
+            writeScheduled = true;
+            pendingWrite = executor.schedule(this::write, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Drops a monitor that is no longer configured. */
+    public void forget(String id) {
+        synchronized (latest) {
+            latest.remove(id);
+        }
+    }
+
+    /** Writes any pending state now and stops the writer thread. */
+    public void close() {
+        synchronized (latest) {
+            if (closed) return;
+            closed = true;
+            if (pendingWrite != null) pendingWrite.cancel(false);
+        }
+        // A write already running must finish first: both would write the same temp file
+        executor.shutdown();
+        try {
+            executor.awaitTermination(WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean pending;
+        synchronized (latest) {
+            pending = writeScheduled;
+        }
+        if (pending) write();
+    }
+
+    private void write() {
+        List<Record> records;
+        synchronized (latest) {
+            writeScheduled = false;
+            records = new ArrayList<>(latest.values());
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(records.size());
+            for (Record record : records) {
+                out.writeUTF(record.id);
+                out.writeByte(record.status.ordinal());
+                out.writeUTF(record.message != null ? record.message : "");
+                out.writeBoolean(record.uptime != null);
+                if (record.uptime != null) out.writeUTF(record.uptime);
+                out.writeLong(record.lastCheckTime);
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) tmp.delete();
+    }
+
+    private Map<String, Record> read() {
+        Map<String, Record> records = new HashMap<>();
+        if (!file.exists()) return records;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return records;
+            int count = in.readInt();
+            MonitorEntity.Status[] statuses = MonitorEntity.Status.values();
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                int ordinal = in.readUnsignedByte();
+                String message = in.readUTF();
+                String uptime = in.readBoolean() ? in.readUTF() : null;
+                long lastCheckTime = in.readLong();
+                if (ordinal >= statuses.length) continue;
+                records.put(id, new Record(id, statuses[ordinal], message, uptime, lastCheckTime));
+            }
+        } catch (IOException e) {
+            // Corrupt or truncated: start cold
+            records.clear();
+        }
+        return records;
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.statusmonitor;
 
-import android.content.Context;
-import android.content.SharedPreferences;
 import android.content.res.ColorStateList;
 import android.os.Handler;
 import android.os.Looper;
@@ -17,27 +15,35 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.materialswitch.MaterialSwitch;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class StatusAdapter extends RecyclerView.Adapter<StatusAdapter.ViewHolder> {
 
     private static final String PAYLOAD_STATUS = "status";
     private static final String PAYLOAD_TIMER = "timer";
-    private static final String PREFS_NAME = "status_monitor_prefs";
-    private static final String PREF_NOTIFY_PREFIX = "notify_";
+    private static final float STALE_ALPHA = 0.5f;
 
-    private final List<MonitorEntity> entities;
+    public interface NotificationToggleListener {
+        void onNotificationsToggled(String id, boolean enabled);
+    }
+
+    private final List<MonitorRow> rows = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final NotificationToggleListener toggleListener;
     private final Handler timerHandler;
     private final Runnable timerRunnable;
 
-    public StatusAdapter(List<MonitorEntity> entities) {
-        this.entities = entities;
+    public StatusAdapter(NotificationToggleListener toggleListener) {
+        this.toggleListener = toggleListener;
         this.timerHandler = new Handler(Looper.getMainLooper());
         
         this.timerRunnable = new Runnable() {
             @Override
             public void run() {
-                notifyItemRangeChanged(0, entities.size(), PAYLOAD_TIMER);
+                notifyItemRangeChanged(0, rows.size(), PAYLOAD_TIMER);
                 timerHandler.postDelayed(this, 1000);
             }
         };
@@ -56,12 +62,12 @@ public class StatusAdapter extends RecyclerView.Adapter<StatusAdapter.ViewHolder
     public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_status_card, parent, false);
-        return new ViewHolder(view);
+        return new ViewHolder(view, toggleListener);
     }
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        holder.bind(entities.get(position));
+        holder.bind(rows.get(position));
     }
 
     @Override
@@ -71,26 +77,34 @@ public class StatusAdapter extends RecyclerView.Adapter<StatusAdapter.ViewHolder
             return;
         }
 
-        MonitorEntity entity = entities.get(position);
+        MonitorRow row = rows.get(position);
         for (Object payload : payloads) {
             if (PAYLOAD_TIMER.equals(payload)) {
-                holder.updateTimer(entity);
+                holder.updateTimer(row);
             } else if (PAYLOAD_STATUS.equals(payload)) {
-                holder.updateStatus(entity);
+                holder.updateStatus(row);
             }
         }
     }
 
     @Override
     public int getItemCount() {
-        return entities.size();
+        return rows.size();
     }
 
-    public void updateEntity(MonitorEntity entity) {
-        int index = entities.indexOf(entity);
-        if (index >= 0) {
-            notifyItemChanged(index, PAYLOAD_STATUS);
-        }
+    public void setRows(List<MonitorRow> newRows) {
+        rows.clear();
+        rows.addAll(newRows);
+        positions.clear();
+        for (int i = 0; i < rows.size(); i++) positions.put(rows.get(i).id, i);
+        notifyDataSetChanged();
+    }
+
+    public void updateRow(MonitorRow row) {
+        Integer position = positions.get(row.id);
+        if (position == null) return;
+        rows.set(position, row);
+        notifyItemChanged(position, PAYLOAD_STATUS);
     }
 
     static class ViewHolder extends RecyclerView.ViewHolder {
@@ -102,11 +116,14 @@ public class StatusAdapter extends RecyclerView.Adapter<StatusAdapter.ViewHolder
         private final TextView addressText;
         private final TextView checkTypeText;
         private final TextView messageText;
+        private final TextView availabilityText;
         private final TextView lastCheckText;
         private final MaterialSwitch notificationSwitch;
+        private final NotificationToggleListener toggleListener;
 
-        ViewHolder(@NonNull View itemView) {
+        ViewHolder(@NonNull View itemView, NotificationToggleListener toggleListener) {
             super(itemView);
+            this.toggleListener = toggleListener;
             card = itemView.findViewById(R.id.card);
             statusDot = itemView.findViewById(R.id.statusDot);
             nameText = itemView.findViewById(R.id.nameText);
@@ -114,47 +131,40 @@ public class StatusAdapter extends RecyclerView.Adapter<StatusAdapter.ViewHolder
             addressText = itemView.findViewById(R.id.addressText);
             checkTypeText = itemView.findViewById(R.id.checkTypeText);
             messageText = itemView.findViewById(R.id.messageText);
+            availabilityText = itemView.findViewById(R.id.availabilityText);
             lastCheckText = itemView.findViewById(R.id.lastCheckText);
             notificationSwitch = itemView.findViewById(R.id.notificationSwitch);
         }
 
-        void bind(MonitorEntity entity) {
-            nameText.setText(entity.getName());
-            addressText.setText(entity.getAddress() != null ? entity.getAddress() : "");
-            checkTypeText.setText(entity.getCheckStrategy().getDescription());
-
-            SharedPreferences prefs = itemView.getContext().getApplicationContext()
-                    .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-            String key = PREF_NOTIFY_PREFIX + entity.getId();
-            boolean notify = prefs.getBoolean(key, true);
-            entity.setNotificationsEnabled(notify);
+        void bind(MonitorRow row) {
+            nameText.setText(row.name);
+            addressText.setText(row.address);
+            checkTypeText.setText(row.checkType);
 
             notificationSwitch.setOnCheckedChangeListener(null);
-            notificationSwitch.setChecked(notify);
-            notificationSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                entity.setNotificationsEnabled(isChecked);
-                prefs.edit().putBoolean(key, isChecked).commit();
-            });
-
-            updateStatus(entity);
-            updateTimer(entity);
+            notificationSwitch.setChecked(row.notificationsEnabled);
+            String id = row.id;
+            notificationSwitch.setOnCheckedChangeListener((buttonView, isChecked) ->
+                    toggleListener.onNotificationsToggled(id, isChecked));
+
+            updateStatus(row);
+            updateTimer(row);
         }
 
-        void updateStatus(MonitorEntity entity) {
-            // Build message with uptime if available
-            String message = entity.getMessage();
-            String uptime = entity.getUptime();
-            if (uptime != null && !uptime.isEmpty()) {
-                message = message + " \nuptime: " + uptime;
-            }
-            messageText.setText(message);
+        void updateStatus(MonitorRow row) {
+            messageText.setText(row.message);
+            availabilityText.setText(row.availability);
+            availabilityText.setVisibility(row.availability.isEmpty() ? View.GONE : View.VISIBLE);
 
             // Status badge text
             String statusText;
-            switch (entity.getStatus()) {
+            switch (row.status) {
                 case ONLINE:
                     statusText = "ONLINE";
                     break;
+                case DEGRADED:
+                    statusText = "DEGRADED";
+                    break;
                 case OFFLINE:
                     statusText = "OFFLINE";
                     break;
@@ -166,20 +176,26 @@ public class StatusAdapter extends RecyclerView.Adapter<StatusAdapter.ViewHolder
             }
             statusBadge.setText(statusText);
 
-            int statusColor = getStatusColor(entity.getStatus());
+            int statusColor = getStatusColor(row.status);
             ColorStateList colorStateList = ColorStateList.valueOf(statusColor);
 
             statusDot.setBackgroundTintList(colorStateList);
             statusBadge.setBackgroundTintList(colorStateList);
             card.setStrokeColor(statusColor);
+
+            // Restored from the last run: show it, but faded until a fresh result arrives
+            float alpha = row.stale ? STALE_ALPHA : 1f;
+            statusDot.setAlpha(alpha);
+            statusBadge.setAlpha(alpha);
         }
 
-        void updateTimer(MonitorEntity entity) {
-            if (entity.getLastCheckTime() == 0) {
+        void updateTimer(MonitorRow row) {
+            if (row.lastCheckTime == 0) {
                 lastCheckText.setText("Checking...");
             } else {
-                long elapsed = System.currentTimeMillis() - entity.getLastCheckTime();
-                lastCheckText.setText(formatElapsed(elapsed));
+                long elapsed = System.currentTimeMillis() - row.lastCheckTime;
+                String text = formatElapsed(elapsed);
+                lastCheckText.setText(row.stale ? text + " \u00b7 last known" : text);
             }
         }
 
@@ -187,6 +203,8 @@ public class StatusAdapter extends RecyclerView.Adapter<StatusAdapter.ViewHolder
             switch (status) {
                 case ONLINE:
                     return ContextCompat.getColor(itemView.getContext(), R.color.status_online);
+                case DEGRADED:
+                    return ContextCompat.getColor(itemView.getContext(), R.color.status_degraded);
                 case OFFLINE:
                     return ContextCompat.getColor(itemView.getContext(), R.color.status_offline);
                 case NO_CONNECTION:
@@ -9,15 +9,41 @@ public interface StatusCheckStrategy {
         public final MonitorEntity.Status status;
         public final String message;
         public final String uptime;  // Optional
+        public final long latencyMs; // Round trip measured by the check, -1 if unknown
+        public final HostMetrics metrics;  // Optional resource snapshot
 
         public Result(MonitorEntity.Status status, String message) {
             this(status, message, null);
         }
 
         public Result(MonitorEntity.Status status, String message, String uptime) {
+            this(status, message, uptime, -1);
+        }
+
+        public Result(MonitorEntity.Status status, String message, String uptime, long latencyMs) {
+            this(status, message, uptime, latencyMs, null);
+        }
+
+        public Result(MonitorEntity.Status status, String message, String uptime, long latencyMs,
+                      HostMetrics metrics) {
             this.status = status;
             this.message = message;
             this.uptime = uptime;
+            this.latencyMs = latencyMs;
+            this.metrics = metrics;
+        }
+
+        public Result withLatency(long latencyMs) {
+            return new Result(status, message, uptime, latencyMs, metrics);
+        }
+
+        public Result withMetrics(HostMetrics metrics) {
+            return new Result(status, message, uptime, latencyMs, metrics);
+        }
+
+        /** This result downgraded to DEGRADED, with the reason on a new line of the message. */
+        public Result degraded(String reason) {
+            return new Result(MonitorEntity.Status.DEGRADED, message + "\n" + reason, uptime, latencyMs, metrics);
         }
 
         public static Result online(String message) {
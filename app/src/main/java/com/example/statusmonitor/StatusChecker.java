@@ -3,48 +3,179 @@ package com.example.statusmonitor;
 import android.content.Context;
 import android.net.ConnectivityManager;
 import android.net.NetworkCapabilities;
+import android.net.TrafficStats;
 import android.os.Handler;
-import android.os.Looper;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 public class StatusChecker {
 
+    // TrafficStats tag for batched checks, whose sockets serve several monitors
+    private static final int BATCH_TRAFFIC_TAG = 0x0B00_0000;
+    private static final int MAX_THREADS = 32;
+    private static final int MAX_QUEUED = 1024;
+
     private final Context context;
-    private final ExecutorService executor;
-    private final Handler mainHandler;
+    private final CheckExecutor executor;
+    private final CheckWatchdog watchdog;
+    private final Handler resultHandler;
 
     public interface StatusCallback {
+        /** Result is null when the check was dropped because the pool is saturated. */
         void onStatusChecked(MonitorEntity entity, StatusCheckStrategy.Result result);
     }
 
-    public StatusChecker(Context context) {
+    /** Results and callbacks are delivered on resultHandler's thread. */
+    public StatusChecker(Context context, Handler resultHandler) {
         this.context = context.getApplicationContext();
-        this.executor = Executors.newCachedThreadPool();
-        this.mainHandler = new Handler(Looper.getMainLooper());
+        this.executor = new CheckExecutor(MAX_THREADS, MAX_QUEUED);
+        this.watchdog = new CheckWatchdog();
+        this.resultHandler = resultHandler;
     }
 
-    public void checkStatus(MonitorEntity entity, StatusCallback callback) {
-        executor.execute(() -> {
+    /**
+     * Checks a round of due monitors. Monitors whose strategies share a BatchCheckStrategy
+     * class run as one checkAll() on a single thread; the rest run one task each.
+     */
+    public void checkAll(List<MonitorEntity> entities, StatusCallback callback) {
+        Map<Class<?>, List<MonitorEntity>> batches = null;
+        for (MonitorEntity entity : entities) {
             StatusCheckStrategy strategy = entity.getCheckStrategy();
-            StatusCheckStrategy.Result result;
+            if (!(strategy instanceof BatchCheckStrategy)) {
+                checkStatus(entity, callback);
+                continue;
+            }
+            if (batches == null) batches = new HashMap<>();
+            List<MonitorEntity> batch = batches.get(strategy.getClass());
+            if (batch == null) {
+                batch = new ArrayList<>();
+                batches.put(strategy.getClass(), batch);
+            }
+            batch.add(entity);
+        }
+        if (batches == null) return;
 
-            if (!hasActiveNetwork()) {
-                result = StatusCheckStrategy.Result.noConnection("No network");
+        for (List<MonitorEntity> batch : batches.values()) {
+            if (batch.size() == 1) {
+                checkStatus(batch.get(0), callback);
             } else {
+                for (MonitorEntity entity : batch) FlightRecorder.record(entity, FlightRecorder.Event.SCHEDULED, 0);
                 try {
-                    result = strategy.check(entity);
-                } catch (Exception e) {
-                    result = StatusCheckStrategy.Result.noConnection("Check failed");
+                    executor.execute(() -> runBatch(batch, callback));
+                } catch (RejectedExecutionException e) {
+                    resultHandler.post(() -> {
+                        for (MonitorEntity entity : batch) callback.onStatusChecked(entity, null);
+                    });
+                }
+            }
+        }
+    }
+
+    private void runBatch(List<MonitorEntity> batch, StatusCallback callback) {
+        StatusCheckStrategy.Result[] results;
+        if (!hasActiveNetwork()) {
+            results = new StatusCheckStrategy.Result[batch.size()];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = StatusCheckStrategy.Result.noConnection("No network");
+            }
+        } else {
+            for (MonitorEntity entity : batch) FlightRecorder.record(entity, FlightRecorder.Event.STARTED, 0);
+            long[] mark = MonitorCost.start();
+            TrafficStats.setThreadStatsTag(BATCH_TRAFFIC_TAG);
+            CheckWatchdog.Check watch = watchdog.begin(batch, () -> postTimedOut(batch, callback));
+            try {
+                results = ((BatchCheckStrategy) batch.get(0).getCheckStrategy()).checkAll(batch);
+            } catch (Exception e) {
+                results = null;
+            } finally {
+                TrafficStats.clearThreadStatsTag();
+            }
+            // The watchdog already answered for the whole batch
+            if (!watchdog.end(watch)) return;
+            if (results != null) MonitorCost.recordBatch(batch, mark);
+            for (int i = 0; i < batch.size(); i++) {
+                // A batch that fell back is finished here and traced again per monitor
+                long status = results != null ? results[i].status.ordinal() : -1;
+                FlightRecorder.record(batch.get(i), FlightRecorder.Event.FINISHED, status);
+            }
+        }
+
+        if (results == null) {
+            // The strategy can't batch right now
+            for (MonitorEntity entity : batch) checkStatus(entity, callback);
+            return;
+        }
+        final StatusCheckStrategy.Result[] finalResults = results;
+        resultHandler.post(() -> {
+            for (int i = 0; i < batch.size(); i++) {
+                callback.onStatusChecked(batch.get(i), finalResults[i]);
+            }
+        });
+    }
+
+    public void checkStatus(MonitorEntity entity, StatusCallback callback) {
+        FlightRecorder.record(entity, FlightRecorder.Event.SCHEDULED, 0);
+        try {
+            executor.execute(() -> runCheck(entity, callback));
+        } catch (RejectedExecutionException e) {
+            resultHandler.post(() -> callback.onStatusChecked(entity, null));
+        }
+    }
+
+    private void runCheck(MonitorEntity entity, StatusCallback callback) {
+        StatusCheckStrategy strategy = entity.getCheckStrategy();
+        StatusCheckStrategy.Result result;
+        CheckWatchdog.Check watch = null;
+        FlightRecorder.begin(entity);
+
+        if (!hasActiveNetwork()) {
+            result = StatusCheckStrategy.Result.noConnection("No network");
+        } else {
+            long[] mark = MonitorCost.start();
+            TrafficStats.setThreadStatsTag(trafficTag(entity));
+            watch = watchdog.begin(Collections.singletonList(entity),
+                    () -> postTimedOut(Collections.singletonList(entity), callback));
+            try {
+                long start = System.nanoTime();
+                result = strategy.check(entity);
+                if (result.latencyMs < 0) {
+                    // Checks without a protocol-level RTT are timed end to end
+                    result = result.withLatency((System.nanoTime() - start) / 1_000_000);
                 }
+            } catch (Exception e) {
+                result = StatusCheckStrategy.Result.noConnection("Check failed");
+            } finally {
+                TrafficStats.clearThreadStatsTag();
+                entity.getCost().record(mark);
             }
+        }
+        FlightRecorder.end(result.status);
+        // The watchdog gave up on this check and already delivered a result
+        if (watch != null && !watchdog.end(watch)) return;
 
-            final StatusCheckStrategy.Result finalResult = result;
-            mainHandler.post(() -> callback.onStatusChecked(entity, finalResult));
+        final StatusCheckStrategy.Result finalResult = result;
+        resultHandler.post(() -> callback.onStatusChecked(entity, finalResult));
+    }
+
+    // Watchdog thread: the check is stuck past its deadline
+    private void postTimedOut(List<MonitorEntity> entities, StatusCallback callback) {
+        StatusCheckStrategy.Result result = StatusCheckStrategy.Result.offline("Check timed out");
+        resultHandler.post(() -> {
+            for (MonitorEntity entity : entities) callback.onStatusChecked(entity, result);
         });
     }
 
+    /** Per-monitor TrafficStats tag, so netstats can attribute each monitor's sockets. */
+    static int trafficTag(MonitorEntity entity) {
+        // Stay clear of the 0xFFFFFFxx range reserved by the platform
+        return entity.getId().hashCode() & 0x7FFF_FFFF;
+    }
+
     private boolean hasActiveNetwork() {
         ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
         if (cm == null) return false;
@@ -54,7 +185,15 @@ public class StatusChecker {
         return caps != null && caps.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
     }
 
+    public PoolStats getPoolStats() {
+        return new PoolStats(executor.getActiveCount(), executor.getQueue().size(),
+                executor.getCompletedTaskCount(), executor.getRejectedCount(),
+                executor.getMaxWaitNanos() / 1_000_000, watchdog.getInFlight(), watchdog.getOldestMs(),
+                watchdog.getStuckCount(), watchdog.getStuckTraces());
+    }
+
     public void shutdown() {
         executor.shutdown();
+        watchdog.shutdown();
     }
 }
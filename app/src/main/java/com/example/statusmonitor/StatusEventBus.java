@@ -0,0 +1,168 @@
+package com.example.statusmonitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/*
+Hands MonitorRows from the state reducer to any number of subscribers (the
+status list, and later widgets, exporters, history writers).
+
+Each subscriber names the executor it is called on and gets its own queue:
+  - rows conflate per monitor, so only the latest one for a monitor waits
+  - a monitor list change replaces everything queued before it
+  - when more than capacity monitors are waiting, the backlog collapses into
+    one full list
+A subscriber is woken with a single execute() per batch; publishing only takes
+short locks, so a slow subscriber falls behind on its own without holding up
+the reducer, the checks or the other subscribers. A new subscriber starts with
+the current list.
+
+Updating current and offering to the subscribers happen under one lock, which
+subscribe() also takes, so a new subscriber's first list can't be older than,
+or overwrite, anything published after it. execute() is called under that lock:
+executors only queue the wakeup (a Handler, the main executor).
+
+publish() and publishAll() are called from one thread, the reducer.
+*/
+public class StatusEventBus {
+
+    public interface Subscriber {
+        /** The full list, in display order; replaces anything delivered before. */
+        void onMonitorsChanged(List<MonitorRow> rows);
+
+        /** The latest row of one monitor in the last list. */
+        void onStatusUpdated(MonitorRow row);
+    }
+
+    private final Map<String, MonitorRow> current = new LinkedHashMap<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    public Subscription subscribe(Executor executor, int capacity, Subscriber subscriber) {
+        Subscription subscription = new Subscription(executor, capacity, subscriber);
+        synchronized (current) {
+            subscriptions.add(subscription);
+            subscription.offerAll(snapshot());
+        }
+        return subscription;
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        subscription.close();
+        subscriptions.remove(subscription);
+    }
+
+    /** Replaces the monitor list. */
+    public void publishAll(List<MonitorRow> rows) {
+        List<MonitorRow> copy = Collections.unmodifiableList(new ArrayList<>(rows));
+        synchronized (current) {
+            current.clear();
+            for (MonitorRow row : rows) current.put(row.id, row);
+            for (Subscription subscription : subscriptions) {
+                subscription.offerAll(copy);
+            }
+        }
+    }
+
+    /** Updates one monitor; ignored if it isn't in the current list. */
+    public void publish(MonitorRow row) {
+        synchronized (current) {
+            if (!current.containsKey(row.id)) return;
+            current.put(row.id, row);
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(row);
+            }
+        }
+    }
+
+    private List<MonitorRow> snapshot() {
+        synchronized (current) {
+            return Collections.unmodifiableList(new ArrayList<>(current.values()));
+        }
+    }
+
+    public final class Subscription {
+
+        private final Executor executor;
+        private final int capacity;
+        private final Subscriber subscriber;
+        private final Runnable drain = this::drain;
+        private final Map<String, MonitorRow> pending = new LinkedHashMap<>();
+        private List<MonitorRow> pendingList;
+        private boolean scheduled;
+        private boolean closed;
+        private long collapsed;
+
+        private Subscription(Executor executor, int capacity, Subscriber subscriber) {
+            this.executor = executor;
+            this.capacity = capacity;
+            this.subscriber = subscriber;
+        }
+
+        /** How many times the backlog outgrew capacity and was collapsed into a full list. */
+        public synchronized long getCollapsedCount() {
+            return collapsed;
+        }
+
+        private void offerAll(List<MonitorRow> rows) {
+            synchronized (this) {
+                if (closed) return;
+                pending.clear();
+                pendingList = rows;
+                if (scheduled) return;
+                scheduled = true;
+            }
+            executor.execute(drain);
+        }
+
+        private void offer(MonitorRow row) {
+            boolean overflow;
+            synchronized (this) {
+                if (closed) return;
+                pending.put(row.id, row);
+                overflow = pending.size() > capacity;
+                if (!overflow) {
+                    if (scheduled) return;
+                    scheduled = true;
+                }
+            }
+            if (!overflow) {
+                executor.execute(drain);
+                return;
+            }
+            // Outside this lock: the bus lock that snapshot() takes comes first, and the caller holds it
+            List<MonitorRow> rows = snapshot();
+            synchronized (this) {
+                collapsed++;
+            }
+            offerAll(rows);
+        }
+
+        private void drain() {
+            List<MonitorRow> rows;
+            List<MonitorRow> updates;
+            synchronized (this) {
+                scheduled = false;
+                if (closed) return;
+                rows = pendingList;
+                pendingList = null;
+                updates = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+            if (rows != null) subscriber.onMonitorsChanged(rows);
+            for (MonitorRow row : updates) {
+                subscriber.onStatusUpdated(row);
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            pending.clear();
+            pendingList = null;
+        }
+    }
+}
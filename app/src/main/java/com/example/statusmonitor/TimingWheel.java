@@ -0,0 +1,249 @@
+package com.example.statusmonitor;
+
+/*
+Hierarchical timing wheel (Varghese & Lauck) holding one timer per scheduled item.
+
+Four levels of 64 slots each. A timer sits in the lowest level whose slot range
+still covers its deadline and is cascaded one level down whenever the wheel turns
+into its slot, so schedule, cancel and reschedule are O(1) list operations.
+Deadlines further out than 64^4 ticks wait in an overflow bucket.
+
+Each level keeps a 64-bit occupancy mask, which lets nextEventTick() tell the
+driving thread how long it may sleep and lets advanceTo() jump over empty slots.
+
+With an alignment set, every deadline is rounded up to a multiple of it, so timers
+with different periods still expire together on shared ticks.
+
+Not thread-safe - MonitorScheduler guards it with its own lock.
+*/
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int OVERFLOW = LEVELS * SLOTS;
+    private static final long WHEEL_SPAN_MASK = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    public interface ExpiryHandler<T> {
+        void onExpired(Timer<T> timer);
+    }
+
+    public static final class Timer<T> {
+        private final T payload;
+        private long deadline;   // Absolute tick
+        private long period;     // Ticks, 0 = one-shot
+        private int bucket = -1;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T payload) {
+            this.payload = payload;
+        }
+
+        public T getPayload() { return payload; }
+        public long getDeadline() { return deadline; }
+        public long getPeriod() { return period; }
+        public boolean isScheduled() { return bucket >= 0; }
+
+        public void setPeriod(long periodTicks) { this.period = Math.max(0, periodTicks); }
+    }
+
+    private final Timer<T>[] buckets;
+    private final long[] occupied = new long[LEVELS];
+    private long now;
+    private int size;
+    private long alignment = 1;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long startTick) {
+        this.buckets = (Timer<T>[]) new Timer[OVERFLOW + 1];
+        this.now = startTick;
+    }
+
+    public long currentTick() { return now; }
+    public int size() { return size; }
+    public long getAlignment() { return alignment; }
+
+    /** Rounds future deadlines up to multiples of alignmentTicks (1 = no alignment). Existing timers keep theirs. */
+    public void setAlignment(long alignmentTicks) { this.alignment = Math.max(1, alignmentTicks); }
+
+    /** Schedules a timer delayTicks from now (at least one tick). periodTicks of 0 makes it one-shot. */
+    public Timer<T> schedule(T payload, long delayTicks, long periodTicks) {
+        Timer<T> timer = new Timer<>(payload);
+        timer.setPeriod(periodTicks);
+        timer.deadline = align(now + Math.max(1, delayTicks));
+        insert(timer);
+        return timer;
+    }
+
+    /** Moves a timer (scheduled or not) to fire delayTicks from now. */
+    public void reschedule(Timer<T> timer, long delayTicks) {
+        if (timer.isScheduled()) unlink(timer);
+        timer.deadline = align(now + Math.max(1, delayTicks));
+        insert(timer);
+    }
+
+    public void cancel(Timer<T> timer) {
+        if (timer.isScheduled()) unlink(timer);
+    }
+
+    /**
+     * Turns the wheel up to and including targetTick, handing every expired timer to the handler.
+     * Periodic timers are re-armed before the handler runs, so the handler may cancel or reschedule them.
+     */
+    public void advanceTo(long targetTick, ExpiryHandler<T> handler) {
+        while (now < targetTick) {
+            // Skip straight over ticks with nothing to expire or cascade
+            long next = nextEventTick();
+            if (next > targetTick) {
+                now = targetTick;
+                return;
+            }
+            long tick = now = next;
+
+            if ((tick & WHEEL_SPAN_MASK) == 0) {
+                cascade(OVERFLOW);
+            }
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                int shift = SLOT_BITS * level;
+                if ((tick & ((1L << shift) - 1)) == 0) {
+                    cascade(level * SLOTS + (int) ((tick >>> shift) & SLOT_MASK));
+                }
+            }
+
+            int slot = (int) (tick & SLOT_MASK);
+            Timer<T> timer;
+            while ((timer = buckets[slot]) != null) {
+                unlink(timer);
+                if (timer.period > 0) {
+                    timer.deadline = align(timer.deadline + timer.period);
+                    insert(timer);
+                }
+                handler.onExpired(timer);
+            }
+        }
+    }
+
+    /**
+     * Earliest tick at which a timer expires, or Long.MAX_VALUE when the wheel is empty.
+     * Timers in lower levels always expire before those in higher ones, so only the first
+     * occupied slot of the lowest non-empty level needs scanning.
+     */
+    public long nextExpiryTick() {
+        if (size == 0) return Long.MAX_VALUE;
+
+        for (int level = 0; level < LEVELS; level++) {
+            long bits = occupied[level];
+            if (bits == 0) continue;
+
+            int shift = SLOT_BITS * level;
+            int current = (int) ((now >>> shift) & SLOT_MASK);
+            long later = current == SLOT_MASK ? 0 : bits & (-1L << (current + 1));
+            if (later == 0) continue;
+
+            long best = Long.MAX_VALUE;
+            for (Timer<T> t = buckets[level * SLOTS + Long.numberOfTrailingZeros(later)]; t != null; t = t.next) {
+                if (t.deadline < best) best = t.deadline;
+            }
+            return best;
+        }
+
+        long best = Long.MAX_VALUE;
+        for (Timer<T> t = buckets[OVERFLOW]; t != null; t = t.next) {
+            if (t.deadline < best) best = t.deadline;
+        }
+        return best;
+    }
+
+    /**
+     * Earliest tick at which advanceTo() has work to do (an expiry or a cascade),
+     * or Long.MAX_VALUE when the wheel is empty.
+     */
+    public long nextEventTick() {
+        if (size == 0) return Long.MAX_VALUE;
+
+        long best = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            long bits = occupied[level];
+            if (bits == 0) continue;
+
+            int shift = SLOT_BITS * level;
+            int current = (int) ((now >>> shift) & SLOT_MASK);
+            long later = current == SLOT_MASK ? 0 : bits & (-1L << (current + 1));
+            if (later == 0) continue;
+
+            long base = (now >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+            long tick = base | ((long) Long.numberOfTrailingZeros(later) << shift);
+            if (tick < best) best = tick;
+        }
+        if (buckets[OVERFLOW] != null) {
+            long boundary = ((now >>> (SLOT_BITS * LEVELS)) + 1) << (SLOT_BITS * LEVELS);
+            if (boundary < best) best = boundary;
+        }
+        return best;
+    }
+
+    private long align(long deadline) {
+        if (alignment <= 1) return deadline;
+        return (deadline + alignment - 1) / alignment * alignment;
+    }
+
+    private void cascade(int bucket) {
+        // Detach first: overflow timers may land back in the overflow bucket
+        Timer<T> timer = buckets[bucket];
+        buckets[bucket] = null;
+        if (bucket != OVERFLOW) {
+            occupied[bucket / SLOTS] &= ~(1L << (bucket & SLOT_MASK));
+        }
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            timer.bucket = -1;
+            size--;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    private void insert(Timer<T> timer) {
+        long diff = timer.deadline ^ now;
+        int level = diff == 0 ? 0 : (63 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+
+        int bucket;
+        if (level >= LEVELS) {
+            bucket = OVERFLOW;
+        } else {
+            int slot = (int) ((timer.deadline >>> (SLOT_BITS * level)) & SLOT_MASK);
+            bucket = level * SLOTS + slot;
+            occupied[level] |= 1L << slot;
+        }
+
+        Timer<T> head = buckets[bucket];
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) head.prev = timer;
+        buckets[bucket] = timer;
+        timer.bucket = bucket;
+        size++;
+    }
+
+    private void unlink(Timer<T> timer) {
+        int bucket = timer.bucket;
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            buckets[bucket] = timer.next;
+        }
+        if (timer.next != null) timer.next.prev = timer.prev;
+
+        if (buckets[bucket] == null && bucket != OVERFLOW) {
+            occupied[bucket / SLOTS] &= ~(1L << (bucket & SLOT_MASK));
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.bucket = -1;
+        size--;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.statusmonitor;
+
+/*
+Rolling availability counters for one monitor.
+
+Check results are counted into three rings of buckets: 60 minutes, 168 hours and
+30 days. Every standard Window keeps running sums that are updated as results
+arrive and as buckets slide out, so reading a window's availability or outage
+count is O(1) - no raw history is kept or scanned. Roughly 3 KB per monitor.
+
+Availability is by check count: DEGRADED counts as up, NO_CONNECTION (the
+device's problem) is not counted. Outages are confirmed incidents, recorded by
+the caller when AlertEngine raises DOWN. Buckets are aligned to UTC.
+
+Not thread-safe - written and read on the thread that applies check results.
+*/
+public class UptimeStats {
+
+    private static final int MINUTES = 0;
+    private static final int HOURS = 1;
+    private static final int DAYS = 2;
+
+    private static final long[] BUCKET_MS = {60_000L, 60 * 60_000L, 24 * 60 * 60_000L};
+    private static final int[] CAPACITY = {60, 168, 30};
+
+    public enum Window {
+        HOUR(MINUTES, 60, "1h"),
+        DAY(HOURS, 24, "24h"),
+        WEEK(HOURS, 168, "7d"),
+        MONTH(DAYS, 30, "30d");
+
+        final int ring;
+        final int buckets;
+        public final String label;
+
+        Window(int ring, int buckets, String label) {
+            this.ring = ring;
+            this.buckets = buckets;
+            this.label = label;
+        }
+    }
+
+    private static final Window[] WINDOWS = Window.values();
+
+    private final int[][] up = new int[3][];
+    private final int[][] total = new int[3][];
+    private final int[][] outages = new int[3][];
+    private final long[] lastEpoch = {-1, -1, -1};
+
+    // Running sums per window
+    private final long[] windowUp = new long[WINDOWS.length];
+    private final long[] windowTotal = new long[WINDOWS.length];
+    private final long[] windowOutages = new long[WINDOWS.length];
+
+    public UptimeStats() {
+        for (int r = 0; r < 3; r++) {
+            up[r] = new int[CAPACITY[r]];
+            total[r] = new int[CAPACITY[r]];
+            outages[r] = new int[CAPACITY[r]];
+        }
+    }
+
+    public void record(long time, MonitorEntity.Status status) {
+        if (status == MonitorEntity.Status.NO_CONNECTION) return;
+        add(time, status != MonitorEntity.Status.OFFLINE ? 1 : 0, 1, 0);
+    }
+
+    public void recordOutage(long time) {
+        add(time, 0, 0, 1);
+    }
+
+    /** Percentage of up checks in the window ending now, or NaN if there were none. */
+    public float getUptimePercent(Window window, long now) {
+        advanceAll(now);
+        long checks = windowTotal[window.ordinal()];
+        return checks == 0 ? Float.NaN : windowUp[window.ordinal()] * 100f / checks;
+    }
+
+    public long getChecks(Window window, long now) {
+        advanceAll(now);
+        return windowTotal[window.ordinal()];
+    }
+
+    public long getOutages(Window window, long now) {
+        advanceAll(now);
+        return windowOutages[window.ordinal()];
+    }
+
+    private void add(long time, int upDelta, int totalDelta, int outageDelta) {
+        for (int r = 0; r < 3; r++) {
+            advance(r, time);
+            int slot = (int) (lastEpoch[r] % CAPACITY[r]);
+            up[r][slot] += upDelta;
+            total[r][slot] += totalDelta;
+            outages[r][slot] += outageDelta;
+        }
+        for (Window w : WINDOWS) {
+            windowUp[w.ordinal()] += upDelta;
+            windowTotal[w.ordinal()] += totalDelta;
+            windowOutages[w.ordinal()] += outageDelta;
+        }
+    }
+
+    private void advanceAll(long now) {
+        for (int r = 0; r < 3; r++) advance(r, now);
+    }
+
+    // Moves ring r forward to the bucket containing time, retiring buckets from the windows they leave
+    private void advance(int r, long time) {
+        long epoch = time / BUCKET_MS[r];
+        long last = lastEpoch[r];
+        if (last < 0) {
+            lastEpoch[r] = epoch;
+            return;
+        }
+        if (epoch <= last) return;  // Same bucket, or the clock stepped back: count it in the current one
+
+        int capacity = CAPACITY[r];
+        if (epoch - last >= capacity) {
+            // Everything on this ring has expired
+            for (int i = 0; i < capacity; i++) {
+                up[r][i] = 0;
+                total[r][i] = 0;
+                outages[r][i] = 0;
+            }
+            for (Window w : WINDOWS) {
+                if (w.ring != r) continue;
+                windowUp[w.ordinal()] = 0;
+                windowTotal[w.ordinal()] = 0;
+                windowOutages[w.ordinal()] = 0;
+            }
+            lastEpoch[r] = epoch;
+            return;
+        }
+
+        for (long next = last + 1; next <= epoch; next++) {
+            for (Window w : WINDOWS) {
+                if (w.ring != r) continue;
+                int leaving = (int) Math.floorMod(next - w.buckets, (long) capacity);
+                windowUp[w.ordinal()] -= up[r][leaving];
+                windowTotal[w.ordinal()] -= total[r][leaving];
+                windowOutages[w.ordinal()] -= outages[r][leaving];
+            }
+            int slot = (int) (next % capacity);
+            up[r][slot] = 0;
+            total[r][slot] = 0;
+            outages[r][slot] = 0;
+        }
+        lastEpoch[r] = epoch;
+    }
+}
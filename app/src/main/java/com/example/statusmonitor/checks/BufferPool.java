@@ -0,0 +1,38 @@
+package com.example.statusmonitor.checks;
+
+import java.util.ArrayDeque;
+
+/*
+Small pool of fixed-size I/O buffers shared by socket and HTTP checks.
+
+A check holds its buffers only while it reads or writes, and some need two at
+once (MinecraftCheck), so buffers are pooled per use rather than per thread: at
+most MAX_POOLED x 8 KB stay cached however many CheckExecutor threads exist,
+where a ThreadLocal pair would pin 16 KB on every worker. Small state that is
+reused whole, like the checks' JsonScanners, stays in a ThreadLocal. Buffers
+must be released in a finally block and not touched afterwards.
+*/
+final class BufferPool {
+
+    static final int BUFFER_SIZE = 8192;
+    private static final int MAX_POOLED = 8;
+
+    private static final ArrayDeque<byte[]> pool = new ArrayDeque<>();
+
+    private BufferPool() {}
+
+    static byte[] acquire() {
+        synchronized (pool) {
+            byte[] buf = pool.pollFirst();
+            if (buf != null) return buf;
+        }
+        return new byte[BUFFER_SIZE];
+    }
+
+    static void release(byte[] buf) {
+        if (buf == null || buf.length != BUFFER_SIZE) return;
+        synchronized (pool) {
+            if (pool.size() < MAX_POOLED) pool.addFirst(buf);
+        }
+    }
+}
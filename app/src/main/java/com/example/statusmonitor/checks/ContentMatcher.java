@@ -0,0 +1,127 @@
+package com.example.statusmonitor.checks;
+
+import java.nio.charset.StandardCharsets;
+
+/*
+Streaming body matcher for website checks.
+
+Looks for the expected text (ASCII case-insensitive) and captures the page <title>
+as decoded bytes arrive, across chunk boundaries, without building the body as a
+String. It is done once the text has been found and the title is either captured or
+ruled out by </head>, so HttpBody.scan() can stop inflating there.
+
+A Needle is the immutable, precompiled form of the expected text and is shared by
+every check run; a ContentMatcher holds one run's state.
+*/
+final class ContentMatcher implements HttpBody.Sink {
+
+    private static final byte[] TITLE_OPEN = ascii("<title>");
+    private static final byte[] TITLE_CLOSE = ascii("</title>");
+    private static final byte[] HEAD_CLOSE = ascii("</head>");
+    private static final int MAX_TITLE_BYTES = 512;
+
+    static final class Needle {
+        final byte[] bytes;
+        final int[] failure;  // KMP failure function
+
+        Needle(String text) {
+            // Folded byte by byte like the body, not with toLowerCase(): locale rules (Turkish
+            // I to dotless i) and non-ASCII folding would make text the body can never contain
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < bytes.length; i++) bytes[i] = fold(bytes[i]);
+            failure = new int[bytes.length];
+            for (int i = 1, k = 0; i < bytes.length; i++) {
+                while (k > 0 && bytes[i] != bytes[k]) k = failure[k - 1];
+                if (bytes[i] == bytes[k]) k++;
+                failure[i] = k;
+            }
+        }
+    }
+
+    private final Needle needle;
+    private int needlePos;
+    private boolean found;
+
+    // The markers only contain '<' at index 0, so a mismatch restarts at 0 or 1
+    private int titleOpenPos;
+    private int titleClosePos;
+    private int headClosePos;
+    private boolean inTitle;
+    private boolean titleDone;
+    private boolean headClosed;
+    private byte[] title;
+    private int titleLength;
+    private int titleSeen;
+
+    ContentMatcher(Needle needle) {
+        this.needle = needle;
+        this.found = needle.bytes.length == 0;
+    }
+
+    @Override
+    public void feed(byte[] buf, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            byte b = fold(buf[i]);
+
+            if (!found) {
+                byte[] n = needle.bytes;
+                while (needlePos > 0 && n[needlePos] != b) needlePos = needle.failure[needlePos - 1];
+                if (n[needlePos] == b && ++needlePos == n.length) found = true;
+            }
+
+            if (!titleDone) {
+                if (inTitle) {
+                    if (titleSeen++ < MAX_TITLE_BYTES) {
+                        if (title == null) title = new byte[MAX_TITLE_BYTES];
+                        title[titleLength++] = buf[i];
+                    }
+                    titleClosePos = advance(TITLE_CLOSE, titleClosePos, b);
+                    if (titleClosePos == TITLE_CLOSE.length) {
+                        titleLength = Math.min(titleLength, titleSeen - TITLE_CLOSE.length);
+                        titleDone = true;
+                    }
+                } else {
+                    titleOpenPos = advance(TITLE_OPEN, titleOpenPos, b);
+                    if (titleOpenPos == TITLE_OPEN.length) inTitle = true;
+                }
+            }
+
+            if (!headClosed) {
+                headClosePos = advance(HEAD_CLOSE, headClosePos, b);
+                if (headClosePos == HEAD_CLOSE.length) headClosed = true;
+            }
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        return found && (titleDone || headClosed);
+    }
+
+    boolean isFound() {
+        return found;
+    }
+
+    /** The page title, whitespace-collapsed and shortened for display, or null if there was none. */
+    String getTitle() {
+        if (!titleDone || titleLength <= 0) return null;
+        String text = new String(title, 0, titleLength, StandardCharsets.UTF_8).trim();
+        if (text.isEmpty()) return null;
+        // Clean up and limit length
+        text = text.replaceAll("\\s+", " ");
+        return text.length() > 30 ? text.substring(0, 27) + "..." : text;
+    }
+
+    private static int advance(byte[] marker, int pos, byte b) {
+        if (marker[pos] == b) return pos + 1;
+        return b == '<' ? 1 : 0;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte fold(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + 'a' - 'A') : b;
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.statusmonitor.checks;
+
+import com.example.statusmonitor.FlightRecorder;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.Dns;
+
+/*
+Dual-stack connection racing (RFC 8305, "Happy Eyeballs v2") for the TCP checks.
+
+A host's addresses are interleaved by family, starting with the family that last
+worked for it (IPv6 if none is known). Attempts start ATTEMPT_DELAY_MS apart, or
+as soon as every running attempt has failed; the first socket to connect wins and
+the rest are closed. On a network with broken IPv6 a check pays ~250 ms instead
+of a full connect timeout, and once IPv4 has won the host is tried IPv4-first for
+FAMILY_TTL_MS. A connect that fails on the remembered family forgets it, so the
+next attempt races again instead of waiting out the TTL.
+
+  connect()  raw sockets (MinecraftCheck)
+  resolve()  an address for clients that connect on their own (SimpleHealthCheck);
+             they report back through remember() and forget()
+  DNS        family-ordered lookups for OkHttp; HttpClients reports which address
+             connected or failed
+*/
+public final class HappyEyeballs {
+
+    static final long ATTEMPT_DELAY_MS = 250;
+    static final long FAMILY_TTL_MS = 10 * 60_000;
+
+    /** OkHttp resolver that returns addresses in racing order. */
+    public static final Dns DNS = hostname -> {
+        try {
+            // Same guard as Dns.SYSTEM: some Android versions throw NPE for unresolvable names
+            return order(hostname, lookup(hostname));
+        } catch (NullPointerException e) {
+            throw new UnknownHostException(hostname);
+        }
+    };
+
+    private static final class Family {
+        final boolean ipv6;
+        final long expiresAt;
+
+        Family(boolean ipv6, long expiresAt) {
+            this.ipv6 = ipv6;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final Map<String, Family> families = new HashMap<>();
+
+    private static final ExecutorService attempts = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "happy-eyeballs");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private HappyEyeballs() {}
+
+    /** Connects to the first of the host's addresses to answer. */
+    public static Socket connect(String host, int port, int timeoutMs) throws IOException {
+        return connect(host, order(host, lookup(host)), port, timeoutMs);
+    }
+
+    /**
+     * Picks the address to use for host: the literal itself, the only family it has, or
+     * the family that last won. Otherwise runs a race and returns the winner's address.
+     *
+     * The race socket is closed, so the caller's own connect is a second handshake to the
+     * winner. That only happens while no family is remembered, once per FAMILY_TTL_MS or
+     * after forget(); the caller should remember() or forget() the address it returns.
+     */
+    public static InetAddress resolve(String host, int port, int timeoutMs) throws IOException {
+        List<InetAddress> candidates = order(host, lookup(host));
+        InetAddress first = candidates.get(0);
+        if (!hasBothFamilies(candidates) || preferred(host) != null) return first;
+        try (Socket socket = connect(host, candidates, port, timeoutMs)) {
+            return socket.getInetAddress();
+        }
+    }
+
+    /** Records the family of an address that just connected for host. */
+    public static void remember(String host, InetAddress address) {
+        synchronized (families) {
+            families.put(host, new Family(address instanceof Inet6Address, now() + FAMILY_TTL_MS));
+        }
+    }
+
+    /** Drops the remembered family for host if it is the family of address, which just failed to connect. */
+    public static void forget(String host, InetAddress address) {
+        synchronized (families) {
+            Family family = families.get(host);
+            if (family != null && family.ipv6 == address instanceof Inet6Address) families.remove(host);
+        }
+    }
+
+    /** Addresses interleaved by family, the preferred family first (RFC 8305 section 4). */
+    static List<InetAddress> order(String host, InetAddress[] addresses) {
+        List<InetAddress> v6 = new ArrayList<>();
+        List<InetAddress> v4 = new ArrayList<>();
+        for (InetAddress address : addresses) {
+            (address instanceof Inet6Address ? v6 : v4).add(address);
+        }
+        Boolean preferIpv6 = preferred(host);
+        List<InetAddress> first = preferIpv6 == null || preferIpv6 ? v6 : v4;
+        List<InetAddress> second = first == v6 ? v4 : v6;
+
+        List<InetAddress> ordered = new ArrayList<>(addresses.length);
+        for (int i = 0; i < Math.max(first.size(), second.size()); i++) {
+            if (i < first.size()) ordered.add(first.get(i));
+            if (i < second.size()) ordered.add(second.get(i));
+        }
+        return ordered;
+    }
+
+    static Socket connect(String host, List<InetAddress> candidates, int port, int timeoutMs) throws IOException {
+        if (candidates.size() == 1) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(candidates.get(0), port), timeoutMs);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+            return socket;
+        }
+
+        Race race = new Race();
+        long deadline = now() + timeoutMs;
+        try {
+            for (int i = 0; i < candidates.size() && !race.isDone(); i++) {
+                if (i > 0) race.awaitNextStart(Math.min(ATTEMPT_DELAY_MS, deadline - now()));
+                if (race.isDone() || now() >= deadline) break;
+                InetSocketAddress address = new InetSocketAddress(candidates.get(i), port);
+                Socket socket = race.start();
+                int remaining = (int) Math.max(1, deadline - now());
+                attempts.execute(() -> {
+                    try {
+                        socket.connect(address, remaining);
+                        race.connected(socket);
+                    } catch (IOException e) {
+                        race.failed(socket, e);
+                    }
+                });
+            }
+            Socket winner = race.awaitWinner(deadline);
+            remember(host, winner.getInetAddress());
+            return winner;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            race.abort();
+            throw new InterruptedIOException("Connect interrupted");
+        }
+    }
+
+    private static InetAddress[] lookup(String host) throws UnknownHostException {
+        InetAddress[] addresses = InetAddress.getAllByName(host);
+        FlightRecorder.mark(FlightRecorder.Event.DNS_DONE);
+        return addresses;
+    }
+
+    private static boolean hasBothFamilies(List<InetAddress> addresses) {
+        boolean v6 = false;
+        boolean v4 = false;
+        for (InetAddress address : addresses) {
+            if (address instanceof Inet6Address) v6 = true; else v4 = true;
+        }
+        return v6 && v4;
+    }
+
+    private static Boolean preferred(String host) {
+        synchronized (families) {
+            Family family = families.get(host);
+            if (family == null) return null;
+            if (now() >= family.expiresAt) {
+                families.remove(host);
+                return null;
+            }
+            return family.ipv6;
+        }
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    // Attempts in flight for one connect(); the first socket to connect is kept
+    private static final class Race {
+        private final List<Socket> open = new ArrayList<>();
+        private int started;
+        private int failed;
+        private Socket winner;
+        private boolean aborted;
+        private IOException error;
+
+        synchronized Socket start() {
+            Socket socket = new Socket();
+            open.add(socket);
+            started++;
+            return socket;
+        }
+
+        synchronized boolean isDone() {
+            return winner != null || aborted;
+        }
+
+        synchronized void connected(Socket socket) {
+            open.remove(socket);
+            if (winner == null && !aborted) {
+                winner = socket;
+                closeAll();
+            } else {
+                closeQuietly(socket);
+            }
+            notifyAll();
+        }
+
+        synchronized void failed(Socket socket, IOException e) {
+            open.remove(socket);
+            closeQuietly(socket);
+            failed++;
+            // Keep the error that says most about the host: refused > timeout > anything else
+            if (error == null || rank(e) > rank(error)) error = e;
+            notifyAll();
+        }
+
+        /** Waits up to delayMs, returning early on a winner or once every started attempt has failed. */
+        synchronized void awaitNextStart(long delayMs) throws InterruptedException {
+            long until = now() + delayMs;
+            while (winner == null && failed < started) {
+                long wait = until - now();
+                if (wait <= 0) return;
+                wait(wait);
+            }
+        }
+
+        synchronized Socket awaitWinner(long deadline) throws IOException, InterruptedException {
+            while (winner == null && failed < started) {
+                long wait = deadline - now();
+                if (wait <= 0) break;
+                wait(wait);
+            }
+            if (winner != null) return winner;
+            aborted = true;
+            closeAll();
+            if (failed < started || error == null) throw new SocketTimeoutException("connect timed out");
+            throw error;
+        }
+
+        synchronized void abort() {
+            aborted = true;
+            closeAll();
+        }
+
+        private void closeAll() {
+            for (Socket socket : open) closeQuietly(socket);
+            open.clear();
+        }
+
+        private static int rank(IOException e) {
+            if (e instanceof ConnectException) return 2;
+            if (e instanceof SocketTimeoutException) return 1;
+            return 0;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.statusmonitor.checks;
+
+import com.example.statusmonitor.FlightRecorder;
+import com.example.statusmonitor.StatusCheckStrategy;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+Short-lived reachability cache shared by all socket-based checks.
+
+A failed connect is cached for TTL_MS at the scope it says something about:
+NoRouteToHostException marks the whole host down, so sibling checks on any port
+fail fast with the same result; a connect timeout only marks that host:port, since
+a firewall dropping one port says nothing about the others. Once the TTL expires
+the next check becomes the single probe; siblings arriving meanwhile wait for its
+outcome. Any connect that gets an answer (even a refusal) clears both scopes.
+
+A check's own retry should connect without asking check() first - the cache it
+would read is the failure of its first attempt.
+
+Usage:
+  if (attempt == 0) {
+      Result cached = HostReachability.check(host, port);
+      if (cached != null) return cached;
+  }
+  HostReachability.connect(host, port, () -> socket.connect(address, TIMEOUT_MS));
+*/
+public final class HostReachability {
+
+    static final long TTL_MS = 15_000;
+    private static final long PROBE_WAIT_MS = 20_000;
+
+    public interface Connect {
+        void run() throws IOException;
+    }
+
+    private static final class Entry {
+        StatusCheckStrategy.Result failure;
+        long expiresAt;
+        boolean probing;
+        long probeDeadline;
+    }
+
+    // Keyed by host for host-wide verdicts, host#port for one endpoint
+    private static final Map<String, Entry> entries = new HashMap<>();
+
+    private HostReachability() {}
+
+    /**
+     * Returns the cached failure for a host or endpoint known to be unreachable, or null to go
+     * ahead and connect. While another check is re-probing it this blocks until that probe has
+     * an outcome.
+     */
+    public static StatusCheckStrategy.Result check(String host, int port) {
+        String endpoint = endpoint(host, port);
+        synchronized (entries) {
+            while (true) {
+                Entry entry = entries.get(host);
+                if (entry == null) entry = entries.get(endpoint);
+                if (entry == null) return null;
+
+                long now = now();
+                if (now < entry.expiresAt) return entry.failure;
+
+                if (!entry.probing || now >= entry.probeDeadline) {
+                    // This caller becomes the probe
+                    entry.probing = true;
+                    entry.probeDeadline = now + PROBE_WAIT_MS;
+                    return null;
+                }
+
+                try {
+                    entries.wait(entry.probeDeadline - now);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+    }
+
+    /** Runs a connect attempt and records what it says about the host and the port. */
+    public static void connect(String host, int port, Connect connect) throws IOException {
+        boolean recorded = false;
+        try {
+            connect.run();
+            FlightRecorder.mark(FlightRecorder.Event.CONNECTED);
+            report(host, port, null);
+            recorded = true;
+        } catch (IOException e) {
+            report(host, port, e);
+            recorded = true;
+            throw e;
+        } finally {
+            if (!recorded) release(host, port);
+        }
+    }
+
+    /** Records the outcome of a connect made elsewhere (e.g. inside an HTTP client); null = connected. */
+    public static void report(String host, int port, IOException error) {
+        if (error == null || error instanceof ConnectException && !isNoRoute(error)) {
+            // Connected, or refused: something answered, so the host and the path to the port are up
+            markReachable(host, port);
+        } else if (isNoRoute(error)) {
+            markUnreachable(host, StatusCheckStrategy.Result.noConnection("No route"));
+        } else if (error instanceof SocketTimeoutException) {
+            markUnreachable(endpoint(host, port), StatusCheckStrategy.Result.offline("Timeout"));
+            release(host);
+        } else {
+            release(host, port);
+        }
+    }
+
+    /** Ends a probe without a verdict so a waiting sibling can take over. No-op if none is in flight. */
+    public static void release(String host, int port) {
+        release(host);
+        release(endpoint(host, port));
+    }
+
+    public static void clear() {
+        synchronized (entries) {
+            entries.clear();
+            entries.notifyAll();
+        }
+    }
+
+    private static boolean isNoRoute(IOException e) {
+        if (e instanceof NoRouteToHostException) return true;
+        String message = e.getMessage();
+        return message != null && (message.contains("EHOSTUNREACH") || message.contains("ENETUNREACH"));
+    }
+
+    private static String endpoint(String host, int port) {
+        return host + "#" + port;
+    }
+
+    private static void release(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.probing) {
+                entry.probing = false;
+                entries.notifyAll();
+            }
+        }
+    }
+
+    private static void markUnreachable(String key, StatusCheckStrategy.Result failure) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+            }
+            entry.failure = failure;
+            entry.expiresAt = now() + TTL_MS;
+            entry.probing = false;
+            entries.notifyAll();
+        }
+    }
+
+    private static void markReachable(String host, int port) {
+        synchronized (entries) {
+            boolean removed = entries.remove(host) != null;
+            removed |= entries.remove(endpoint(host, port)) != null;
+            if (removed) entries.notifyAll();
+        }
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.statusmonitor.checks;
+
+import com.example.statusmonitor.MonitorCost;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/*
+Compressed response bodies for HTTP checks.
+
+Checks send ACCEPT_ENCODING themselves and inflate on the fly with decode(). Because
+the header is explicit, neither HttpURLConnection nor OkHttp decompresses
+transparently, so scan() can stop inflating as soon as the matcher has what it
+needs. It then drains the remaining compressed bytes, up to a cap, so a keep-alive
+connection stays reusable.
+*/
+final class HttpBody {
+
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+    interface Sink {
+        void feed(byte[] buf, int off, int len);
+        boolean isDone();
+    }
+
+    private HttpBody() {}
+
+    /** Wraps raw in a decompressing stream for the given Content-Encoding. Closing it closes raw. */
+    static InputStream decode(InputStream raw, String contentEncoding) throws IOException {
+        if (contentEncoding == null) return raw;
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        switch (encoding) {
+            case "":
+            case "identity":
+                return raw;
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(raw, BUFFER_SIZE);
+            case "deflate":
+                return inflate(raw);
+            default:
+                throw new IOException("Unsupported encoding " + contentEncoding);
+        }
+    }
+
+    /**
+     * Streams the decoded body into sink until it is done, maxBytes have been decoded, or EOF.
+     * Returns true when raw was read to EOF, i.e. its connection can be reused.
+     */
+    static boolean scan(InputStream raw, String contentEncoding, Sink sink, int maxBytes) throws IOException {
+        byte[] buf = BufferPool.acquire();
+        Counted counted = new Counted(raw);
+        try (InputStream in = decode(counted, contentEncoding)) {
+            int total = 0;
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                sink.feed(buf, 0, n);
+                total += n;
+                if (sink.isDone() || total >= maxBytes) {
+                    return drain(counted, buf);
+                }
+            }
+            return true;
+        } finally {
+            MonitorCost.countRx(counted.count);
+            BufferPool.release(buf);
+        }
+    }
+
+    /** Discards what is left of the compressed body without inflating it. */
+    private static boolean drain(InputStream raw, byte[] buf) throws IOException {
+        int drained = 0;
+        while (drained < MAX_DRAIN_BYTES) {
+            int n = raw.read(buf, 0, Math.min(buf.length, MAX_DRAIN_BYTES - drained));
+            if (n < 0) return true;
+            drained += n;
+        }
+        return false;
+    }
+
+    // "deflate" is meant to be zlib-wrapped, but some servers send raw deflate
+    private static InputStream inflate(InputStream raw) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(raw, 2);
+        int b0 = in.read();
+        int b1 = in.read();
+        if (b1 >= 0) in.unread(b1);
+        if (b0 >= 0) in.unread(b0);
+        boolean zlib = b0 >= 0 && b1 >= 0 && (b0 & 0x0F) == 8 && ((b0 << 8) | b1) % 31 == 0;
+
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    // Counts the bytes that come off the wire, before inflating
+    private static final class Counted extends FilterInputStream {
+        long count;
+
+        Counted(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
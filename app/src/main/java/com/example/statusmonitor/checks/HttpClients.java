@@ -0,0 +1,79 @@
+package com.example.statusmonitor.checks;
+
+import com.example.statusmonitor.FlightRecorder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.X509TrustManager;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/*
+Shared OkHttp client for multiplexed website checks.
+
+Negotiates HTTP/2 through ALPN, so concurrent checks against one origin run as
+parallel streams on a single connection. OkHttp also coalesces other hostnames
+onto an open HTTP/2 connection when they resolve to the same address and its
+certificate covers them - subdomain checks behind one front end share a socket.
+TLS comes from SharedTls, and connect outcomes feed HostReachability. Addresses
+are tried in HappyEyeballs order, the family that last connected first.
+*/
+public final class HttpClients {
+
+    private static final int TIMEOUT_MS = 15000;
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    private static OkHttpClient multiplexed;
+
+    private HttpClients() {}
+
+    public static synchronized OkHttpClient multiplexed() {
+        if (multiplexed == null) {
+            OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                    .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                    .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                    .connectTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .readTimeout(TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .followRedirects(true)
+                    .followSslRedirects(true)
+                    .dns(HappyEyeballs.DNS)
+                    .eventListener(new ReachabilityListener());
+
+            X509TrustManager trustManager = SharedTls.trustManager();
+            if (trustManager != null) {
+                builder.sslSocketFactory(SharedTls.socketFactory(), trustManager);
+            }
+            multiplexed = builder.build();
+        }
+        return multiplexed;
+    }
+
+    private static class ReachabilityListener extends EventListener {
+        @Override
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            FlightRecorder.mark(FlightRecorder.Event.CONNECTED);
+            HappyEyeballs.remember(call.request().url().host(), address.getAddress());
+            HostReachability.report(call.request().url().host(), call.request().url().port(), null);
+        }
+
+        @Override
+        public void connectFailed(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol, IOException e) {
+            HappyEyeballs.forget(call.request().url().host(), address.getAddress());
+            HostReachability.report(call.request().url().host(), call.request().url().port(), e);
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            FlightRecorder.mark(FlightRecorder.Event.FIRST_BYTE);
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package com.example.statusmonitor.checks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+Streaming JSON scanner that pulls a fixed set of paths out of a document in one pass.
+
+Bytes can be fed in arbitrary chunks; the scanner keeps its position between calls.
+Requested paths are compiled into a small trie up front, keys are compared as bytes,
+and only requested values are copied (unescaped) into preallocated buffers. Nothing
+else is materialized, so long strings such as a base64 favicon cost a scan and no
+allocation. Paths only descend through objects: "name" never matches a name inside
+an array like players.sample.
+
+One scanner is reused across checks via reset(); it is not thread-safe, so keep one
+per thread (see the ThreadLocal in each check).
+
+Usage:
+  JsonScanner json = new JsonScanner("version.name", "players.online");
+  json.feed(buf, 0, n);                 // repeatedly, until isDone() or end of input
+  String version = json.getString(0);
+  long online = json.getLong(1, -1);
+*/
+public final class JsonScanner implements HttpBody.Sink {
+
+    private static final int MAX_DEPTH = 64;
+    private static final int MAX_KEY_BYTES = 64;
+    private static final int MAX_VALUE_BYTES = 256;
+
+    // Parser states
+    private static final int VALUE = 0;          // Expecting a value
+    private static final int KEY_OR_END = 1;     // In an object, expecting a key or '}'
+    private static final int KEY = 2;            // Inside a key string
+    private static final int KEY_ESCAPE = 3;
+    private static final int COLON = 4;
+    private static final int NEXT_OR_END = 5;    // After a value, expecting ',' or the closing bracket
+    private static final int STRING = 6;         // Inside a string value
+    private static final int STRING_ESCAPE = 7;
+    private static final int STRING_UNICODE = 8; // Inside the four hex digits of a unicode escape
+    private static final int LITERAL = 9;        // Number, true, false or null
+    private static final int END = 10;           // Top-level value complete
+    private static final int ERROR = 11;
+
+    private static final byte OBJECT = 1;
+    private static final byte ARRAY = 2;
+
+    // Path trie; node 0 is the document root
+    private final byte[][] nodeKey;
+    private final int[] nodeFirstChild;
+    private final int[] nodeNextSibling;
+    private final int[] nodePath;        // Path index for a leaf, -1 otherwise
+    private final int pathCount;
+
+    private final byte[] containers = new byte[MAX_DEPTH];
+    private final int[] containerNode = new int[MAX_DEPTH];
+    private final byte[] key = new byte[MAX_KEY_BYTES];
+    private final byte[][] values;
+    private final int[] valueLength;
+    private final boolean[] found;
+    private final boolean[] isNull;      // Found, but as the literal null
+
+    private int state;
+    private int depth;
+    private int keyLength;               // -1 once the key cannot match any child
+    private int valueNode;               // Trie node for the value being parsed, -1 if not requested
+    private int capturePath;             // Path the current string/literal is copied into, -1 if skipped
+    private int unicode;
+    private int unicodeDigits;
+    private int highSurrogate;
+    private int foundCount;
+
+    public JsonScanner(String... paths) {
+        pathCount = paths.length;
+        int maxNodes = 1;
+        for (String path : paths) maxNodes += path.split("\\.").length;
+        nodeKey = new byte[maxNodes][];
+        nodeFirstChild = new int[maxNodes];
+        nodeNextSibling = new int[maxNodes];
+        nodePath = new int[maxNodes];
+        Arrays.fill(nodeFirstChild, -1);
+        Arrays.fill(nodeNextSibling, -1);
+        Arrays.fill(nodePath, -1);
+
+        int nodes = 1;
+        for (int p = 0; p < paths.length; p++) {
+            int node = 0;
+            for (String segment : paths[p].split("\\.")) {
+                byte[] segmentBytes = segment.getBytes(StandardCharsets.UTF_8);
+                int child = child(node, segmentBytes, segmentBytes.length);
+                if (child < 0) {
+                    child = nodes++;
+                    nodeKey[child] = segmentBytes;
+                    nodeNextSibling[child] = nodeFirstChild[node];
+                    nodeFirstChild[node] = child;
+                }
+                node = child;
+            }
+            nodePath[node] = p;
+        }
+
+        values = new byte[pathCount][MAX_VALUE_BYTES];
+        valueLength = new int[pathCount];
+        found = new boolean[pathCount];
+        isNull = new boolean[pathCount];
+        reset();
+    }
+
+    /** Clears captured values and parser state so the scanner can read the next document. */
+    public void reset() {
+        state = VALUE;
+        depth = 0;
+        valueNode = 0;
+        capturePath = -1;
+        highSurrogate = 0;
+        foundCount = 0;
+        for (int i = 0; i < pathCount; i++) {
+            valueLength[i] = 0;
+            found[i] = false;
+            isNull[i] = false;
+        }
+    }
+
+    @Override
+    public void feed(byte[] buf, int off, int len) {
+        for (int i = off; i < off + len && state < END; i++) {
+            step(buf[i]);
+        }
+    }
+
+    /** Call at end of input: completes a bare top-level literal that had no trailing delimiter. */
+    public void finish() {
+        if (state == LITERAL) endValue();
+    }
+
+    /** True once every requested path has a value, or the document ended or was malformed. */
+    @Override
+    public boolean isDone() {
+        return foundCount == pathCount || state >= END;
+    }
+
+    public boolean isMalformed() {
+        return state == ERROR;
+    }
+
+    /** True if the path has a value other than null. */
+    public boolean has(int path) {
+        return found[path] && !isNull[path];
+    }
+
+    /** The value as text (string contents, or a literal's source), or null if absent or null. */
+    public String getString(int path) {
+        if (!has(path)) return null;
+        return new String(values[path], 0, valueLength[path], StandardCharsets.UTF_8);
+    }
+
+    /** Parses an integer value (a fraction is truncated), or returns fallback if absent or not numeric. */
+    public long getLong(int path, long fallback) {
+        if (!found[path]) return fallback;
+        byte[] v = values[path];
+        int n = valueLength[path];
+        int i = 0;
+        boolean negative = n > 0 && v[0] == '-';
+        if (negative) i++;
+        if (i >= n) return fallback;
+        long result = 0;
+        for (; i < n; i++) {
+            byte b = v[i];
+            if (b == '.' || b == 'e' || b == 'E') break;
+            if (b < '0' || b > '9') return fallback;
+            result = result * 10 + (b - '0');
+        }
+        return negative ? -result : result;
+    }
+
+    /** Parses a decimal value, or returns fallback if absent or not numeric. */
+    public double getDouble(int path, double fallback) {
+        if (!found[path]) return fallback;
+        try {
+            return Double.parseDouble(getString(path));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private void step(byte b) {
+        switch (state) {
+            case VALUE:
+                if (!isWhitespace(b)) startValue(b);
+                break;
+
+            case KEY_OR_END:
+                if (b == '"') {
+                    startKey();
+                } else if (b == '}') {
+                    endContainer(OBJECT);
+                } else if (!isWhitespace(b)) {
+                    state = ERROR;
+                }
+                break;
+
+            case KEY:
+                if (b == '"') {
+                    int node = containerNode[depth - 1];
+                    valueNode = node >= 0 && keyLength >= 0 ? child(node, key, keyLength) : -1;
+                    state = COLON;
+                } else if (b == '\\') {
+                    state = KEY_ESCAPE;
+                } else {
+                    appendKey(b);
+                }
+                break;
+
+            case KEY_ESCAPE:
+                // Good enough for keys: \" and \\ map to themselves, anything else cannot match a path
+                if (b == '"' || b == '\\' || b == '/') {
+                    appendKey(b);
+                } else {
+                    keyLength = -1;
+                }
+                state = KEY;
+                break;
+
+            case COLON:
+                if (b == ':') {
+                    state = VALUE;
+                } else if (!isWhitespace(b)) {
+                    state = ERROR;
+                }
+                break;
+
+            case NEXT_OR_END:
+                if (b == ',') {
+                    if (containers[depth - 1] == OBJECT) {
+                        state = KEY_OR_END;
+                    } else {
+                        valueNode = -1;
+                        state = VALUE;
+                    }
+                } else if (b == '}') {
+                    endContainer(OBJECT);
+                } else if (b == ']') {
+                    endContainer(ARRAY);
+                } else if (!isWhitespace(b)) {
+                    state = ERROR;
+                }
+                break;
+
+            case STRING:
+                if (b == '"') {
+                    endValue();
+                } else if (b == '\\') {
+                    state = STRING_ESCAPE;
+                } else if (capturePath >= 0) {
+                    capture(b);
+                }
+                break;
+
+            case STRING_ESCAPE:
+                state = STRING;
+                if (b == 'u') {
+                    unicode = 0;
+                    unicodeDigits = 0;
+                    state = STRING_UNICODE;
+                } else if (capturePath >= 0) {
+                    capture(unescape(b));
+                }
+                break;
+
+            case STRING_UNICODE:
+                int digit = hexValue(b);
+                if (digit < 0) {
+                    state = ERROR;
+                    break;
+                }
+                unicode = (unicode << 4) | digit;
+                if (++unicodeDigits == 4) {
+                    if (capturePath >= 0) captureCodeUnit(unicode);
+                    state = STRING;
+                }
+                break;
+
+            case LITERAL:
+                if (isLiteralByte(b)) {
+                    if (capturePath >= 0) capture(b);
+                } else {
+                    endValue();
+                    if (state < END) step(b);
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void startValue(byte b) {
+        int path = valueNode >= 0 ? nodePath[valueNode] : -1;
+        if (b == '{' || b == '[') {
+            if (depth == MAX_DEPTH) {
+                state = ERROR;
+                return;
+            }
+            boolean object = b == '{';
+            containers[depth] = object ? OBJECT : ARRAY;
+            // Paths never descend into arrays
+            containerNode[depth] = object && valueNode >= 0 && nodeFirstChild[valueNode] >= 0 ? valueNode : -1;
+            depth++;
+            if (object) {
+                state = KEY_OR_END;
+            } else {
+                valueNode = -1;
+                state = VALUE;
+            }
+        } else if (b == ']' && depth > 0 && containers[depth - 1] == ARRAY) {
+            endContainer(ARRAY);  // Empty array
+        } else if (b == '"') {
+            beginCapture(path);
+            state = STRING;
+        } else if (isLiteralByte(b)) {
+            beginCapture(path);
+            if (capturePath >= 0) capture(b);
+            state = LITERAL;
+        } else {
+            state = ERROR;
+        }
+    }
+
+    private void beginCapture(int path) {
+        capturePath = path >= 0 && !found[path] ? path : -1;
+        if (capturePath >= 0) valueLength[capturePath] = 0;
+        highSurrogate = 0;
+    }
+
+    private void endValue() {
+        if (capturePath >= 0) {
+            isNull[capturePath] = state == LITERAL && isNullLiteral(capturePath);
+            found[capturePath] = true;
+            foundCount++;
+            capturePath = -1;
+        }
+        state = depth == 0 ? END : NEXT_OR_END;
+    }
+
+    private void endContainer(byte type) {
+        if (depth == 0 || containers[depth - 1] != type) {
+            state = ERROR;
+            return;
+        }
+        depth--;
+        state = depth == 0 ? END : NEXT_OR_END;
+    }
+
+    private void startKey() {
+        keyLength = containerNode[depth - 1] >= 0 ? 0 : -1;
+        state = KEY;
+    }
+
+    private void appendKey(byte b) {
+        if (keyLength < 0) return;
+        if (keyLength == MAX_KEY_BYTES) {
+            keyLength = -1;
+        } else {
+            key[keyLength++] = b;
+        }
+    }
+
+    private int child(int node, byte[] name, int length) {
+        for (int c = nodeFirstChild[node]; c >= 0; c = nodeNextSibling[c]) {
+            byte[] k = nodeKey[c];
+            if (k.length != length) continue;
+            int i = 0;
+            while (i < length && k[i] == name[i]) i++;
+            if (i == length) return c;
+        }
+        return -1;
+    }
+
+    private boolean isNullLiteral(int path) {
+        byte[] v = values[path];
+        return valueLength[path] == 4 && v[0] == 'n' && v[1] == 'u' && v[2] == 'l' && v[3] == 'l';
+    }
+
+    private void capture(byte b) {
+        int n = valueLength[capturePath];
+        if (n < MAX_VALUE_BYTES) {
+            values[capturePath][n] = b;
+            valueLength[capturePath] = n + 1;
+        }
+    }
+
+    private void captureCodeUnit(int unit) {
+        if (unit >= 0xD800 && unit <= 0xDBFF) {
+            highSurrogate = unit;
+            return;
+        }
+        int codePoint = unit;
+        if (unit >= 0xDC00 && unit <= 0xDFFF) {
+            if (highSurrogate == 0) return;  // Unpaired, drop it
+            codePoint = 0x10000 + ((highSurrogate - 0xD800) << 10) + (unit - 0xDC00);
+        }
+        highSurrogate = 0;
+
+        if (codePoint < 0x80) {
+            capture((byte) codePoint);
+        } else if (codePoint < 0x800) {
+            capture((byte) (0xC0 | (codePoint >> 6)));
+            capture((byte) (0x80 | (codePoint & 0x3F)));
+        } else if (codePoint < 0x10000) {
+            capture((byte) (0xE0 | (codePoint >> 12)));
+            capture((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            capture((byte) (0x80 | (codePoint & 0x3F)));
+        } else {
+            capture((byte) (0xF0 | (codePoint >> 18)));
+            capture((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            capture((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            capture((byte) (0x80 | (codePoint & 0x3F)));
+        }
+    }
+
+    private static byte unescape(byte b) {
+        switch (b) {
+            case 'n': return '\n';
+            case 't': return '\t';
+            case 'r': return '\r';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            default: return b;  // \" \\ \/
+        }
+    }
+
+    private static int hexValue(byte b) {
+        if (b >= '0' && b <= '9') return b - '0';
+        if (b >= 'a' && b <= 'f') return b - 'a' + 10;
+        if (b >= 'A' && b <= 'F') return b - 'A' + 10;
+        return -1;
+    }
+
+    private static boolean isLiteralByte(byte b) {
+        return (b >= '0' && b <= '9') || (b >= 'a' && b <= 'z') || b == '-' || b == '+' || b == '.' || b == 'E';
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+}
@@ -1,18 +1,26 @@
 package com.example.statusmonitor.checks;
 
+import com.example.statusmonitor.CheckWatchdog;
+import com.example.statusmonitor.FlightRecorder;
+import com.example.statusmonitor.MonitorCost;
 import com.example.statusmonitor.MonitorEntity;
 import com.example.statusmonitor.StatusCheckStrategy;
 
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.net.InetSocketAddress;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 
 /*
 Minecraft Server List Ping - checks server status using the SLP protocol.
-Returns version and player count.
+Returns version, player count and the server's Ping/Pong round trip.
+
+The handshake and status request go out as one write from a pooled buffer, and
+the status JSON is streamed through a JsonScanner. Once the scanner has its
+fields, the rest of the packet (mostly the base64 favicon) is read and discarded
+unparsed, so a check allocates next to nothing.
 
 Usage:
   new MinecraftCheck("82.117.106.223")
@@ -21,10 +29,24 @@ Usage:
 public class MinecraftCheck implements StatusCheckStrategy {
 
     private static final int TIMEOUT_MS = 10000;
+    private static final int PING_TIMEOUT_MS = 3000;
     private static final int DEFAULT_PORT = 25565;
+    private static final int PROTOCOL_VERSION = 765;  // 1.20.4
+    private static final int MAX_PACKET_BYTES = 4 * 32767 + 8;
+
+    private static final int VERSION = 0;
+    private static final int ONLINE = 1;
+    private static final int MAX = 2;
+    private static final ThreadLocal<JsonScanner> JSON = new ThreadLocal<JsonScanner>() {
+        @Override
+        protected JsonScanner initialValue() {
+            return new JsonScanner("version.name", "players.online", "players.max");
+        }
+    };
 
     private final String host;
     private final int port;
+    private final byte[] hostBytes;
 
     public MinecraftCheck(String host) {
         this(host, DEFAULT_PORT);
@@ -33,38 +55,57 @@ public class MinecraftCheck implements StatusCheckStrategy {
     public MinecraftCheck(String host, int port) {
         this.host = host;
         this.port = port;
+        this.hostBytes = host.getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
     public Result check(MonitorEntity entity) {
         for (int attempt = 0; attempt < 2; attempt++) {
-            try (Socket socket = new Socket()) {
-                socket.connect(new InetSocketAddress(host, port), TIMEOUT_MS);
+            if (attempt > 0) FlightRecorder.mark(FlightRecorder.Event.RETRIED, attempt);
+            if (attempt == 0) {
+                // The retry connects regardless: the cache would only hold the first attempt's failure
+                Result cached = HostReachability.check(host, port);
+                if (cached != null) return cached;
+            }
+
+            byte[] outBuf = BufferPool.acquire();
+            byte[] inBuf = BufferPool.acquire();
+            try (Socket socket = connect()) {
+                CheckWatchdog.onCancel(socket);
                 socket.setSoTimeout(TIMEOUT_MS);
+                socket.setTcpNoDelay(true);
 
-                DataInputStream in = new DataInputStream(socket.getInputStream());
-                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                OutputStream out = socket.getOutputStream();
+                PacketReader in = new PacketReader(socket.getInputStream(), inBuf);
 
-                sendHandshake(out, host, port);
-                sendStatusRequest(out);
-                String json = readStatusResponse(in);
+                int requestLength = writeStatusRequest(outBuf);
+                out.write(outBuf, 0, requestLength);
+                out.flush();
+                MonitorCost.countTx(requestLength);
 
-                if (json == null) {
+                JsonScanner json = JSON.get();
+                json.reset();
+                if (!readStatusResponse(in, json)) {
                     return Result.offline("No response");
                 }
 
-                String version = extractJson(json, "name");
-                String onlinePlayers = extractJson(json, "online");
-                String maxPlayers = extractJson(json, "max");
+                long latency = ping(socket, out, in, outBuf);
+
+                String version = json.getString(VERSION);
+                long onlinePlayers = json.getLong(ONLINE, -1);
+                long maxPlayers = json.getLong(MAX, -1);
 
                 StringBuilder message = new StringBuilder();
                 if (version != null) message.append(version);
-                if (onlinePlayers != null && maxPlayers != null) {
+                if (onlinePlayers >= 0 && maxPlayers >= 0) {
                     if (message.length() > 0) message.append("\n");
                     message.append(onlinePlayers).append("/").append(maxPlayers).append(" players");
                 }
+                if (latency >= 0) {
+                    message.append(message.length() > 0 ? ", " : "").append(latency).append(" ms");
+                }
 
-                return Result.online(message.length() > 0 ? message.toString() : "Online");
+                return Result.online(message.length() > 0 ? message.toString() : "Online").withLatency(latency);
 
             } catch (java.net.UnknownHostException e) {
                 return Result.noConnection("No DNS");
@@ -76,117 +117,177 @@ public class MinecraftCheck implements StatusCheckStrategy {
                 return Result.offline("Connection refused");
             } catch (Exception e) {
                 return Result.offline(e.getClass().getSimpleName());
+            } finally {
+                BufferPool.release(inBuf);
+                BufferPool.release(outBuf);
             }
         }
         return Result.offline("Timeout");
     }
 
+    private Socket connect() throws IOException {
+        Socket[] socket = new Socket[1];
+        HostReachability.connect(host, port, () -> socket[0] = HappyEyeballs.connect(host, port, TIMEOUT_MS));
+        return socket[0];
+    }
+
     @Override
     public String getDescription() {
         return "MC:" + port;
     }
 
-    private void sendHandshake(DataOutputStream out, String host, int port) throws IOException {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-        DataOutputStream packet = new DataOutputStream(buffer);
+    /** Encodes handshake + status request into buf; returns the number of bytes to send. */
+    int writeStatusRequest(byte[] buf) {
+        int bodyLength = varIntSize(0x00) + varIntSize(PROTOCOL_VERSION)
+                + varIntSize(hostBytes.length) + hostBytes.length + 2 + varIntSize(1);
 
-        writeVarInt(packet, 0x00);           // Packet ID
-        writeVarInt(packet, 765);            // Protocol version (1.20.4)
-        writeString(packet, host);           // Server address
-        packet.writeShort(port);             // Server port
-        writeVarInt(packet, 1);              // Next state (1 = status)
+        int pos = writeVarInt(buf, 0, bodyLength);
+        pos = writeVarInt(buf, pos, 0x00);               // Packet ID (handshake)
+        pos = writeVarInt(buf, pos, PROTOCOL_VERSION);   // Protocol version
+        pos = writeVarInt(buf, pos, hostBytes.length);   // Server address
+        System.arraycopy(hostBytes, 0, buf, pos, hostBytes.length);
+        pos += hostBytes.length;
+        buf[pos++] = (byte) (port >>> 8);                 // Server port
+        buf[pos++] = (byte) port;
+        pos = writeVarInt(buf, pos, 1);                  // Next state (1 = status)
 
-        byte[] data = buffer.toByteArray();
-        writeVarInt(out, data.length);
-        out.write(data);
-        out.flush();
+        pos = writeVarInt(buf, pos, 1);                  // Packet length
+        pos = writeVarInt(buf, pos, 0x00);               // Packet ID (status request)
+        return pos;
     }
 
-    private void sendStatusRequest(DataOutputStream out) throws IOException {
-        writeVarInt(out, 1);     // Packet length
-        writeVarInt(out, 0x00);  // Packet ID (status request)
-        out.flush();
-    }
+    /** Streams the status JSON into json and consumes the whole packet. False if it isn't a status response. */
+    static boolean readStatusResponse(PacketReader in, JsonScanner json) throws IOException {
+        int packetLength = in.readVarInt();
+        if (packetLength <= 0 || packetLength > MAX_PACKET_BYTES) return false;
 
-    private String readStatusResponse(DataInputStream in) throws IOException {
-        int packetLength = readVarInt(in);
-        if (packetLength < 0) return null;
+        long start = in.consumed;
+        int packetId = in.readVarInt();
+        if (packetId != 0x00) return false;
 
-        int packetId = readVarInt(in);
-        if (packetId != 0x00) return null;
+        int jsonLength = in.readVarInt();
+        int headerLength = (int) (in.consumed - start);
+        if (jsonLength <= 0 || headerLength + jsonLength > packetLength) return false;
+
+        in.stream(jsonLength, json);
+        json.finish();
+        in.skip(packetLength - headerLength - jsonLength);
+        return true;
+    }
 
-        int jsonLength = readVarInt(in);
-        if (jsonLength <= 0 || jsonLength > 32767) return null;
+    /** Ping/Pong round trip in ms, or -1 if the server doesn't answer it (some proxies close after status). */
+    private long ping(Socket socket, OutputStream out, PacketReader in, byte[] buf) {
+        try {
+            socket.setSoTimeout(PING_TIMEOUT_MS);
+            long sent = System.nanoTime();
+            int pos = writeVarInt(buf, 0, 9);      // Packet length
+            pos = writeVarInt(buf, pos, 0x01);     // Packet ID (ping)
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[pos++] = (byte) (sent >>> shift);
+            }
+            out.write(buf, 0, pos);
+            out.flush();
+            MonitorCost.countTx(pos);
 
-        byte[] jsonBytes = new byte[jsonLength];
-        in.readFully(jsonBytes);
-        return new String(jsonBytes, "UTF-8");
+            if (in.readVarInt() != 9 || in.readVarInt() != 0x01) return -1;
+            if (in.readLong() != sent) return -1;
+            return (System.nanoTime() - sent) / 1_000_000;
+        } catch (IOException e) {
+            return -1;
+        }
     }
 
-    private void writeVarInt(DataOutputStream out, int value) throws IOException {
+    static int writeVarInt(byte[] buf, int pos, int value) {
         while ((value & ~0x7F) != 0) {
-            out.writeByte((value & 0x7F) | 0x80);
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
             value >>>= 7;
         }
-        out.writeByte(value);
+        buf[pos++] = (byte) value;
+        return pos;
     }
 
-    private void writeString(DataOutputStream out, String str) throws IOException {
-        byte[] bytes = str.getBytes("UTF-8");
-        writeVarInt(out, bytes.length);
-        out.write(bytes);
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
     }
 
-    private int readVarInt(DataInputStream in) throws IOException {
-        int value = 0;
-        int position = 0;
-        byte currentByte;
-
-        while (true) {
-            currentByte = in.readByte();
-            value |= (currentByte & 0x7F) << position;
-            if ((currentByte & 0x80) == 0) break;
-            position += 7;
-            if (position >= 32) throw new IOException("VarInt too big");
+    /** Buffered reader over the socket; the buffer is borrowed from BufferPool. */
+    static final class PacketReader {
+        private final InputStream in;
+        private final byte[] buf;
+        private int pos;
+        private int limit;
+        private boolean received;
+        long consumed;
+
+        PacketReader(InputStream in, byte[] buf) {
+            this.in = in;
+            this.buf = buf;
+        }
+
+        int readByte() throws IOException {
+            if (pos == limit) fill();
+            consumed++;
+            return buf[pos++] & 0xFF;
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            int position = 0;
+            while (true) {
+                int currentByte = readByte();
+                value |= (currentByte & 0x7F) << position;
+                if ((currentByte & 0x80) == 0) break;
+                position += 7;
+                if (position >= 32) throw new IOException("VarInt too big");
+            }
+            return value;
         }
-        return value;
-    }
 
-    private String extractJson(String json, String key) {
-        if (json == null) return null;
-        
-        // Look for "key": value or "key":"value"
-        String search = "\"" + key + "\"";
-        int keyStart = json.indexOf(search);
-        if (keyStart < 0) return null;
-        
-        int colonPos = json.indexOf(":", keyStart + search.length());
-        if (colonPos < 0) return null;
-        
-        // Skip whitespace after colon
-        int valueStart = colonPos + 1;
-        while (valueStart < json.length() && Character.isWhitespace(json.charAt(valueStart))) {
-            valueStart++;
+        long readLong() throws IOException {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+
+        /** Feeds length bytes to json until it has everything it wants, then just consumes them. */
+        void stream(int length, JsonScanner json) throws IOException {
+            while (length > 0) {
+                if (pos == limit) fill();
+                int n = Math.min(limit - pos, length);
+                if (!json.isDone()) json.feed(buf, pos, n);
+                pos += n;
+                consumed += n;
+                length -= n;
+            }
         }
-        
-        if (valueStart >= json.length()) return null;
-        
-        char firstChar = json.charAt(valueStart);
-        if (firstChar == '"') {
-            // String value
-            int valueEnd = json.indexOf("\"", valueStart + 1);
-            if (valueEnd < 0) return null;
-            return json.substring(valueStart + 1, valueEnd);
-        } else if (Character.isDigit(firstChar) || firstChar == '-') {
-            // Number value
-            int valueEnd = valueStart;
-            while (valueEnd < json.length() && 
-                   (Character.isDigit(json.charAt(valueEnd)) || json.charAt(valueEnd) == '-' || json.charAt(valueEnd) == '.')) {
-                valueEnd++;
+
+        void skip(int length) throws IOException {
+            while (length > 0) {
+                if (pos == limit) fill();
+                int n = Math.min(limit - pos, length);
+                pos += n;
+                consumed += n;
+                length -= n;
+            }
+        }
+
+        private void fill() throws IOException {
+            int n = in.read(buf, 0, buf.length);
+            if (n < 0) throw new EOFException();
+            MonitorCost.countRx(n);
+            if (!received) {
+                received = true;
+                FlightRecorder.mark(FlightRecorder.Event.FIRST_BYTE);
             }
-            return json.substring(valueStart, valueEnd);
+            pos = 0;
+            limit = n;
         }
-        
-        return null;
     }
 }
@@ -0,0 +1,284 @@
+package com.example.statusmonitor.checks;
+
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.system.StructPollfd;
+
+import com.example.statusmonitor.FlightRecorder;
+import com.example.statusmonitor.MonitorCost;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ICMP echo to many hosts from one unprivileged "ping" socket per address family.
+
+All echoes of an attempt go out back to back, then one poll loop collects replies
+until every target has answered or the attempt times out; only the silent targets
+are retried. The kernel owns the ICMP identifier of a ping socket, so replies are
+matched by sequence number: each (target, attempt) gets its own sequence from a
+block reserved for this call, and the reply's source must be that target. A late
+reply to an earlier attempt still counts.
+
+Pinging N hosts costs one thread, at most two sockets and ~3 timeouts in the worst
+case instead of N processes.
+
+The sockets sit behind Transport so the matching and retry logic can be tested
+without ICMP; OsTransport is the real one.
+*/
+final class MultiPinger {
+
+    static final long NO_REPLY = -1;
+    static final long NET_UNREACHABLE = -2;
+    static final long HOST_UNREACHABLE = -3;
+
+    static final int ATTEMPTS = 3;
+    static final int MAX_TARGETS = 0x10000 / ATTEMPTS;
+    private static final int[] TIMEOUT_MS = {1000, 2000, 5000};
+
+    private static final int HEADER_SIZE = 8;
+    private static final int PACKET_SIZE = HEADER_SIZE + 16;
+    private static final int ECHO_REQUEST = 8;
+    private static final int ECHO_REPLY = 0;
+    private static final int ECHO_REQUEST_V6 = 128;
+    private static final int ECHO_REPLY_V6 = 129;
+
+    private static final AtomicInteger nextSequence = new AtomicInteger(new Random().nextInt());
+
+    /** The ICMP sockets of one ping() call. */
+    interface Transport {
+        /** Sends an echo; returns 0, or NET_UNREACHABLE / HOST_UNREACHABLE if the kernel refused it. */
+        long send(boolean ipv6, byte[] packet, int length, InetAddress target) throws IOException;
+
+        /** Waits up to timeoutMs for a reply to be queued; false on timeout. */
+        boolean await(int timeoutMs) throws IOException;
+
+        /**
+         * Takes the next queued reply without blocking: copies it into buf and returns its length,
+         * or -1 if none is left. Sets source to the sender and ipv6[0] to the socket's family.
+         */
+        int receive(byte[] buf, InetAddress[] source, boolean[] ipv6) throws IOException;
+
+        void close();
+    }
+
+    private final InetAddress[] targets;
+    private final Transport transport;
+    private final long[] rtt;
+    private final long[] sentAt;
+    private final int base;
+    private final byte[] packet = new byte[PACKET_SIZE];
+    private final byte[] reply = new byte[512];
+    private final InetAddress[] source = new InetAddress[1];
+    private final boolean[] replyIpv6 = new boolean[1];
+    private int pending;
+
+    private MultiPinger(InetAddress[] targets, Transport transport) {
+        this.targets = targets;
+        this.transport = transport;
+        this.rtt = new long[targets.length];
+        this.sentAt = new long[targets.length * ATTEMPTS];
+        this.base = nextSequence.getAndAdd(targets.length * ATTEMPTS) & 0xFFFF;
+        Arrays.fill(rtt, NO_REPLY);
+        for (InetAddress target : targets) {
+            if (target != null) pending++;
+        }
+    }
+
+    /**
+     * Round-trip time in nanoseconds per target, or NO_REPLY / NET_UNREACHABLE /
+     * HOST_UNREACHABLE. Null targets are skipped. Throws if ping sockets aren't available.
+     */
+    static long[] ping(InetAddress[] targets) throws IOException {
+        return ping(targets, new OsTransport());
+    }
+
+    static long[] ping(InetAddress[] targets, Transport transport) throws IOException {
+        if (targets.length > MAX_TARGETS) {
+            throw new IllegalArgumentException("At most " + MAX_TARGETS + " targets per call");
+        }
+        MultiPinger pinger = new MultiPinger(targets, transport);
+        try {
+            for (int attempt = 0; attempt < ATTEMPTS && pinger.pending > 0; attempt++) {
+                if (attempt > 0) FlightRecorder.mark(FlightRecorder.Event.RETRIED, attempt);
+                pinger.sendAll(attempt);
+                pinger.receive(System.nanoTime() + TIMEOUT_MS[attempt] * 1_000_000L);
+            }
+        } finally {
+            transport.close();
+        }
+        return pinger.rtt;
+    }
+
+    private void sendAll(int attempt) throws IOException {
+        for (int i = 0; i < targets.length; i++) {
+            if (targets[i] == null || rtt[i] != NO_REPLY) continue;
+            boolean ipv6 = targets[i] instanceof Inet6Address;
+            int slot = i * ATTEMPTS + attempt;
+            fillPacket(ipv6, (base + slot) & 0xFFFF);
+            sentAt[slot] = System.nanoTime();
+            long refused = transport.send(ipv6, packet, PACKET_SIZE, targets[i]);
+            if (refused != 0) {
+                answer(i, refused);
+            } else {
+                MonitorCost.countTx(PACKET_SIZE);
+            }
+        }
+    }
+
+    private void receive(long deadline) throws IOException {
+        while (pending > 0) {
+            int timeoutMs = (int) ((deadline - System.nanoTime()) / 1_000_000);
+            if (timeoutMs <= 0) return;
+            if (!transport.await(timeoutMs)) return;
+            drain();
+        }
+    }
+
+    // Reads every queued datagram
+    private void drain() throws IOException {
+        int length;
+        while ((length = transport.receive(reply, source, replyIpv6)) >= 0) {
+            long now = System.nanoTime();
+            MonitorCost.countRx(length);
+            if (length < HEADER_SIZE) continue;
+            if ((reply[0] & 0xFF) != (replyIpv6[0] ? ECHO_REPLY_V6 : ECHO_REPLY)) continue;
+
+            int sequence = ((reply[6] & 0xFF) << 8) | (reply[7] & 0xFF);
+            int slot = (sequence - base) & 0xFFFF;
+            if (slot >= sentAt.length) continue;
+            int i = slot / ATTEMPTS;
+            if (targets[i] == null || rtt[i] != NO_REPLY || sentAt[slot] == 0) continue;
+            if (!targets[i].equals(source[0])) continue;
+            answer(i, now - sentAt[slot]);
+        }
+    }
+
+    private void answer(int i, long value) {
+        rtt[i] = value;
+        pending--;
+    }
+
+    private void fillPacket(boolean ipv6, int sequence) {
+        Arrays.fill(packet, (byte) 0);
+        packet[0] = (byte) (ipv6 ? ECHO_REQUEST_V6 : ECHO_REQUEST);
+        // Identifier (bytes 4-5) is overwritten by the kernel for ping sockets
+        packet[6] = (byte) (sequence >> 8);
+        packet[7] = (byte) sequence;
+        if (!ipv6) {
+            // The kernel fills in the ICMPv6 checksum, not the ICMPv4 one
+            int sum = checksum(packet, PACKET_SIZE);
+            packet[2] = (byte) (sum >> 8);
+            packet[3] = (byte) sum;
+        }
+    }
+
+    static int checksum(byte[] data, int length) {
+        int sum = 0;
+        for (int i = 0; i + 1 < length; i += 2) {
+            sum += ((data[i] & 0xFF) << 8) | (data[i + 1] & 0xFF);
+        }
+        if ((length & 1) != 0) sum += (data[length - 1] & 0xFF) << 8;
+        while ((sum >> 16) != 0) sum = (sum & 0xFFFF) + (sum >> 16);
+        return ~sum & 0xFFFF;
+    }
+
+    // Unprivileged ping sockets through android.system.Os, one per family as needed
+    private static final class OsTransport implements Transport {
+        private final InetSocketAddress from = new InetSocketAddress(0);
+        private FileDescriptor v4;
+        private FileDescriptor v6;
+        private StructPollfd[] fds;
+        private int next;
+
+        @Override
+        public long send(boolean ipv6, byte[] packet, int length, InetAddress target) throws IOException {
+            try {
+                Os.sendto(socket(ipv6), packet, 0, length, 0, target, 0);
+                return 0;
+            } catch (ErrnoException e) {
+                if (e.errno == OsConstants.ENETUNREACH) return NET_UNREACHABLE;
+                if (e.errno == OsConstants.EHOSTUNREACH) return HOST_UNREACHABLE;
+                throw new IOException(e.getMessage());
+            }
+        }
+
+        @Override
+        public boolean await(int timeoutMs) throws IOException {
+            if (fds == null) fds = pollFds();
+            while (true) {
+                try {
+                    next = 0;
+                    return Os.poll(fds, timeoutMs) > 0;
+                } catch (ErrnoException e) {
+                    if (e.errno != OsConstants.EINTR) throw new IOException(e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public int receive(byte[] buf, InetAddress[] source, boolean[] ipv6) throws IOException {
+            for (; next < fds.length; next++) {
+                StructPollfd fd = fds[next];
+                if ((fd.revents & OsConstants.POLLIN) == 0) continue;
+                try {
+                    int length = Os.recvfrom(fd.fd, buf, 0, buf.length, OsConstants.MSG_DONTWAIT, from);
+                    source[0] = from.getAddress();
+                    ipv6[0] = fd.fd == v6;
+                    return length;
+                } catch (ErrnoException e) {
+                    if (e.errno != OsConstants.EAGAIN) throw new IOException(e.getMessage());
+                }
+            }
+            return -1;
+        }
+
+        private FileDescriptor socket(boolean ipv6) throws ErrnoException {
+            if (ipv6) {
+                if (v6 == null) {
+                    v6 = Os.socket(OsConstants.AF_INET6, OsConstants.SOCK_DGRAM, OsConstants.IPPROTO_ICMPV6);
+                    fds = null;
+                }
+                return v6;
+            }
+            if (v4 == null) {
+                v4 = Os.socket(OsConstants.AF_INET, OsConstants.SOCK_DGRAM, OsConstants.IPPROTO_ICMP);
+                fds = null;
+            }
+            return v4;
+        }
+
+        private StructPollfd[] pollFds() {
+            int count = (v4 != null ? 1 : 0) + (v6 != null ? 1 : 0);
+            StructPollfd[] fds = new StructPollfd[count];
+            int i = 0;
+            for (FileDescriptor fd : new FileDescriptor[] {v4, v6}) {
+                if (fd == null) continue;
+                fds[i] = new StructPollfd();
+                fds[i].fd = fd;
+                fds[i].events = (short) OsConstants.POLLIN;
+                i++;
+            }
+            return fds;
+        }
+
+        @Override
+        public void close() {
+            for (FileDescriptor fd : new FileDescriptor[] {v4, v6}) {
+                if (fd == null) continue;
+                try {
+                    Os.close(fd);
+                } catch (ErrnoException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+}
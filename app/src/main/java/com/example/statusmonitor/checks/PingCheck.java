@@ -1,16 +1,52 @@
 package com.example.statusmonitor.checks;
 
+import com.example.statusmonitor.BatchCheckStrategy;
+import com.example.statusmonitor.CheckWatchdog;
+import com.example.statusmonitor.FlightRecorder;
 import com.example.statusmonitor.MonitorEntity;
-import com.example.statusmonitor.StatusCheckStrategy;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /*
-ICMP ping check using system ping command.
+ICMP ping check.
 Requires router/host to respond to ping.
+
+Due ping monitors are checked together by MultiPinger from one ICMP socket (see
+BatchCheckStrategy); where the device doesn't allow ping sockets each host falls
+back to the system ping command.
+
+The hosts of a batch are resolved concurrently on a few "ping-dns" threads, so
+one slow name server costs the batch one lookup timeout rather than one per host;
+lookups still running after DNS_TIMEOUT_MS are reported and left out.
 */
-public class PingCheck implements StatusCheckStrategy {
+public class PingCheck implements BatchCheckStrategy {
+
+    private static final int DNS_THREADS = 8;
+    private static final long DNS_TIMEOUT_MS = 10_000;
+
+    private static final ThreadPoolExecutor resolvers = new ThreadPoolExecutor(
+            DNS_THREADS, DNS_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "ping-dns");
+                t.setDaemon(true);
+                return t;
+            });
+
+    static {
+        resolvers.allowCoreThreadTimeOut(true);
+    }
 
     private final String host;
 
@@ -20,8 +56,13 @@ public class PingCheck implements StatusCheckStrategy {
 
     @Override
     public Result check(MonitorEntity entity) {
+        Result[] results = checkAll(Collections.singletonList(entity));
+        if (results != null) {
+            return results[0];
+        }
         for (int attempt = 0; attempt < 3; attempt++) {
             if (attempt > 0) {
+                FlightRecorder.mark(FlightRecorder.Event.RETRIED, attempt);
                 try {
                     Thread.sleep(50);
                 } catch (InterruptedException e) {
@@ -37,11 +78,90 @@ public class PingCheck implements StatusCheckStrategy {
         return Result.offline("No response");
     }
 
+    @Override
+    public Result[] checkAll(List<MonitorEntity> entities) {
+        if (entities.size() > MultiPinger.MAX_TARGETS) return null;
+
+        Result[] results = new Result[entities.size()];
+        InetAddress[] targets = new InetAddress[entities.size()];
+        if (!resolve(entities, targets, results)) {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) results[i] = Result.noConnection("Interrupted");
+            }
+            return results;
+        }
+
+        FlightRecorder.mark(FlightRecorder.Event.DNS_DONE);
+
+        long[] rtt;
+        try {
+            rtt = MultiPinger.ping(targets);
+        } catch (IOException e) {
+            return null;
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] != null) continue;
+            if (rtt[i] >= 0) {
+                results[i] = Result.online(String.format(Locale.ROOT, "%.1fms", rtt[i] / 1e6))
+                        .withLatency(rtt[i] / 1_000_000);
+            } else if (rtt[i] == MultiPinger.NET_UNREACHABLE) {
+                results[i] = Result.noConnection("No network");
+            } else if (rtt[i] == MultiPinger.HOST_UNREACHABLE) {
+                results[i] = Result.offline("Host unreachable");
+            } else {
+                results[i] = Result.offline("No response");
+            }
+        }
+        return results;
+    }
+
+    // Fills targets, or results where a host doesn't resolve; false if interrupted
+    private static boolean resolve(List<MonitorEntity> entities, InetAddress[] targets, Result[] results) {
+        if (entities.size() == 1) {
+            try {
+                targets[0] = InetAddress.getByName(((PingCheck) entities.get(0).getCheckStrategy()).host);
+            } catch (UnknownHostException e) {
+                results[0] = Result.offline("Unknown host");
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        Future<InetAddress>[] lookups = new Future[entities.size()];
+        for (int i = 0; i < lookups.length; i++) {
+            String host = ((PingCheck) entities.get(i).getCheckStrategy()).host;
+            lookups[i] = resolvers.submit(() -> InetAddress.getByName(host));
+        }
+
+        long deadline = System.nanoTime() + DNS_TIMEOUT_MS * 1_000_000L;
+        try {
+            for (int i = 0; i < lookups.length; i++) {
+                try {
+                    targets[i] = lookups[i].get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException e) {
+                    results[i] = e.getCause() instanceof UnknownHostException
+                            ? Result.offline("Unknown host")
+                            : Result.noConnection(e.getCause().getMessage());
+                } catch (TimeoutException e) {
+                    lookups[i].cancel(true);
+                    results[i] = Result.noConnection("DNS timeout");
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Future<InetAddress> lookup : lookups) lookup.cancel(true);
+            return false;
+        }
+    }
+
     private Result runPing() {
         try {
             ProcessBuilder pb = new ProcessBuilder("ping", "-c", "1", "-W", "5", host);
             pb.redirectErrorStream(true);
             Process process = pb.start();
+            CheckWatchdog.onCancel(process::destroy);
 
             BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
             String line;
@@ -0,0 +1,70 @@
+package com.example.statusmonitor.checks;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+/*
+One SSLContext shared by every HTTPS check.
+
+All checks draw sockets from the same factory, so they share one client session
+cache and repeat checks to a host resume their TLS session (session tickets or
+IDs) instead of paying a full handshake. Uses the platform trust store, so the
+app's network security config still applies.
+*/
+public final class SharedTls {
+
+    private static final int SESSION_CACHE_SIZE = 256;
+    private static final int SESSION_TIMEOUT_S = 24 * 60 * 60;
+
+    private static SSLSocketFactory socketFactory;
+    private static X509TrustManager trustManager;
+
+    private SharedTls() {}
+
+    public static synchronized SSLSocketFactory socketFactory() {
+        init();
+        return socketFactory;
+    }
+
+    /** Trust manager behind socketFactory(), or null if the platform default factory is in use. */
+    public static synchronized X509TrustManager trustManager() {
+        init();
+        return trustManager;
+    }
+
+    private static void init() {
+        if (socketFactory != null) return;
+        try {
+            TrustManagerFactory tmf = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            tmf.init((KeyStore) null);
+            X509TrustManager tm = null;
+            for (TrustManager candidate : tmf.getTrustManagers()) {
+                if (candidate instanceof X509TrustManager) {
+                    tm = (X509TrustManager) candidate;
+                    break;
+                }
+            }
+            if (tm == null) throw new GeneralSecurityException("No X509TrustManager");
+
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[]{tm}, null);
+            SSLSessionContext sessions = context.getClientSessionContext();
+            sessions.setSessionCacheSize(SESSION_CACHE_SIZE);
+            sessions.setSessionTimeout(SESSION_TIMEOUT_S);
+
+            socketFactory = context.getSocketFactory();
+            trustManager = tm;
+        } catch (GeneralSecurityException e) {
+            socketFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+            trustManager = null;
+        }
+    }
+}
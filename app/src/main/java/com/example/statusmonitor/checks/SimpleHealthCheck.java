@@ -1,16 +1,26 @@
 package com.example.statusmonitor.checks;
 
+import com.example.statusmonitor.CheckWatchdog;
+import com.example.statusmonitor.FlightRecorder;
+import com.example.statusmonitor.HostMetrics;
 import com.example.statusmonitor.MonitorEntity;
 import com.example.statusmonitor.StatusCheckStrategy;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.net.InetAddress;
 import java.net.URL;
 
 /*
 HTTP health check for entities running a simple health server.
 
+If the server also reports a "metrics" object (CPU, load, memory, disk and network
+counters, see below) it is parsed into Result.metrics; MonitorService keeps a
+rolling history and marks the monitor DEGRADED over its thresholds.
+
+Asks for gzip/deflate; a server that compresses (e.g. FastAPI's GZipMiddleware)
+is inflated while reading (see HttpBody).
+
 Usage:
   new SimpleHealthCheck(9999, "82.117.106.223")
 
@@ -28,6 +38,7 @@ HEALTH SERVER CODE (/home/health_server.py)
 
 from fastapi import FastAPI, Request
 from fastapi.responses import JSONResponse
+import os
 import socket
 import psutil
 import uvicorn
@@ -61,9 +72,22 @@ def get_uptime():
     uptime_seconds = int(time.time() - boot_time)
     return str(timedelta(seconds=uptime_seconds))
 
+def get_metrics():
+    mem = psutil.virtual_memory()
+    disk = psutil.disk_usage("/")
+    net = psutil.net_io_counters()
+    return {
+        "cpu": psutil.cpu_percent(interval=None),
+        "load1": os.getloadavg()[0],
+        "mem": mem.percent,
+        "disk": disk.percent,
+        "net_rx": net.bytes_recv,
+        "net_tx": net.bytes_sent,
+    }
+
 @app.get("/health")
 def health():
-    return {"status": "ok", "name": socket.gethostname(), "uptime": get_uptime()}
+    return {"status": "ok", "name": socket.gethostname(), "uptime": get_uptime(), "metrics": get_metrics()}
 
 if __name__ == "__main__":
     uvicorn.run(app, host="0.0.0.0", port=9999, timeout_keep_alive=5, limit_concurrency=20)
@@ -96,6 +120,23 @@ systemctl status health-server
 public class SimpleHealthCheck implements StatusCheckStrategy {
 
     private static final int TIMEOUT_MS = 15000;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private static final int NAME = 0;
+    private static final int UPTIME = 1;
+    private static final int CPU = 2;
+    private static final int LOAD = 3;
+    private static final int MEM = 4;
+    private static final int DISK = 5;
+    private static final int NET_RX = 6;
+    private static final int NET_TX = 7;
+    private static final ThreadLocal<JsonScanner> JSON = new ThreadLocal<JsonScanner>() {
+        @Override
+        protected JsonScanner initialValue() {
+            return new JsonScanner("name", "uptime", "metrics.cpu", "metrics.load1", "metrics.mem",
+                    "metrics.disk", "metrics.net_rx", "metrics.net_tx");
+        }
+    };
 
     private final int port;
     private final String host;
@@ -108,22 +149,25 @@ public class SimpleHealthCheck implements StatusCheckStrategy {
     @Override
     public Result check(MonitorEntity entity) {
         for (int attempt = 0; attempt < 2; attempt++) {
+            if (attempt > 0) FlightRecorder.mark(FlightRecorder.Event.RETRIED, attempt);
+            if (attempt == 0) {
+                // The retry connects regardless: the cache would only hold the first attempt's failure
+                Result cached = HostReachability.check(host, port);
+                if (cached != null) return cached;
+            }
+
             HttpURLConnection conn = null;
             try {
-                String url = "http://" + host + ":" + port + "/health";
-                conn = (HttpURLConnection) new URL(url).openConnection();
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(TIMEOUT_MS);
-                conn.setReadTimeout(TIMEOUT_MS);
-
+                conn = connect();
                 int code = conn.getResponseCode();
+                FlightRecorder.mark(FlightRecorder.Event.FIRST_BYTE);
 
                 if (code >= 200 && code < 300) {
-                    String body = readBody(conn);
-                    String name = extractJson(body, "name");
-                    String uptime = extractJson(body, "uptime");
+                    JsonScanner json = readBody(conn);
+                    String name = json != null ? json.getString(NAME) : null;
+                    String uptime = json != null ? json.getString(UPTIME) : null;
                     String message = name != null ? name : "OK";
-                    return Result.online(message, uptime);
+                    return Result.online(message, uptime).withMetrics(json != null ? readMetrics(json) : null);
                 } else {
                     return Result.offline("HTTP " + code);
                 }
@@ -150,26 +194,66 @@ public class SimpleHealthCheck implements StatusCheckStrategy {
         return "HTTP:" + port;
     }
 
-    private String readBody(HttpURLConnection conn) {
-        try (BufferedReader r = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = r.readLine()) != null) sb.append(line);
-            return sb.toString().trim();
-        } catch (Exception e) {
-            return null;
+    // Connects to the address that wins the IPv6/IPv4 race, still naming the host. The lookup
+    // and race run inside HostReachability.connect too, so their failures end the probe as well
+    private HttpURLConnection connect() throws IOException {
+        HttpURLConnection[] conn = new HttpURLConnection[1];
+        try {
+            HostReachability.connect(host, port, () -> {
+                InetAddress address = HappyEyeballs.resolve(host, port, TIMEOUT_MS);
+                conn[0] = open(address);
+                try {
+                    conn[0].connect();
+                } catch (IOException e) {
+                    // Lets the retry race both families rather than repeat a broken one
+                    HappyEyeballs.forget(host, address);
+                    throw e;
+                }
+                HappyEyeballs.remember(host, address);
+            });
+        } catch (IOException | RuntimeException e) {
+            if (conn[0] != null) conn[0].disconnect();
+            throw e;
         }
+        return conn[0];
+    }
+
+    private HttpURLConnection open(InetAddress address) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL("http", literal(address.getHostAddress()), port,
+                "/health").openConnection();
+        CheckWatchdog.onCancel(conn::disconnect);
+        conn.setRequestMethod("GET");
+        conn.setRequestProperty("Host", literal(host) + ":" + port);
+        conn.setConnectTimeout(TIMEOUT_MS);
+        conn.setReadTimeout(TIMEOUT_MS);
+        conn.setRequestProperty("Accept-Encoding", HttpBody.ACCEPT_ENCODING);
+        return conn;
+    }
+
+    // IPv6 literals need brackets in URLs and Host headers
+    private static String literal(String host) {
+        return host.indexOf(':') >= 0 && !host.startsWith("[") ? "[" + host + "]" : host;
     }
 
-    private String extractJson(String json, String key) {
-        if (json == null) return null;
-        String search = "\"" + key + "\"";
-        int keyStart = json.indexOf(search);
-        if (keyStart < 0) return null;
-        int valueStart = json.indexOf("\"", keyStart + search.length() + 1);
-        if (valueStart < 0) return null;
-        int valueEnd = json.indexOf("\"", valueStart + 1);
-        if (valueEnd < 0) return null;
-        return json.substring(valueStart + 1, valueEnd);
+    private HostMetrics readMetrics(JsonScanner json) {
+        if (!json.has(CPU) && !json.has(MEM) && !json.has(DISK)) return null;
+        return new HostMetrics(
+                (float) json.getDouble(CPU, Double.NaN),
+                (float) json.getDouble(LOAD, Double.NaN),
+                (float) json.getDouble(MEM, Double.NaN),
+                (float) json.getDouble(DISK, Double.NaN),
+                json.getLong(NET_RX, -1),
+                json.getLong(NET_TX, -1));
+    }
+
+    private JsonScanner readBody(HttpURLConnection conn) {
+        JsonScanner json = JSON.get();
+        json.reset();
+        try {
+            HttpBody.scan(conn.getInputStream(), conn.getContentEncoding(), json, MAX_BODY_BYTES);
+            return json;
+        } catch (Exception e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,233 @@
+package com.example.statusmonitor.checks;
+
+import com.example.statusmonitor.CheckWatchdog;
+import com.example.statusmonitor.FlightRecorder;
+import com.example.statusmonitor.MonitorCost;
+import com.example.statusmonitor.MonitorEntity;
+import com.example.statusmonitor.StatusCheckStrategy;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.NoRouteToHostException;
+import java.net.PortUnreachableException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Locale;
+
+/*
+UDP heartbeat check - one datagram out, one back, carrying name and uptime.
+
+A lighter alternative to SimpleHealthCheck: no TCP handshake, no HTTP, no JSON.
+Every request carries a fresh random nonce and only a response echoing a nonce
+from this check is accepted, so stale or replayed datagrams are ignored. Lost
+datagrams are retried with a doubling timeout. Requests are padded to the
+maximum response size, so the responder can never be used for amplification.
+
+Usage:
+  new UdpHeartbeatCheck(9990, "82.117.106.223")
+
+============================================================
+WIRE FORMAT (big-endian)
+============================================================
+
+Request, exactly 96 bytes:
+  0   "SMHB"     magic
+  4   u8         version = 1
+  5   u8         type = 1 (request)
+  6   u16        reserved, 0
+  8   u64        nonce
+  16  80 bytes   zero padding
+
+Response, 25..89 bytes:
+  0   "SMHB"     magic
+  4   u8         version = 1
+  5   u8         type = 2 (response)
+  6   u16        flags, 0
+  8   u64        nonce, echoed
+  16  u64        uptime in seconds
+  24  u8         name length (max 64)
+  25  bytes      host name, UTF-8
+
+============================================================
+RESPONDER (/home/heartbeat.py)
+============================================================
+
+import socket
+import struct
+import time
+import psutil
+
+MAGIC = b"SMHB"
+sock = socket.socket(socket.AF_INET, socket.SOCK_DGRAM)
+sock.bind(("0.0.0.0", 9990))
+name = socket.gethostname().encode()[:64]
+
+while True:
+    data, addr = sock.recvfrom(128)
+    if len(data) != 96:
+        continue
+    magic, version, kind, _, nonce = struct.unpack_from("!4sBBHQ", data)
+    if magic != MAGIC or version != 1 or kind != 1:
+        continue
+    uptime = int(time.time() - psutil.boot_time())
+    sock.sendto(struct.pack("!4sBBHQQB", MAGIC, 1, 2, 0, nonce, uptime, len(name)) + name, addr)
+
+Run it as a systemd service like the health server (see SimpleHealthCheck),
+with ExecStart=/usr/bin/python3 /home/heartbeat.py.
+
+============================================================
+*/
+public class UdpHeartbeatCheck implements StatusCheckStrategy {
+
+    static final int REQUEST_SIZE = 96;
+    static final int RESPONSE_HEADER_SIZE = 25;
+    static final int MAX_NAME_BYTES = 64;
+    static final byte VERSION = 1;
+    static final byte TYPE_REQUEST = 1;
+    static final byte TYPE_RESPONSE = 2;
+    private static final byte[] MAGIC = {'S', 'M', 'H', 'B'};
+
+    private static final int ATTEMPTS = 3;
+    private static final int INITIAL_TIMEOUT_MS = 1000;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private final int port;
+    private final String host;
+
+    public UdpHeartbeatCheck(int port, String host) {
+        this.port = port;
+        this.host = host;
+    }
+
+    @Override
+    public Result check(MonitorEntity entity) {
+        Result cached = HostReachability.check(host, port);
+        if (cached != null) return cached;
+
+        byte[] buf = BufferPool.acquire();
+        long[] nonces = new long[ATTEMPTS];
+        long[] sentAt = new long[ATTEMPTS];
+        try (DatagramSocket socket = new DatagramSocket()) {
+            CheckWatchdog.onCancel(socket);
+            InetAddress address = InetAddress.getByName(host);
+            FlightRecorder.mark(FlightRecorder.Event.DNS_DONE);
+            socket.connect(address, port);
+            DatagramPacket packet = new DatagramPacket(buf, buf.length);
+
+            int timeoutMs = INITIAL_TIMEOUT_MS;
+            for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+                if (attempt > 0) FlightRecorder.mark(FlightRecorder.Event.RETRIED, attempt);
+                nonces[attempt] = random.nextLong();
+                encodeRequest(buf, nonces[attempt]);
+                packet.setData(buf, 0, REQUEST_SIZE);
+                sentAt[attempt] = System.nanoTime();
+                socket.send(packet);
+                MonitorCost.countTx(REQUEST_SIZE);
+
+                long deadline = sentAt[attempt] + timeoutMs * 1_000_000L;
+                while (true) {
+                    long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+                    if (remainingMs <= 0) break;
+                    socket.setSoTimeout((int) remainingMs);
+                    packet.setData(buf, 0, buf.length);
+                    try {
+                        socket.receive(packet);
+                    } catch (SocketTimeoutException e) {
+                        break;
+                    }
+                    MonitorCost.countRx(packet.getLength());
+                    FlightRecorder.mark(FlightRecorder.Event.FIRST_BYTE);
+                    // A late answer to an earlier attempt is still fresh; anything else is dropped
+                    int answered = matchResponse(buf, packet.getLength(), nonces, attempt + 1);
+                    if (answered >= 0) {
+                        HostReachability.report(host, port, null);
+                        long latency = (System.nanoTime() - sentAt[answered]) / 1_000_000;
+                        return decodeResult(buf).withLatency(latency);
+                    }
+                }
+                timeoutMs *= 2;
+            }
+            return Result.offline("Timeout");
+
+        } catch (java.net.UnknownHostException e) {
+            return Result.noConnection("No DNS");
+        } catch (NoRouteToHostException e) {
+            HostReachability.report(host, port, e);
+            return Result.noConnection("No route");
+        } catch (PortUnreachableException e) {
+            // ICMP port unreachable: the host is up, the responder isn't
+            HostReachability.report(host, port, null);
+            return Result.offline("Port unreachable");
+        } catch (Exception e) {
+            return Result.offline(e.getClass().getSimpleName());
+        } finally {
+            HostReachability.release(host, port);
+            BufferPool.release(buf);
+        }
+    }
+
+    @Override
+    public String getDescription() {
+        return "UDP:" + port;
+    }
+
+    static void encodeRequest(byte[] buf, long nonce) {
+        System.arraycopy(MAGIC, 0, buf, 0, MAGIC.length);
+        buf[4] = VERSION;
+        buf[5] = TYPE_REQUEST;
+        buf[6] = 0;
+        buf[7] = 0;
+        writeLong(buf, 8, nonce);
+        for (int i = 16; i < REQUEST_SIZE; i++) buf[i] = 0;
+    }
+
+    /** Index of the attempt whose nonce the response echoes, or -1 if it isn't a valid response to us. */
+    private static int matchResponse(byte[] buf, int length, long[] nonces, int sent) {
+        if (length < RESPONSE_HEADER_SIZE) return -1;
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buf[i] != MAGIC[i]) return -1;
+        }
+        if (buf[4] != VERSION || buf[5] != TYPE_RESPONSE) return -1;
+        int nameLength = buf[24] & 0xFF;
+        if (nameLength > MAX_NAME_BYTES || RESPONSE_HEADER_SIZE + nameLength > length) return -1;
+
+        long nonce = readLong(buf, 8);
+        for (int i = 0; i < sent; i++) {
+            if (nonces[i] == nonce) return i;
+        }
+        return -1;
+    }
+
+    private static Result decodeResult(byte[] buf) {
+        long uptimeSeconds = readLong(buf, 16);
+        int nameLength = buf[24] & 0xFF;
+        String name = new String(buf, RESPONSE_HEADER_SIZE, nameLength, StandardCharsets.UTF_8);
+        return Result.online(name.isEmpty() ? "OK" : name, formatUptime(uptimeSeconds));
+    }
+
+    /** Same shape as Python's str(timedelta), which the HTTP health server reports. */
+    static String formatUptime(long seconds) {
+        long days = seconds / 86400;
+        long rest = seconds % 86400;
+        String clock = String.format(Locale.ROOT, "%d:%02d:%02d", rest / 3600, (rest / 60) % 60, rest % 60);
+        if (days == 0) return clock;
+        return days + (days == 1 ? " day, " : " days, ") + clock;
+    }
+
+    private static void writeLong(byte[] buf, int pos, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buf[pos++] = (byte) (value >>> shift);
+        }
+    }
+
+    private static long readLong(byte[] buf, int pos) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buf[pos + i] & 0xFF);
+        }
+        return value;
+    }
+}
@@ -1,62 +1,66 @@
 package com.example.statusmonitor.checks;
 
+import com.example.statusmonitor.CheckWatchdog;
+import com.example.statusmonitor.FlightRecorder;
 import com.example.statusmonitor.MonitorEntity;
 import com.example.statusmonitor.StatusCheckStrategy;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
 import javax.net.ssl.HttpsURLConnection;
 
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
 /*
 Website check - HTTP GET and verify content contains expected text.
 
+HTTPS checks share one SSLContext (see SharedTls) so repeat checks resume their
+TLS session, and a fully read response leaves its connection in the platform
+keep-alive pool for the next round.
+
+Multiplexed checks go through the shared HTTP/2 client instead (see HttpClients):
+concurrent checks against one origin, or against hosts that can share its
+certificate and address, ride one connection.
+
+Both transports ask for gzip/deflate and inflate the body while matching it (see
+HttpBody, ContentMatcher); reading stops once the expected text and the title have
+been seen.
+
 Usage:
   new WebsiteCheck("https://example.com", "expected text")
+  new WebsiteCheck("https://example.com", "expected text", true)   // HTTP/2 multiplexed
 */
 public class WebsiteCheck implements StatusCheckStrategy {
 
     private static final int TIMEOUT_MS = 15000;
+    private static final int MAX_BODY_BYTES = 50000;
+    private static final String USER_AGENT = "StatusMonitor/1.0";
 
     private final String url;
-    private final String expectedContent;
+    private final ContentMatcher.Needle expectedContent;
+    private final boolean multiplexed;
 
     public WebsiteCheck(String url, String expectedContent) {
+        this(url, expectedContent, false);
+    }
+
+    public WebsiteCheck(String url, String expectedContent, boolean multiplexed) {
         this.url = url;
-        this.expectedContent = expectedContent.toLowerCase();
+        this.expectedContent = new ContentMatcher.Needle(expectedContent);
+        this.multiplexed = multiplexed;
     }
 
     @Override
     public Result check(MonitorEntity entity) {
         for (int attempt = 0; attempt < 2; attempt++) {
-            HttpURLConnection conn = null;
+            if (attempt > 0) FlightRecorder.mark(FlightRecorder.Event.RETRIED, attempt);
             try {
-                URL urlObj = new URL(url);
-                conn = (HttpURLConnection) urlObj.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setConnectTimeout(TIMEOUT_MS);
-                conn.setReadTimeout(TIMEOUT_MS);
-                conn.setRequestProperty("User-Agent", "StatusMonitor/1.0");
-                conn.setInstanceFollowRedirects(true);
-
-                int code = conn.getResponseCode();
-
-                if (code >= 200 && code < 300) {
-                    String body = readBody(conn);
-                    if (body != null && body.toLowerCase().contains(expectedContent)) {
-                        String title = extractTitle(body);
-                        return Result.online(title != null ? title : "OK");
-                    } else {
-                        return Result.offline("Content not found");
-                    }
-                } else if (code >= 300 && code < 400) {
-                    return Result.offline("Redirect " + code);
-                } else {
-                    return Result.offline("HTTP " + code);
-                }
-
+                return multiplexed ? checkMultiplexed(attempt > 0) : checkUrlConnection(attempt > 0);
             } catch (java.net.UnknownHostException e) {
                 return Result.noConnection("No DNS");
             } catch (java.net.SocketTimeoutException e) {
@@ -69,8 +73,6 @@ public class WebsiteCheck implements StatusCheckStrategy {
                 return Result.offline("SSL error");
             } catch (Exception e) {
                 return Result.offline(e.getClass().getSimpleName());
-            } finally {
-                if (conn != null) conn.disconnect();
             }
         }
         return Result.offline("Timeout");
@@ -78,35 +80,101 @@ public class WebsiteCheck implements StatusCheckStrategy {
 
     @Override
     public String getDescription() {
-        return "HTTPS";
+        return multiplexed ? "HTTP/2" : "HTTPS";
     }
 
-    private String readBody(HttpURLConnection conn) {
-        try (BufferedReader r = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            int chars = 0;
-            while ((line = r.readLine()) != null && chars < 50000) {
-                sb.append(line);
-                chars += line.length();
+    // A retry connects regardless: the cache would only hold the first attempt's failure
+    private Result checkUrlConnection(boolean retry) throws Exception {
+        URL urlObj = new URL(url);
+        int port = urlObj.getPort() != -1 ? urlObj.getPort() : urlObj.getDefaultPort();
+        if (!retry) {
+            Result cached = HostReachability.check(urlObj.getHost(), port);
+            if (cached != null) return cached;
+        }
+
+        HttpURLConnection conn = null;
+        boolean reusable = false;
+        try {
+            conn = (HttpURLConnection) urlObj.openConnection();
+            CheckWatchdog.onCancel(conn::disconnect);
+            conn.setRequestMethod("GET");
+            conn.setConnectTimeout(TIMEOUT_MS);
+            conn.setReadTimeout(TIMEOUT_MS);
+            conn.setRequestProperty("User-Agent", USER_AGENT);
+            conn.setRequestProperty("Accept-Encoding", HttpBody.ACCEPT_ENCODING);
+            conn.setInstanceFollowRedirects(true);
+            if (conn instanceof HttpsURLConnection) {
+                ((HttpsURLConnection) conn).setSSLSocketFactory(SharedTls.socketFactory());
             }
-            return sb.toString();
-        } catch (Exception e) {
-            return null;
+            HostReachability.connect(urlObj.getHost(), port, conn::connect);
+
+            int code = conn.getResponseCode();
+            FlightRecorder.mark(FlightRecorder.Event.FIRST_BYTE);
+            ContentMatcher body = null;
+            if (code >= 200 && code < 300) {
+                body = new ContentMatcher(expectedContent);
+                reusable = readBody(conn.getInputStream(), conn.getContentEncoding(), body);
+            }
+            return evaluate(code, body);
+        } finally {
+            // A fully read body returns the connection to the keep-alive pool; anything else closes it
+            if (conn != null && !reusable) conn.disconnect();
         }
     }
 
-    private String extractTitle(String html) {
-        if (html == null) return null;
-        String lower = html.toLowerCase();
-        int start = lower.indexOf("<title>");
-        if (start < 0) return null;
-        start += 7;
-        int end = lower.indexOf("</title>", start);
-        if (end < 0 || end <= start) return null;
-        String title = html.substring(start, end).trim();
-        // Clean up and limit length
-        title = title.replaceAll("\\s+", " ");
-        return title.length() > 30 ? title.substring(0, 27) + "..." : title;
+    private Result checkMultiplexed(boolean retry) throws Exception {
+        Request request = new Request.Builder()
+                .url(url)
+                .header("User-Agent", USER_AGENT)
+                // Set explicitly so OkHttp leaves decoding to us and we can stop early
+                .header("Accept-Encoding", HttpBody.ACCEPT_ENCODING)
+                .get()
+                .build();
+        String host = request.url().host();
+        int port = request.url().port();
+        if (!retry) {
+            Result cached = HostReachability.check(host, port);
+            if (cached != null) return cached;
+        }
+
+        Call call = HttpClients.multiplexed().newCall(request);
+        CheckWatchdog.onCancel(call::cancel);
+        try (Response response = call.execute()) {
+            int code = response.code();
+            ContentMatcher body = null;
+            ResponseBody responseBody = response.body();
+            if (code >= 200 && code < 300 && responseBody != null) {
+                body = new ContentMatcher(expectedContent);
+                readBody(responseBody.byteStream(), response.header("Content-Encoding"), body);
+            }
+            return evaluate(code, body);
+        } finally {
+            // A pooled connection needs no connect, so end any probe this check was holding
+            HostReachability.release(host, port);
+        }
+    }
+
+    private Result evaluate(int code, ContentMatcher body) {
+        if (code >= 200 && code < 300) {
+            if (body != null && body.isFound()) {
+                String title = body.getTitle();
+                return Result.online(title != null ? title : "OK");
+            } else {
+                return Result.offline("Content not found");
+            }
+        } else if (code >= 300 && code < 400) {
+            return Result.offline("Redirect " + code);
+        } else {
+            return Result.offline("HTTP " + code);
+        }
+    }
+
+    /** Returns true if the body was read to EOF; a failed read leaves the matcher short of a match. */
+    private boolean readBody(InputStream in, String contentEncoding, ContentMatcher body) {
+        try {
+            return HttpBody.scan(in, contentEncoding, body, MAX_BODY_BYTES);
+        } catch (Exception e) {
+            return false;
+        }
     }
 }
@@ -0,0 +1,107 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import static com.example.statusmonitor.MonitorEntity.Status.DEGRADED;
+import static com.example.statusmonitor.MonitorEntity.Status.NO_CONNECTION;
+import static com.example.statusmonitor.MonitorEntity.Status.OFFLINE;
+import static com.example.statusmonitor.MonitorEntity.Status.ONLINE;
+import static org.junit.Assert.*;
+
+public class AlertEngineTest {
+
+    private final MonitorEntity entity = TestMonitors.entity("pve0");
+
+    @Test
+    public void alertsOnceAfterConfirmation() {
+        AlertEngine engine = new AlertEngine();
+        assertNull(engine.onResult(entity, OFFLINE, 1000));
+        assertNull(engine.onResult(entity, OFFLINE, 2000));
+
+        AlertEngine.Alert alert = engine.onResult(entity, OFFLINE, 3000);
+        assertNotNull(alert);
+        assertEquals(AlertEngine.Kind.DOWN, alert.kind);
+        assertEquals(1000, alert.incidentStart);
+
+        long t = 3000;
+        for (int i = 0; i < 20; i++) {
+            assertNull(engine.onResult(entity, OFFLINE, t += 1000));
+        }
+        // Still the same incident
+        engine.onResult(entity, ONLINE, t += 1000);
+        engine.onResult(entity, ONLINE, t += 1000);
+        assertEquals(AlertEngine.Kind.RECOVERED, engine.onResult(entity, ONLINE, t += 1000).kind);
+    }
+
+    @Test
+    public void singleFailuresAndNoConnectionDoNotAlert() {
+        AlertEngine engine = new AlertEngine();
+        for (int i = 0; i < 50; i++) {
+            MonitorEntity.Status status = i % 4 == 0 ? OFFLINE : (i % 4 == 1 ? NO_CONNECTION : ONLINE);
+            assertNull(engine.onResult(entity, status, i * 1000L));
+        }
+    }
+
+    @Test
+    public void recoveryNeedsConfirmationAndIsRateLimited() {
+        AlertEngine engine = new AlertEngine();
+        long t = 0;
+        for (int i = 0; i < 3; i++) engine.onResult(entity, OFFLINE, t += 1000);
+
+        assertNull(engine.onResult(entity, ONLINE, t += 1000));
+        assertNull(engine.onResult(entity, ONLINE, t += 1000));
+        AlertEngine.Alert recovered = engine.onResult(entity, ONLINE, t += 1000);
+        assertNotNull(recovered);
+        assertEquals(AlertEngine.Kind.RECOVERED, recovered.kind);
+
+        // Flap straight back down: a new incident alerts, but its recovery only clears it
+        for (int i = 0; i < 2; i++) engine.onResult(entity, OFFLINE, t += 1000);
+        AlertEngine.Alert down = engine.onResult(entity, OFFLINE, t += 1000);
+        assertNotNull(down);
+        assertEquals(AlertEngine.Kind.DOWN, down.kind);
+        for (int i = 0; i < 2; i++) assertNull(engine.onResult(entity, ONLINE, t += 1000));
+        AlertEngine.Alert cleared = engine.onResult(entity, ONLINE, t += 1000);
+        assertNotNull(cleared);
+        assertEquals(AlertEngine.Kind.CLEARED, cleared.kind);
+        assertEquals(down.incidentStart, cleared.incidentStart);
+
+        // The incident is closed: the next outage alerts again
+        for (int i = 0; i < 2; i++) assertNull(engine.onResult(entity, OFFLINE, t += 1000));
+        assertEquals(AlertEngine.Kind.DOWN, engine.onResult(entity, OFFLINE, t += 1000).kind);
+    }
+
+    @Test
+    public void longIncidentRepeatsAtInterval() {
+        AlertEngine engine = new AlertEngine();
+        long t = 0;
+        int repeats = 0;
+        for (int i = 0; i < 3; i++) engine.onResult(entity, OFFLINE, t += 20_000);
+        long end = t + 3 * AlertEngine.REPEAT_INTERVAL_MS;
+        while (t < end) {
+            AlertEngine.Alert alert = engine.onResult(entity, OFFLINE, t += 20_000);
+            if (alert != null) {
+                assertEquals(AlertEngine.Kind.STILL_DOWN, alert.kind);
+                repeats++;
+            }
+        }
+        assertEquals(3, repeats);
+    }
+
+    @Test
+    public void degradedWarnsOnceWithoutOpeningAnIncident() {
+        AlertEngine engine = new AlertEngine();
+        long t = 0;
+        assertNull(engine.onResult(entity, DEGRADED, t += 1000));
+        assertNull(engine.onResult(entity, DEGRADED, t += 1000));
+        AlertEngine.Alert alert = engine.onResult(entity, DEGRADED, t += 1000);
+        assertNotNull(alert);
+        assertEquals(AlertEngine.Kind.DEGRADED, alert.kind);
+
+        for (int i = 0; i < 10; i++) assertNull(engine.onResult(entity, DEGRADED, t += 1000));
+
+        // Re-arms only after a fully healthy window
+        for (int i = 0; i < AlertEngine.WINDOW; i++) assertNull(engine.onResult(entity, ONLINE, t += 1000));
+        for (int i = 0; i < 2; i++) engine.onResult(entity, DEGRADED, t += 1000);
+        assertNotNull(engine.onResult(entity, DEGRADED, t += 1000));
+    }
+}
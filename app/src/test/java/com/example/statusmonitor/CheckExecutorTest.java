@@ -0,0 +1,74 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class CheckExecutorTest {
+
+    @Test
+    public void queuesBeyondMaxThreadsAndRejectsBeyondQueue() throws Exception {
+        CheckExecutor executor = new CheckExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        try {
+            executor.execute(() -> {
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            executor.execute(() -> {});
+            assertEquals(1, executor.getActiveCount());
+            assertEquals(1, executor.getQueue().size());
+
+            try {
+                executor.execute(() -> {});
+                fail("Expected rejection");
+            } catch (RejectedExecutionException expected) {
+                // Pool and queue are full
+            }
+            assertEquals(1, executor.getRejectedCount());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, executor.getCompletedTaskCount());
+    }
+
+    @Test
+    public void tracksLongestWaitToStart() throws Exception {
+        CheckExecutor executor = new CheckExecutor(1, 4);
+        CountDownLatch done = new CountDownLatch(2);
+        try {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+            executor.execute(done::countDown);
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertTrue(executor.getMaxWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(40));
+        } finally {
+            executor.shutdown();
+        }
+        // Rejections after shutdown aren't saturation
+        try {
+            executor.execute(() -> {});
+        } catch (RejectedExecutionException expected) {
+            // Shut down
+        }
+        assertEquals(0, executor.getRejectedCount());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class CheckWatchdogTest {
+
+    // Blocks like a read that never returns; true once interrupted
+    private static boolean stuckCheck() {
+        try {
+            new CountDownLatch(1).await();
+            return false;
+        } catch (InterruptedException e) {
+            return true;
+        }
+    }
+
+    @Test
+    public void stuckCheckIsCancelledAndAnsweredFor() throws Exception {
+        CheckWatchdog watchdog = new CheckWatchdog(200, 50);
+        CountDownLatch answered = new CountDownLatch(1);
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean lateResultDelivered = new AtomicBoolean(true);
+        AtomicBoolean interruptLeaked = new AtomicBoolean(true);
+
+        List<MonitorEntity> web = Collections.singletonList(TestMonitors.entity("web"));
+        Thread thread = new Thread(() -> {
+            CheckWatchdog.Check check = watchdog.begin(web, answered::countDown);
+            CheckWatchdog.onCancel(() -> closed.set(true));
+            interrupted.set(stuckCheck());
+            lateResultDelivered.set(watchdog.end(check));
+            interruptLeaked.set(Thread.currentThread().isInterrupted());
+        }, "stuck-check");
+        thread.start();
+
+        assertTrue(answered.await(5, TimeUnit.SECONDS));
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+        assertTrue(closed.get());
+        assertTrue(interrupted.get());
+        assertFalse(lateResultDelivered.get());
+        assertFalse(interruptLeaked.get());
+
+        assertEquals(1, watchdog.getStuckCount());
+        assertEquals(0, watchdog.getInFlight());
+        List<String> traces = watchdog.getStuckTraces();
+        assertEquals(1, traces.size());
+        assertTrue(traces.get(0), traces.get(0).startsWith("Stuck web for "));
+        assertTrue(traces.get(0), traces.get(0).contains(" on stuck-check"));
+        assertTrue(traces.get(0), traces.get(0).contains("CheckWatchdogTest.stuckCheck("));
+        watchdog.shutdown();
+    }
+
+    @Test
+    public void checkThatEndsInTimeIsLeftAlone() throws Exception {
+        CheckWatchdog watchdog = new CheckWatchdog(200, 50);
+        AtomicBoolean answered = new AtomicBoolean();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        List<MonitorEntity> web = Collections.singletonList(TestMonitors.entity("web"));
+        CheckWatchdog.Check check = watchdog.begin(web, () -> answered.set(true));
+        CheckWatchdog.onCancel(() -> closed.set(true));
+        assertEquals(1, watchdog.getInFlight());
+        assertTrue(watchdog.end(check));
+
+        Thread.sleep(400);
+        assertFalse(answered.get());
+        assertFalse(closed.get());
+        assertEquals(0, watchdog.getStuckCount());
+        assertEquals(0, watchdog.getInFlight());
+        watchdog.shutdown();
+    }
+}
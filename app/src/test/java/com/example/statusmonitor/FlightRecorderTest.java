@@ -0,0 +1,72 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class FlightRecorderTest {
+
+    private static String trace() throws Exception {
+        StringWriter out = new StringWriter();
+        FlightRecorder.writeChromeTrace(out);
+        return out.toString();
+    }
+
+    @Test
+    public void checkBecomesSliceWithInstantsForItsPhases() throws Exception {
+        FlightRecorder.clear();
+        MonitorEntity web = TestMonitors.entity("web");
+        FlightRecorder.record(web, FlightRecorder.Event.SCHEDULED, 0);
+        FlightRecorder.begin(web);
+        FlightRecorder.mark(FlightRecorder.Event.DNS_DONE);
+        FlightRecorder.mark(FlightRecorder.Event.RETRIED, 1);
+        FlightRecorder.end(MonitorEntity.Status.OFFLINE);
+
+        String json = trace();
+        assertTrue(json.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+        assertTrue(json.contains("\"name\":\"web\",\"cat\":\"check\",\"ph\":\"X\""));
+        assertTrue(json.contains("\"status\":\"OFFLINE\""));
+        assertTrue(json.contains("\"name\":\"scheduled\""));
+        assertTrue(json.contains("\"name\":\"dns done\""));
+        assertTrue(json.contains("\"monitor\":\"web\",\"attempt\":1"));
+        // The finish is folded into the slice
+        assertFalse(json.contains("\"name\":\"finished\""));
+        assertTrue(json.contains("\"name\":\"thread_name\""));
+    }
+
+    @Test
+    public void markWithoutBoundMonitorHasNoMonitor() throws Exception {
+        FlightRecorder.clear();
+        FlightRecorder.mark(FlightRecorder.Event.RETRIED, 2);
+        assertTrue(trace().contains("\"args\":{\"attempt\":2}"));
+    }
+
+    @Test
+    public void ringKeepsOnlyTheNewestEvents() throws Exception {
+        FlightRecorder.clear();
+        MonitorEntity old = TestMonitors.entity("old \"quoted\"");
+        MonitorEntity fresh = TestMonitors.entity("fresh");
+        FlightRecorder.record(old, FlightRecorder.Event.CANCELLED, 0);
+        for (int i = 0; i < FlightRecorder.CAPACITY; i++) {
+            FlightRecorder.record(fresh, FlightRecorder.Event.SCHEDULED, 0);
+        }
+
+        assertEquals(FlightRecorder.CAPACITY + 1, FlightRecorder.count());
+        String json = trace();
+        assertFalse(json.contains("cancelled"));
+        assertFalse(json.contains("old \\\"quoted\\\""));
+        assertTrue(json.contains("\"monitor\":\"fresh\""));
+    }
+
+    @Test
+    public void unfinishedCheckStaysAnInstant() throws Exception {
+        FlightRecorder.clear();
+        FlightRecorder.begin(TestMonitors.entity("slow"));
+        String json = trace();
+        assertTrue(json.contains("\"name\":\"started\""));
+        assertFalse(json.contains("\"ph\":\"X\""));
+        FlightRecorder.end(MonitorEntity.Status.ONLINE);
+    }
+}
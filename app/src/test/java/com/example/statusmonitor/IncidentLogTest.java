@@ -0,0 +1,105 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import static com.example.statusmonitor.MonitorEntity.Status.NO_CONNECTION;
+import static com.example.statusmonitor.MonitorEntity.Status.OFFLINE;
+import static com.example.statusmonitor.MonitorEntity.Status.ONLINE;
+import static org.junit.Assert.*;
+
+public class IncidentLogTest {
+
+    private static final long HOUR = 60 * 60_000;
+
+    @Test
+    public void recordsTransitionsAndQueriesByMonitorAndTime() throws Exception {
+        File dir = Files.createTempDirectory("incidents").toFile();
+        IncidentLog log = new IncidentLog(dir);
+        long t = 1_000 * HOUR;
+        for (int day = 0; day < 30; day++) {
+            long base = t + day * 24 * HOUR;
+            log.record("pve1", ONLINE, base, "pve1");
+            log.record("pve1", ONLINE, base + HOUR, "pve1");         // No transition
+            log.record("pve1", OFFLINE, base + 2 * HOUR, "Timeout");
+            log.record("pve1", NO_CONNECTION, base + 2 * HOUR + 1, "No network");  // Ignored
+            log.record("pve2", OFFLINE, base + 3 * HOUR, "Connection refused");
+            log.record("pve2", ONLINE, base + 4 * HOUR, "pve2");
+        }
+
+        long from = t + 28 * 24 * HOUR;
+        List<IncidentLog.Incident> offline = log.query("pve1", OFFLINE, from, Long.MAX_VALUE);
+        assertEquals(2, offline.size());
+        assertEquals(from + 2 * HOUR, offline.get(0).start);
+        assertEquals(22 * HOUR, offline.get(0).getDuration(0));
+        assertEquals("Timeout", offline.get(0).cause);
+        assertTrue(offline.get(1).isOngoing());
+
+        // A period already in progress at 'from' is included
+        List<IncidentLog.Incident> around = log.query("pve1", null, from + 3 * HOUR, from + 3 * HOUR);
+        assertEquals(1, around.size());
+        assertEquals(OFFLINE, around.get(0).status);
+
+        List<IncidentLog.Incident> all = log.query(null, OFFLINE, from, Long.MAX_VALUE);
+        assertEquals(4, all.size());
+        log.close();
+
+        // Reopened: the open period continues instead of starting a duplicate
+        IncidentLog reopened = new IncidentLog(dir);
+        reopened.record("pve1", OFFLINE, t + 40 * 24 * HOUR, "Timeout");
+        reopened.record("pve1", ONLINE, t + 41 * 24 * HOUR, "pve1");
+        List<IncidentLog.Incident> last = reopened.query("pve1", OFFLINE, t + 35 * 24 * HOUR, Long.MAX_VALUE);
+        assertEquals(1, last.size());
+        assertEquals(t + 41 * 24 * HOUR, last.get(0).end);
+        reopened.close();
+    }
+
+    @Test
+    public void manyMonitorsShareFewOpenIndexes() throws Exception {
+        File dir = Files.createTempDirectory("incidents").toFile();
+        IncidentLog log = new IncidentLog(dir);
+        int monitors = IncidentLog.MAX_OPEN_INDEXES * 3;
+        long t = 1_000 * HOUR;
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < monitors; i++) {
+                log.record("m" + i, round % 2 == 0 ? OFFLINE : ONLINE, t + (round * monitors + i) * 1000L, "r" + round);
+            }
+        }
+
+        for (int i = 0; i < monitors; i++) {
+            List<IncidentLog.Incident> periods = log.query("m" + i, null, 0, Long.MAX_VALUE);
+            assertEquals(3, periods.size());
+            assertEquals(OFFLINE, periods.get(2).status);
+            assertTrue(periods.get(2).isOngoing());
+        }
+        assertEquals(monitors * 2, log.query(null, OFFLINE, 0, Long.MAX_VALUE).size());
+        log.close();
+    }
+
+    @Test
+    public void endClosesTheOpenPeriod() throws Exception {
+        File dir = Files.createTempDirectory("incidents").toFile();
+        IncidentLog log = new IncidentLog(dir);
+        long t = 1_000 * HOUR;
+        log.record("gone", OFFLINE, t, "Timeout");
+        log.end("gone", t + HOUR);
+        log.end("never-seen", t + HOUR);
+
+        List<IncidentLog.Incident> periods = log.query("gone", null, 0, Long.MAX_VALUE);
+        assertEquals(1, periods.size());
+        assertEquals(t + HOUR, periods.get(0).end);
+        log.close();
+
+        // Back in the config later: the same status starts a new period
+        IncidentLog reopened = new IncidentLog(dir);
+        reopened.record("gone", OFFLINE, t + 2 * HOUR, "Timeout");
+        periods = reopened.query("gone", null, 0, Long.MAX_VALUE);
+        assertEquals(2, periods.size());
+        assertEquals(t + 2 * HOUR, periods.get(1).start);
+        assertTrue(periods.get(1).isOngoing());
+        reopened.close();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencySloTest {
+
+    private final LatencySlo slo = new LatencySlo(500, 0.90, 5 * 60_000);
+
+    @Test
+    public void violatedWhenMoreThanTheAllowedShareIsSlow() {
+        LatencySlo.Tracker tracker = slo.newTracker();
+        long t = 0;
+        for (int i = 0; i < 9; i++) tracker.add(t += 20_000, 40);
+        tracker.add(t += 20_000, 900);
+        // 1 of 10 slow is exactly p90
+        assertFalse(tracker.isViolated(t));
+
+        tracker.add(t += 20_000, 900);
+        assertTrue(tracker.isViolated(t));
+        assertEquals("p90 > 500 ms (2/11 slow)", tracker.describeViolation());
+    }
+
+    @Test
+    public void slowSamplesSlideOutOfTheWindow() {
+        LatencySlo.Tracker tracker = slo.newTracker();
+        long t = 0;
+        for (int i = 0; i < 5; i++) tracker.add(t += 20_000, 2000);
+        assertTrue(tracker.isViolated(t));
+
+        for (int i = 0; i < 15; i++) tracker.add(t += 20_000, 40);
+        assertFalse(tracker.isViolated(t));
+        assertEquals(0, tracker.getSlow());
+        assertTrue(tracker.getTotal() <= 16);
+    }
+
+    @Test
+    public void needsMinimumSamples() {
+        LatencySlo.Tracker tracker = slo.newTracker();
+        for (int i = 0; i < LatencySlo.MIN_SAMPLES - 1; i++) tracker.add(i * 1000L, 5000);
+        assertFalse(tracker.isViolated(5000));
+        assertEquals("p90 < 500 ms", slo.toString());
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricsHistoryTest {
+
+    private static HostMetrics sample(float cpu, long rx) {
+        return new HostMetrics(cpu, 0.5f, 40, 60, rx, 0);
+    }
+
+    @Test
+    public void degradedOnlyWhenSustained() {
+        MetricsHistory history = new MetricsHistory();
+        MetricThresholds thresholds = new MetricThresholds(90, 90, 90, 3);
+
+        history.record(0, sample(99, 0));
+        history.record(20_000, sample(10, 0));
+        history.record(40_000, sample(99, 0));
+        assertNull(thresholds.evaluate(history));
+
+        history.record(60_000, sample(97, 0));
+        history.record(80_000, sample(95, 0));
+        assertEquals("CPU 95%", thresholds.evaluate(history));
+    }
+
+    @Test
+    public void countersBecomeRates() {
+        MetricsHistory history = new MetricsHistory();
+        history.record(0, sample(1, 1_000));
+        history.record(20_000, sample(1, 21_000));
+        history.record(40_000, sample(1, 500));  // Counter reset after a reboot
+
+        assertTrue(Float.isNaN(history.get(MetricsHistory.Field.NET_RX, 0)));
+        assertEquals(1000f, history.get(MetricsHistory.Field.NET_RX, 1), 0.01f);
+        assertTrue(Float.isNaN(history.latest(MetricsHistory.Field.NET_RX)));
+    }
+
+    @Test
+    public void ringKeepsNewestSamples() {
+        MetricsHistory history = new MetricsHistory();
+        for (int i = 0; i < MetricsHistory.CAPACITY + 10; i++) {
+            history.record(i * 1000L, sample(i, 0));
+        }
+        assertEquals(MetricsHistory.CAPACITY, history.size());
+        assertEquals(10_000, history.getTime(0));
+        assertEquals(MetricsHistory.CAPACITY + 9, history.latest(MetricsHistory.Field.CPU), 0f);
+    }
+}
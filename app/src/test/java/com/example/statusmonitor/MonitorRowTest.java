@@ -0,0 +1,41 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MonitorRowTest {
+
+    @Test
+    public void capturesStateAtCreation() {
+        MonitorEntity web = TestMonitors.entity("web", "Web");
+        web.setStatus(MonitorEntity.Status.ONLINE);
+        web.setMessage("200 OK");
+        web.setUptime("3 days");
+        web.setLastCheckTime(1000);
+
+        MonitorRow row = MonitorRow.of(web, 1000);
+        web.setStatus(MonitorEntity.Status.OFFLINE);
+        web.setMessage("Connection refused");
+
+        assertEquals("web", row.id);
+        assertEquals("", row.address);
+        assertEquals("TEST", row.checkType);
+        assertEquals(MonitorEntity.Status.ONLINE, row.status);
+        assertEquals("200 OK \nuptime: 3 days", row.message);
+        assertEquals(1000, row.lastCheckTime);
+        assertFalse(row.stale);
+    }
+
+    @Test
+    public void noAvailabilityWithoutData() {
+        assertEquals("", MonitorRow.of(TestMonitors.entity("web", "Web"), 1000).availability);
+    }
+
+    @Test
+    public void percentRoundsDown() {
+        assertEquals("100%", MonitorRow.formatPercent(100f));
+        assertEquals("99.99%", MonitorRow.formatPercent(99.996f));
+        assertEquals("50.00%", MonitorRow.formatPercent(50f));
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.statusmonitor;
+
+import android.content.SharedPreferences;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class MonitorSettingsTest {
+
+    // In-memory SharedPreferences that counts commits
+    private static class FakePreferences implements SharedPreferences {
+        final Map<String, Object> values = new HashMap<>();
+        int commits;
+
+        @Override
+        public synchronized Map<String, ?> getAll() { return new HashMap<>(values); }
+
+        @Override
+        public synchronized String getString(String key, String defValue) {
+            return values.containsKey(key) ? (String) values.get(key) : defValue;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized Set<String> getStringSet(String key, Set<String> defValues) {
+            return values.containsKey(key) ? (Set<String>) values.get(key) : defValues;
+        }
+
+        @Override
+        public synchronized int getInt(String key, int defValue) {
+            return values.containsKey(key) ? (Integer) values.get(key) : defValue;
+        }
+
+        @Override
+        public synchronized long getLong(String key, long defValue) {
+            return values.containsKey(key) ? (Long) values.get(key) : defValue;
+        }
+
+        @Override
+        public synchronized float getFloat(String key, float defValue) {
+            return values.containsKey(key) ? (Float) values.get(key) : defValue;
+        }
+
+        @Override
+        public synchronized boolean getBoolean(String key, boolean defValue) {
+            return values.containsKey(key) ? (Boolean) values.get(key) : defValue;
+        }
+
+        @Override
+        public synchronized boolean contains(String key) { return values.containsKey(key); }
+
+        synchronized int getCommits() { return commits; }
+
+        @Override
+        public Editor edit() {
+            Map<String, Object> changes = new HashMap<>();
+            return new Editor() {
+                @Override
+                public Editor putString(String key, String value) { changes.put(key, value); return this; }
+
+                @Override
+                public Editor putStringSet(String key, Set<String> values) { changes.put(key, values); return this; }
+
+                @Override
+                public Editor putInt(String key, int value) { changes.put(key, value); return this; }
+
+                @Override
+                public Editor putLong(String key, long value) { changes.put(key, value); return this; }
+
+                @Override
+                public Editor putFloat(String key, float value) { changes.put(key, value); return this; }
+
+                @Override
+                public Editor putBoolean(String key, boolean value) { changes.put(key, value); return this; }
+
+                @Override
+                public Editor remove(String key) { changes.put(key, null); return this; }
+
+                @Override
+                public Editor clear() { throw new UnsupportedOperationException(); }
+
+                @Override
+                public boolean commit() {
+                    synchronized (FakePreferences.this) {
+                        for (Map.Entry<String, Object> change : changes.entrySet()) {
+                            if (change.getValue() == null) values.remove(change.getKey());
+                            else values.put(change.getKey(), change.getValue());
+                        }
+                        commits++;
+                    }
+                    return true;
+                }
+
+                @Override
+                public void apply() { commit(); }
+            };
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {}
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {}
+    }
+
+    private static MonitorEntity entity(String id, boolean notificationsEnabled) {
+        return TestMonitors.builder(id, id).notificationsEnabled(notificationsEnabled).build();
+    }
+
+    @Test
+    public void togglesWithinTheDelayShareOneWrite() throws Exception {
+        FakePreferences prefs = new FakePreferences();
+        MonitorSettings settings = new MonitorSettings(prefs, 100);
+        settings.load();
+
+        settings.setNotificationsEnabled("a", false);
+        settings.setNotificationsEnabled("b", false);
+        settings.setNotificationsEnabled("a", true);
+        assertEquals(0, prefs.getCommits());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (prefs.getCommits() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(10);
+        Thread.sleep(300);
+        assertEquals(1, prefs.getCommits());
+        assertTrue(prefs.getBoolean("notify_a", false));
+        assertFalse(prefs.getBoolean("notify_b", true));
+        settings.close();
+        assertEquals(1, prefs.getCommits());
+    }
+
+    @Test
+    public void closeWritesPendingChanges() {
+        FakePreferences prefs = new FakePreferences();
+        MonitorSettings settings = new MonitorSettings(prefs, 60_000);
+        settings.load();
+
+        settings.setNotificationsEnabled("web", false);
+        settings.close();
+        assertEquals(1, prefs.getCommits());
+        assertFalse(prefs.getBoolean("notify_web", true));
+
+        // Too late to save: ignored rather than thrown
+        settings.setNotificationsEnabled("web", true);
+        settings.close();
+        assertEquals(1, prefs.getCommits());
+        assertFalse(prefs.getBoolean("notify_web", true));
+    }
+
+    @Test
+    public void savedValueOverridesConfig() {
+        FakePreferences prefs = new FakePreferences();
+        prefs.values.put("notify_quiet", false);
+        prefs.values.put("notify_loud", true);
+        prefs.values.put("notify_odd", "yes");
+        prefs.values.put("quiet", true);
+        MonitorSettings settings = new MonitorSettings(prefs, 60_000);
+        settings.load();
+
+        MonitorEntity quiet = entity("quiet", true);
+        MonitorEntity loud = entity("loud", false);
+        MonitorEntity odd = entity("odd", false);
+        MonitorEntity unsaved = entity("unsaved", false);
+        settings.applyTo(quiet);
+        settings.applyTo(loud);
+        settings.applyTo(odd);
+        settings.applyTo(unsaved);
+
+        assertFalse(quiet.isNotificationsEnabled());
+        assertTrue(loud.isNotificationsEnabled());
+        assertFalse(odd.isNotificationsEnabled());
+        assertFalse(unsaved.isNotificationsEnabled());
+
+        // A toggle applies to entities created later, e.g. by a config reload
+        settings.setNotificationsEnabled("unsaved", true);
+        MonitorEntity reloaded = entity("unsaved", false);
+        settings.applyTo(reloaded);
+        assertTrue(reloaded.isNotificationsEnabled());
+        settings.close();
+    }
+}
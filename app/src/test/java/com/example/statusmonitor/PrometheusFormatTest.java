@@ -0,0 +1,58 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class PrometheusFormatTest {
+
+    @Test
+    public void histogramBucketsAreCumulative() {
+        MonitorEntity web = TestMonitors.entity("web", "Web");
+        web.setStatus(MonitorEntity.Status.ONLINE);
+        CheckStats stats = web.getCheckStats();
+        stats.record(MonitorEntity.Status.ONLINE, 4);
+        stats.record(MonitorEntity.Status.ONLINE, 5);
+        stats.record(MonitorEntity.Status.ONLINE, 300);
+        stats.record(MonitorEntity.Status.OFFLINE, -1);
+        stats.record(MonitorEntity.Status.ONLINE, 60_000);
+
+        String text = PrometheusFormat.render(Collections.singletonList(web), null);
+        String labels = "monitor=\"web\",name=\"Web\"";
+        assertTrue(text.contains("# TYPE statusmonitor_check_latency_seconds histogram\n"));
+        assertTrue(text.contains("statusmonitor_check_latency_seconds_bucket{" + labels + ",le=\"0.005\"} 2\n"));
+        assertTrue(text.contains("statusmonitor_check_latency_seconds_bucket{" + labels + ",le=\"0.25\"} 2\n"));
+        assertTrue(text.contains("statusmonitor_check_latency_seconds_bucket{" + labels + ",le=\"0.5\"} 3\n"));
+        assertTrue(text.contains("statusmonitor_check_latency_seconds_bucket{" + labels + ",le=\"10\"} 3\n"));
+        assertTrue(text.contains("statusmonitor_check_latency_seconds_bucket{" + labels + ",le=\"+Inf\"} 4\n"));
+        assertTrue(text.contains("statusmonitor_check_latency_seconds_sum{" + labels + "} 60.309\n"));
+        assertTrue(text.contains("statusmonitor_check_latency_seconds_count{" + labels + "} 4\n"));
+        assertTrue(text.contains("statusmonitor_checks_total{" + labels + ",status=\"ONLINE\"} 4\n"));
+        assertTrue(text.contains("statusmonitor_checks_total{" + labels + ",status=\"OFFLINE\"} 1\n"));
+        assertTrue(text.contains("statusmonitor_up{" + labels + "} 1\n"));
+        assertTrue(text.contains("statusmonitor_status{" + labels + ",status=\"ONLINE\"} 1\n"));
+        assertTrue(text.contains("statusmonitor_status{" + labels + ",status=\"OFFLINE\"} 0\n"));
+        // Never checked
+        assertFalse(text.contains("statusmonitor_last_check_timestamp_seconds{"));
+    }
+
+    @Test
+    public void escapesLabelValues() {
+        MonitorEntity odd = TestMonitors.entity("a\\b", "say \"hi\"\nthere");
+        String text = PrometheusFormat.render(Collections.singletonList(odd), null);
+        assertTrue(text.contains("statusmonitor_up{monitor=\"a\\\\b\",name=\"say \\\"hi\\\"\\nthere\"} 0\n"));
+    }
+
+    @Test
+    public void includesPoolMetrics() {
+        PoolStats pool = new PoolStats(3, 7, 100, 2, 1500, 4, 250, 1, Collections.<String>emptyList());
+        String text = PrometheusFormat.render(Collections.<MonitorEntity>emptyList(), pool);
+        assertTrue(text.contains("statusmonitor_pool_active_threads 3\n"));
+        assertTrue(text.contains("statusmonitor_pool_queued_checks 7\n"));
+        assertTrue(text.contains("# TYPE statusmonitor_pool_rejected_checks_total counter\nstatusmonitor_pool_rejected_checks_total 2\n"));
+        assertTrue(text.contains("statusmonitor_pool_max_wait_seconds 1.5\n"));
+        assertTrue(text.contains("statusmonitor_pool_stuck_checks_total 1\n"));
+    }
+}
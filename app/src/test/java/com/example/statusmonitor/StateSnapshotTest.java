@@ -0,0 +1,80 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StateSnapshotTest {
+
+    @Test
+    public void restoresLastKnownStateAsStale() throws Exception {
+        File file = new File(Files.createTempDirectory("state").toFile(), "state");
+
+        MonitorEntity pve0 = TestMonitors.entity("pve0");
+        pve0.setStatus(MonitorEntity.Status.DEGRADED);
+        pve0.setMessage("pve0\nCPU 95%");
+        pve0.setUptime("3 days, 2:00:00");
+        pve0.setLastCheckTime(1_000);
+        MonitorEntity pve1 = TestMonitors.entity("pve1");
+        pve1.setStatus(MonitorEntity.Status.OFFLINE);
+        pve1.setMessage("Timeout");
+        pve1.setLastCheckTime(2_000);
+
+        StateSnapshot snapshot = new StateSnapshot(file);
+        snapshot.update(pve0);
+        snapshot.update(pve1);
+        snapshot.close();  // Flushes the pending write
+
+        List<MonitorEntity> fresh = Arrays.asList(TestMonitors.entity("pve0"), TestMonitors.entity("pve1"), TestMonitors.entity("new"));
+        assertEquals(2, new StateSnapshot(file).restore(fresh));
+
+        MonitorEntity restored = fresh.get(0);
+        assertTrue(restored.isStale());
+        assertEquals(MonitorEntity.Status.DEGRADED, restored.getStatus());
+        assertEquals("pve0\nCPU 95%", restored.getMessage());
+        assertEquals("3 days, 2:00:00", restored.getUptime());
+        assertEquals(1_000, restored.getLastCheckTime());
+
+        assertEquals(MonitorEntity.Status.OFFLINE, fresh.get(1).getStatus());
+        assertNull(fresh.get(1).getUptime());
+
+        assertFalse(fresh.get(2).isStale());
+        assertEquals("Checking...", fresh.get(2).getMessage());
+    }
+
+    @Test
+    public void updateAfterCloseIsIgnored() throws Exception {
+        File file = new File(Files.createTempDirectory("state").toFile(), "state");
+        MonitorEntity pve0 = TestMonitors.entity("pve0");
+        pve0.setLastCheckTime(1_000);
+
+        StateSnapshot snapshot = new StateSnapshot(file);
+        snapshot.update(pve0);
+        snapshot.close();
+        pve0.setLastCheckTime(2_000);
+        snapshot.update(pve0);  // A result that reached the reducer after shutdown
+        snapshot.close();
+
+        List<MonitorEntity> fresh = Arrays.asList(TestMonitors.entity("pve0"));
+        assertEquals(1, new StateSnapshot(file).restore(fresh));
+        assertEquals(1_000, fresh.get(0).getLastCheckTime());
+    }
+
+    @Test
+    public void ignoresCorruptFile() throws Exception {
+        File file = new File(Files.createTempDirectory("state").toFile(), "state");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[] {0x53, 0x4D, 0x53, 0x53, 0, 0, 0, 1, 0, 0, 0, 5, 0});
+        }
+
+        List<MonitorEntity> entities = Arrays.asList(TestMonitors.entity("pve0"));
+        assertEquals(0, new StateSnapshot(file).restore(entities));
+        assertFalse(entities.get(0).isStale());
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class StatusEventBusTest {
+
+    // Runs tasks only when told to, like a busy subscriber thread
+    private static class QueuedExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) tasks.remove(0).run();
+        }
+    }
+
+    private static class Recorder implements StatusEventBus.Subscriber {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onMonitorsChanged(List<MonitorRow> rows) {
+            StringBuilder sb = new StringBuilder("list");
+            for (MonitorRow row : rows) sb.append(' ').append(row.id).append('=').append(row.message);
+            events.add(sb.toString());
+        }
+
+        @Override
+        public void onStatusUpdated(MonitorRow row) {
+            events.add(row.id + "=" + row.message);
+        }
+    }
+
+    private static MonitorRow row(String id, String message) {
+        MonitorEntity entity = TestMonitors.entity(id);
+        entity.setMessage(message);
+        return MonitorRow.of(entity, 0);
+    }
+
+    @Test
+    public void newSubscriberStartsWithCurrentList() {
+        StatusEventBus bus = new StatusEventBus();
+        bus.publishAll(Arrays.asList(row("a", "1"), row("b", "1")));
+        bus.publish(row("b", "2"));
+
+        QueuedExecutor executor = new QueuedExecutor();
+        Recorder recorder = new Recorder();
+        bus.subscribe(executor, 16, recorder);
+        executor.runAll();
+        assertEquals(Arrays.asList("list a=1 b=2"), recorder.events);
+    }
+
+    @Test
+    public void conflatesLatestPerMonitorInOneWakeup() {
+        StatusEventBus bus = new StatusEventBus();
+        bus.publishAll(Arrays.asList(row("a", "0"), row("b", "0")));
+        QueuedExecutor executor = new QueuedExecutor();
+        Recorder recorder = new Recorder();
+        bus.subscribe(executor, 16, recorder);
+        executor.runAll();
+        recorder.events.clear();
+
+        bus.publish(row("a", "1"));
+        bus.publish(row("b", "1"));
+        bus.publish(row("a", "2"));
+        bus.publish(row("unknown", "1"));
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals(Arrays.asList("a=2", "b=1"), recorder.events);
+    }
+
+    @Test
+    public void slowSubscriberDoesNotHoldUpOthers() {
+        StatusEventBus bus = new StatusEventBus();
+        bus.publishAll(Arrays.asList(row("a", "0")));
+        QueuedExecutor stuck = new QueuedExecutor();
+        QueuedExecutor fast = new QueuedExecutor();
+        Recorder slow = new Recorder();
+        Recorder quick = new Recorder();
+        bus.subscribe(stuck, 16, slow);
+        bus.subscribe(fast, 16, quick);
+
+        for (int i = 1; i <= 100; i++) {
+            bus.publish(row("a", Integer.toString(i)));
+            fast.runAll();
+        }
+        assertEquals(101, quick.events.size());
+        assertEquals("a=100", quick.events.get(100));
+
+        // Still one wakeup, carrying only the newest state
+        assertEquals(1, stuck.tasks.size());
+        stuck.runAll();
+        assertEquals(Arrays.asList("list a=0", "a=100"), slow.events);
+    }
+
+    @Test
+    public void listChangeReplacesQueuedRows() {
+        StatusEventBus bus = new StatusEventBus();
+        bus.publishAll(Arrays.asList(row("a", "0")));
+        QueuedExecutor executor = new QueuedExecutor();
+        Recorder recorder = new Recorder();
+        bus.subscribe(executor, 16, recorder);
+        executor.runAll();
+        recorder.events.clear();
+
+        bus.publish(row("a", "1"));
+        bus.publishAll(Arrays.asList(row("b", "0")));
+        bus.publish(row("b", "1"));
+        executor.runAll();
+        assertEquals(Arrays.asList("list b=0", "b=1"), recorder.events);
+    }
+
+    @Test
+    public void overflowCollapsesIntoFullList() {
+        StatusEventBus bus = new StatusEventBus();
+        bus.publishAll(Arrays.asList(row("a", "0"), row("b", "0"), row("c", "0")));
+        QueuedExecutor executor = new QueuedExecutor();
+        Recorder recorder = new Recorder();
+        StatusEventBus.Subscription subscription = bus.subscribe(executor, 2, recorder);
+        executor.runAll();
+        recorder.events.clear();
+
+        bus.publish(row("a", "1"));
+        bus.publish(row("b", "1"));
+        bus.publish(row("c", "1"));
+        executor.runAll();
+        assertEquals(Arrays.asList("list a=1 b=1 c=1"), recorder.events);
+        assertEquals(1, subscription.getCollapsedCount());
+    }
+
+    @Test
+    public void unsubscribedGetsNothingMore() {
+        StatusEventBus bus = new StatusEventBus();
+        bus.publishAll(Arrays.asList(row("a", "0")));
+        QueuedExecutor executor = new QueuedExecutor();
+        Recorder recorder = new Recorder();
+        StatusEventBus.Subscription subscription = bus.subscribe(executor, 16, recorder);
+        bus.unsubscribe(subscription);
+        bus.publish(row("a", "1"));
+        executor.runAll();
+        assertTrue(recorder.events.isEmpty());
+    }
+}
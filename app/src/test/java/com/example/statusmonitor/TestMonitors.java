@@ -0,0 +1,30 @@
+package com.example.statusmonitor;
+
+/*
+Monitors for tests: a "TEST" check that always reports online, for code that
+needs a MonitorEntity but never runs its check.
+*/
+final class TestMonitors {
+
+    static final StatusCheckStrategy ONLINE = new StatusCheckStrategy() {
+        @Override
+        public Result check(MonitorEntity entity) { return Result.online("OK"); }
+
+        @Override
+        public String getDescription() { return "TEST"; }
+    };
+
+    private TestMonitors() {}
+
+    static MonitorEntity.Builder builder(String id, String name) {
+        return new MonitorEntity.Builder(id, name).checkStrategy(ONLINE);
+    }
+
+    static MonitorEntity entity(String id, String name) {
+        return builder(id, name).build();
+    }
+
+    static MonitorEntity entity(String id) {
+        return entity(id, id);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest {
+
+    @Test
+    public void oneShotFiresExactlyAtDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        List<Long> fired = new ArrayList<>();
+        wheel.schedule("a", 5, 0);
+
+        wheel.advanceTo(4, t -> fired.add(wheel.currentTick()));
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(10, t -> fired.add(wheel.currentTick()));
+        assertEquals(1, fired.size());
+        assertEquals(5L, (long) fired.get(0));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void periodicTimerKeepsFixedRate() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        List<Long> fired = new ArrayList<>();
+        wheel.schedule("a", 200, 200);
+
+        wheel.advanceTo(1000, t -> fired.add(wheel.currentTick()));
+        assertEquals(5, fired.size());
+        for (int i = 0; i < fired.size(); i++) {
+            assertEquals(200L * (i + 1), (long) fired.get(i));
+        }
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void cancelAndRescheduleAreHonoured() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        List<String> fired = new ArrayList<>();
+        TimingWheel.Timer<String> a = wheel.schedule("a", 10, 0);
+        TimingWheel.Timer<String> b = wheel.schedule("b", 10, 0);
+        wheel.cancel(a);
+        wheel.reschedule(b, 5000);
+
+        wheel.advanceTo(4999, t -> fired.add(t.getPayload()));
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(5000, t -> fired.add(t.getPayload()));
+        assertEquals(1, fired.size());
+        assertEquals("b", fired.get(0));
+    }
+
+    @Test
+    public void handlerMayCancelPeriodicTimer() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        int[] count = {0};
+        wheel.schedule("a", 3, 3);
+
+        wheel.advanceTo(100, t -> {
+            count[0]++;
+            wheel.cancel(t);
+        });
+        assertEquals(1, count[0]);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void nextEventTickNeverSkipsAnExpiry() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(0);
+        Random random = new Random(42);
+        Map<Integer, Long> expected = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            long delay = 1 + (i % 10 == 0 ? random.nextInt(20_000_000) : random.nextInt(100_000));
+            wheel.schedule(i, delay, 0);
+            expected.put(i, delay);
+        }
+
+        // Jump straight from event to event, as MonitorScheduler does while sleeping
+        Map<Integer, Long> actual = new HashMap<>();
+        long next;
+        while ((next = wheel.nextEventTick()) != Long.MAX_VALUE) {
+            assertTrue(next > wheel.currentTick());
+            wheel.advanceTo(next, t -> actual.put(t.getPayload(), wheel.currentTick()));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void overflowDeadlinesFireOnTime() {
+        TimingWheel<String> wheel = new TimingWheel<>(123);
+        long delay = (1L << 24) * 3 + 17;
+        List<Long> fired = new ArrayList<>();
+        wheel.schedule("far", delay, 0);
+
+        long next;
+        while ((next = wheel.nextEventTick()) != Long.MAX_VALUE) {
+            wheel.advanceTo(next, t -> fired.add(wheel.currentTick()));
+        }
+        assertEquals(1, fired.size());
+        assertEquals(123 + delay, (long) fired.get(0));
+    }
+
+    @Test
+    public void alignmentGroupsDifferentPeriodsOnSharedTicks() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.setAlignment(600);
+        Map<String, List<Long>> fired = new HashMap<>();
+        wheel.schedule("fast", 200, 200);
+        wheel.schedule("slow", 450, 450);
+        wheel.schedule("odd", 7, 310);
+
+        wheel.advanceTo(3000, t -> fired.computeIfAbsent(t.getPayload(), k -> new ArrayList<>()).add(wheel.currentTick()));
+        for (List<Long> ticks : fired.values()) {
+            for (long tick : ticks) {
+                assertEquals(0, tick % 600);
+            }
+        }
+        assertEquals(5, fired.get("fast").size());
+        assertEquals(5, fired.get("odd").size());
+    }
+}
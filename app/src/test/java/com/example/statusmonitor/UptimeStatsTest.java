@@ -0,0 +1,57 @@
+package com.example.statusmonitor;
+
+import org.junit.Test;
+
+import static com.example.statusmonitor.MonitorEntity.Status.DEGRADED;
+import static com.example.statusmonitor.MonitorEntity.Status.NO_CONNECTION;
+import static com.example.statusmonitor.MonitorEntity.Status.OFFLINE;
+import static com.example.statusmonitor.MonitorEntity.Status.ONLINE;
+import static org.junit.Assert.*;
+
+public class UptimeStatsTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    @Test
+    public void countsUpChecksAndIgnoresNoConnection() {
+        UptimeStats stats = new UptimeStats();
+        long t = 1_000 * DAY;
+        stats.record(t, ONLINE);
+        stats.record(t + 1000, DEGRADED);
+        stats.record(t + 2000, OFFLINE);
+        stats.record(t + 3000, NO_CONNECTION);
+
+        assertEquals(3, stats.getChecks(UptimeStats.Window.DAY, t + 3000));
+        assertEquals(200f / 3, stats.getUptimePercent(UptimeStats.Window.HOUR, t + 3000), 0.01f);
+    }
+
+    @Test
+    public void windowsSlideIndependently() {
+        UptimeStats stats = new UptimeStats();
+        long t = 1_000 * DAY;
+        // One failing hour, then healthy checks every 20 minutes for two days
+        for (int i = 0; i < 3; i++) stats.record(t + i * 20 * MINUTE, OFFLINE);
+        stats.recordOutage(t);
+        for (long at = t + HOUR; at < t + 2 * DAY; at += 20 * MINUTE) stats.record(at, ONLINE);
+        long now = t + 2 * DAY;
+
+        assertEquals(100f, stats.getUptimePercent(UptimeStats.Window.DAY, now), 0f);
+        assertEquals(0, stats.getOutages(UptimeStats.Window.DAY, now));
+        assertEquals(1, stats.getOutages(UptimeStats.Window.WEEK, now));
+        assertEquals(141f / 144 * 100, stats.getUptimePercent(UptimeStats.Window.WEEK, now), 0.01f);
+        assertEquals(141f / 144 * 100, stats.getUptimePercent(UptimeStats.Window.MONTH, now), 0.01f);
+        assertTrue(Float.isNaN(stats.getUptimePercent(UptimeStats.Window.HOUR, now + HOUR)));
+    }
+
+    @Test
+    public void longGapExpiresEverything() {
+        UptimeStats stats = new UptimeStats();
+        long t = 1_000 * DAY;
+        stats.record(t, OFFLINE);
+        assertEquals(1, stats.getChecks(UptimeStats.Window.MONTH, t + 29 * DAY));
+        assertEquals(0, stats.getChecks(UptimeStats.Window.MONTH, t + 31 * DAY));
+        assertEquals(0, stats.getChecks(UptimeStats.Window.WEEK, t + 31 * DAY));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.statusmonitor.checks;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ContentMatcherTest {
+
+    private static final String PAGE =
+            "<html><HEAD><Title>\n  My   Status Page </title></head><body>All systems Operational</body></html>";
+
+    @Test
+    public void matchesAcrossChunkBoundaries() {
+        ContentMatcher matcher = new ContentMatcher(new ContentMatcher.Needle("systems operational"));
+        byte[] page = PAGE.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < page.length; i++) {
+            matcher.feed(page, i, 1);
+        }
+        assertTrue(matcher.isFound());
+        assertTrue(matcher.isDone());
+        assertEquals("My Status Page", matcher.getTitle());
+    }
+
+    @Test
+    public void foldsOnlyAsciiWhateverTheLocale() {
+        Locale saved = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertTrue(feed("ALL SYSTEMS OPERATIONAL", PAGE).isFound());
+            // Non-ASCII is matched as is, never case-folded
+            assertTrue(feed("Status: \u00dcn\u00efcode", "<head></head>status: \u00dcn\u00efcode").isFound());
+        } finally {
+            Locale.setDefault(saved);
+        }
+    }
+
+    @Test
+    public void notFoundWithoutTheText() {
+        ContentMatcher matcher = feed("maintenance", PAGE);
+        assertFalse(matcher.isFound());
+        assertFalse(matcher.isDone());
+    }
+
+    @Test
+    public void overlappingPrefixStillMatches() {
+        assertTrue(feed("aab", "<head></head>aaab").isFound());
+    }
+
+    @Test
+    public void stopsInflatingOnceDone() throws IOException {
+        StringBuilder page = new StringBuilder(PAGE);
+        for (int i = 0; i < 20000; i++) page.append("<p>filler ").append(i).append("</p>");
+        byte[] plain = page.toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(plain);
+        }
+        CountingSink sink = new CountingSink(new ContentMatcher(new ContentMatcher.Needle("operational")));
+        HttpBody.scan(new ByteArrayInputStream(gzip.toByteArray()), "gzip", sink, Integer.MAX_VALUE);
+        assertTrue(sink.matcher.isFound());
+        assertTrue(sink.decoded < plain.length / 10);
+    }
+
+    @Test
+    public void inflatesZlibDeflate() throws IOException {
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated)) {
+            out.write(PAGE.getBytes(StandardCharsets.UTF_8));
+        }
+        ContentMatcher matcher = new ContentMatcher(new ContentMatcher.Needle("operational"));
+        assertTrue(HttpBody.scan(new ByteArrayInputStream(deflated.toByteArray()), "deflate", matcher, 50000));
+        assertTrue(matcher.isFound());
+        assertEquals("My Status Page", matcher.getTitle());
+    }
+
+    private static ContentMatcher feed(String expected, String body) {
+        ContentMatcher matcher = new ContentMatcher(new ContentMatcher.Needle(expected));
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        matcher.feed(bytes, 0, bytes.length);
+        return matcher;
+    }
+
+    private static class CountingSink implements HttpBody.Sink {
+        final ContentMatcher matcher;
+        int decoded;
+
+        CountingSink(ContentMatcher matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        public void feed(byte[] buf, int off, int len) {
+            decoded += len;
+            matcher.feed(buf, off, len);
+        }
+
+        @Override
+        public boolean isDone() {
+            return matcher.isDone();
+        }
+    }
+}
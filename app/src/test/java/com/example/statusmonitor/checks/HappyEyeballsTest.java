@@ -0,0 +1,63 @@
+package com.example.statusmonitor.checks;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HappyEyeballsTest {
+
+    private static InetAddress address(String literal) throws Exception {
+        return InetAddress.getByName(literal);
+    }
+
+    @Test
+    public void interleavesFamiliesIpv6First() throws Exception {
+        InetAddress[] resolved = {
+                address("192.0.2.1"), address("192.0.2.2"),
+                address("2001:db8::1"), address("2001:db8::2"), address("2001:db8::3")};
+        List<InetAddress> ordered = HappyEyeballs.order("fresh.example", resolved);
+        assertEquals(Arrays.asList(
+                address("2001:db8::1"), address("192.0.2.1"), address("2001:db8::2"), address("192.0.2.2"),
+                address("2001:db8::3")), ordered);
+    }
+
+    @Test
+    public void remembersTheFamilyThatWorked() throws Exception {
+        InetAddress[] resolved = {address("2001:db8::1"), address("192.0.2.1")};
+        HappyEyeballs.remember("v4.example", address("192.0.2.1"));
+        assertEquals(address("192.0.2.1"), HappyEyeballs.order("v4.example", resolved).get(0));
+    }
+
+    @Test
+    public void failureOnTheRememberedFamilyForgetsIt() throws Exception {
+        InetAddress[] resolved = {address("2001:db8::1"), address("192.0.2.1")};
+        HappyEyeballs.remember("broken.example", address("192.0.2.1"));
+
+        // A failure on the other family says nothing about the one that worked
+        HappyEyeballs.forget("broken.example", address("2001:db8::1"));
+        assertEquals(address("192.0.2.1"), HappyEyeballs.order("broken.example", resolved).get(0));
+
+        HappyEyeballs.forget("broken.example", address("192.0.2.1"));
+        assertEquals(address("2001:db8::1"), HappyEyeballs.order("broken.example", resolved).get(0));
+    }
+
+    @Test
+    public void fallsBackToTheAddressThatAnswers() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, address("127.0.0.1"))) {
+            // Nothing listens on [::1] for this port, or there is no IPv6 at all: either way it fails
+            List<InetAddress> candidates = Arrays.asList(address("::1"), address("127.0.0.1"));
+            try (Socket socket = HappyEyeballs.connect("race.example", candidates, server.getLocalPort(), 5000)) {
+                assertTrue(socket.isConnected());
+                assertEquals(address("127.0.0.1"), socket.getInetAddress());
+            }
+            assertEquals(address("127.0.0.1"),
+                    HappyEyeballs.order("race.example", candidates.toArray(new InetAddress[0])).get(0));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.statusmonitor.checks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/*
+Reference UDP heartbeat responder, the Java twin of the Python script documented in
+UdpHeartbeatCheck. Binds to an ephemeral loopback port for tests.
+
+dropFirst() ignores the next requests to simulate loss; replayFirst() answers the
+next request with a stale nonce first, as a replayed or delayed datagram would.
+*/
+class HeartbeatResponder implements Closeable {
+
+    private final DatagramSocket socket;
+    private final String name;
+    private final long uptimeSeconds;
+    private final Thread thread;
+    private volatile int dropRemaining;
+    private volatile boolean replayNext;
+
+    HeartbeatResponder(String name, long uptimeSeconds) throws SocketException {
+        this.socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        this.name = name;
+        this.uptimeSeconds = uptimeSeconds;
+        this.thread = new Thread(this::serve, "heartbeat-responder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    int getPort() {
+        return socket.getLocalPort();
+    }
+
+    void dropFirst(int count) {
+        dropRemaining = count;
+    }
+
+    void replayFirst() {
+        replayNext = true;
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+
+    private void serve() {
+        byte[] buf = new byte[128];
+        DatagramPacket packet = new DatagramPacket(buf, buf.length);
+        while (!socket.isClosed()) {
+            try {
+                packet.setData(buf);
+                socket.receive(packet);
+                if (packet.getLength() != UdpHeartbeatCheck.REQUEST_SIZE) continue;
+
+                ByteBuffer request = ByteBuffer.wrap(buf, 0, packet.getLength());
+                byte[] magic = new byte[4];
+                request.get(magic);
+                if (!"SMHB".equals(new String(magic, StandardCharsets.US_ASCII))) continue;
+                if (request.get() != 1 || request.get() != 1) continue;
+                request.getShort();
+                long nonce = request.getLong();
+
+                if (dropRemaining > 0) {
+                    dropRemaining--;
+                    continue;
+                }
+                if (replayNext) {
+                    replayNext = false;
+                    send(packet, nonce ^ 1);
+                }
+                send(packet, nonce);
+            } catch (Exception e) {
+                // Closed
+            }
+        }
+    }
+
+    private void send(DatagramPacket request, long nonce) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer response = ByteBuffer.allocate(UdpHeartbeatCheck.RESPONSE_HEADER_SIZE + nameBytes.length);
+        response.put("SMHB".getBytes(StandardCharsets.US_ASCII))
+                .put((byte) 1)
+                .put((byte) 2)
+                .putShort((short) 0)
+                .putLong(nonce)
+                .putLong(uptimeSeconds)
+                .put((byte) nameBytes.length)
+                .put(nameBytes);
+        socket.send(new DatagramPacket(response.array(), response.position(), request.getSocketAddress()));
+    }
+}
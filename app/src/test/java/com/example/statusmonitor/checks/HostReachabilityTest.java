@@ -0,0 +1,71 @@
+package com.example.statusmonitor.checks;
+
+import com.example.statusmonitor.MonitorEntity;
+import com.example.statusmonitor.StatusCheckStrategy;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.*;
+
+public class HostReachabilityTest {
+
+    @Test
+    public void noRouteIsSharedWithSiblings() {
+        HostReachability.clear();
+        try {
+            HostReachability.connect("10.0.0.1", 80, () -> { throw new NoRouteToHostException(); });
+            fail("expected exception");
+        } catch (IOException expected) {
+            // Reported to the caller as before
+        }
+
+        // Any port: there is no route to the host at all
+        StatusCheckStrategy.Result cached = HostReachability.check("10.0.0.1", 443);
+        assertNotNull(cached);
+        assertEquals(MonitorEntity.Status.NO_CONNECTION, cached.status);
+        assertNull(HostReachability.check("10.0.0.2", 80));
+    }
+
+    @Test
+    public void refusedConnectionMeansHostIsUp() {
+        HostReachability.clear();
+        try {
+            HostReachability.connect("10.0.0.3", 80, () -> { throw new ConnectException("ECONNREFUSED"); });
+        } catch (IOException expected) {
+            // Port closed, host reachable
+        }
+        assertNull(HostReachability.check("10.0.0.3", 80));
+    }
+
+    @Test
+    public void timeoutOnlyMarksThatPort() {
+        HostReachability.clear();
+        try {
+            HostReachability.connect("10.0.0.4", 9999, () -> { throw new SocketTimeoutException(); });
+            fail("expected exception");
+        } catch (IOException expected) {
+            // Reported to the caller as before
+        }
+
+        StatusCheckStrategy.Result cached = HostReachability.check("10.0.0.4", 9999);
+        assertNotNull(cached);
+        assertEquals(MonitorEntity.Status.OFFLINE, cached.status);
+        assertNull(HostReachability.check("10.0.0.4", 25565));
+    }
+
+    @Test
+    public void answerOnAnyPortClearsHostWideFailure() throws IOException {
+        HostReachability.clear();
+        HostReachability.report("10.0.0.5", 80, new ConnectException("connect failed: EHOSTUNREACH"));
+        assertNotNull(HostReachability.check("10.0.0.5", 443));
+
+        // A retry connects without consulting the cache, and its success is recorded
+        HostReachability.connect("10.0.0.5", 443, () -> { });
+        assertNull(HostReachability.check("10.0.0.5", 80));
+    }
+}
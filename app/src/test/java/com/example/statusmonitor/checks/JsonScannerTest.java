@@ -0,0 +1,87 @@
+package com.example.statusmonitor.checks;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class JsonScannerTest {
+
+    private static final String STATUS = "{\"version\":{\"name\":\"Paper 1.20.4\",\"protocol\":765},"
+            + "\"players\":{\"max\":20,\"online\":2,\"sample\":[{\"name\":\"Steve\",\"id\":\"0\"},{\"name\":\"Alex\"}]},"
+            + "\"description\":{\"text\":\"A \\\"quoted\\\" motd \\u00e9\\ud83d\\ude00\"},"
+            + "\"favicon\":\"data:image/png;base64,iVBORw0KGgo\\/AAAA\"}";
+
+    @Test
+    public void extractsNestedPathsAndIgnoresArrays() {
+        JsonScanner json = new JsonScanner("version.name", "players.online", "players.max", "name");
+        feed(json, STATUS, 7);
+        assertEquals("Paper 1.20.4", json.getString(0));
+        assertEquals(2, json.getLong(1, -1));
+        assertEquals(20, json.getLong(2, -1));
+        // Only a top-level "name" would match, not version.name or the player sample
+        assertFalse(json.has(3));
+        assertFalse(json.isMalformed());
+    }
+
+    @Test
+    public void unescapesStrings() {
+        JsonScanner json = new JsonScanner("description.text");
+        feed(json, STATUS, 1);
+        assertEquals("A \"quoted\" motd \u00e9\ud83d\ude00", json.getString(0));
+    }
+
+    @Test
+    public void doneOnceEveryPathIsFound() {
+        JsonScanner json = new JsonScanner("version.name");
+        byte[] bytes = STATUS.getBytes(StandardCharsets.UTF_8);
+        int end = STATUS.indexOf("\"protocol\"");
+        json.feed(bytes, 0, end);
+        assertTrue(json.isDone());
+        assertEquals("Paper 1.20.4", json.getString(0));
+    }
+
+    @Test
+    public void reusableAfterReset() {
+        JsonScanner json = new JsonScanner("name", "uptime");
+        feed(json, "{\"status\": \"ok\", \"name\": \"pve0\", \"uptime\": \"3 days, 4:05:06\"}", 64);
+        assertEquals("pve0", json.getString(0));
+
+        json.reset();
+        feed(json, "{\"name\": \"pve1\"}", 64);
+        assertEquals("pve1", json.getString(0));
+        assertNull(json.getString(1));
+    }
+
+    @Test
+    public void nullLiteralIsNoValue() {
+        JsonScanner json = new JsonScanner("name", "uptime", "cpu", "motd");
+        feed(json, "{\"name\": null, \"uptime\":null, \"cpu\": null, \"motd\": \"null\"}", 5);
+        assertTrue(json.isDone());
+        assertNull(json.getString(0));
+        assertNull(json.getString(1));
+        assertFalse(json.has(2));
+        assertEquals(-1, json.getLong(2, -1));
+        // The string "null" is text like any other
+        assertTrue(json.has(3));
+        assertEquals("null", json.getString(3));
+    }
+
+    @Test
+    public void flagsMalformedInput() {
+        JsonScanner json = new JsonScanner("a");
+        feed(json, "{\"a\" 1}", 64);
+        assertTrue(json.isMalformed());
+        assertTrue(json.isDone());
+        assertFalse(json.has(0));
+    }
+
+    private static void feed(JsonScanner json, String text, int chunk) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int off = 0; off < bytes.length; off += chunk) {
+            json.feed(bytes, off, Math.min(chunk, bytes.length - off));
+        }
+        json.finish();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.statusmonitor.checks;
+
+import com.example.statusmonitor.MonitorEntity;
+import com.example.statusmonitor.StatusCheckStrategy;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MinecraftCheckTest {
+
+    private static final String STATUS = "{\"version\":{\"name\":\"1.20.4\",\"protocol\":765},"
+            + "\"players\":{\"max\":20,\"online\":3},\"description\":{\"text\":\"A server\"},"
+            + "\"favicon\":\"data:image/png;base64,iVBORw0KGgoAAAANSUhEUgAAAEAAAABACAYAAACqaXHe\"}";
+
+    private static byte[] bytes(int... values) {
+        byte[] out = new byte[values.length];
+        for (int i = 0; i < values.length; i++) out[i] = (byte) values[i];
+        return out;
+    }
+
+    private static byte[] encode(int value) {
+        byte[] buf = new byte[5];
+        return Arrays.copyOf(buf, MinecraftCheck.writeVarInt(buf, 0, value));
+    }
+
+    private static int decode(byte[] data) throws IOException {
+        return new MinecraftCheck.PacketReader(new ByteArrayInputStream(data), new byte[16]).readVarInt();
+    }
+
+    // Hands out one byte per read(), like a packet split across many segments
+    private static InputStream trickle(byte[] data) {
+        return new ByteArrayInputStream(data) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    @Test
+    public void varIntEdgeCases() throws IOException {
+        int[] values = {0, 1, 127, 128, 255, 25565, 2097151, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        byte[][] expected = {
+                bytes(0x00), bytes(0x01), bytes(0x7F), bytes(0x80, 0x01), bytes(0xFF, 0x01),
+                bytes(0xDD, 0xC7, 0x01), bytes(0xFF, 0xFF, 0x7F), bytes(0xFF, 0xFF, 0xFF, 0xFF, 0x07),
+                bytes(0xFF, 0xFF, 0xFF, 0xFF, 0x0F), bytes(0x80, 0x80, 0x80, 0x80, 0x08)};
+        for (int i = 0; i < values.length; i++) {
+            assertArrayEquals(expected[i], encode(values[i]));
+            assertEquals(expected[i].length, MinecraftCheck.varIntSize(values[i]));
+            assertEquals(values[i], decode(expected[i]));
+        }
+    }
+
+    @Test
+    public void rejectsOverlongVarInt() {
+        try {
+            decode(bytes(0x80, 0x80, 0x80, 0x80, 0x80, 0x01));
+            fail("expected exception");
+        } catch (IOException expected) {
+            // VarInt too big
+        }
+    }
+
+    @Test
+    public void handshakeAndStatusRequestBytes() {
+        byte[] buf = new byte[64];
+        int length = new MinecraftCheck("mc", 25565).writeStatusRequest(buf);
+        assertArrayEquals(bytes(
+                0x09,                   // Handshake length
+                0x00,                   // Packet ID
+                0xFD, 0x05,             // Protocol 765
+                0x02, 'm', 'c',         // Server address
+                0x63, 0xDD,             // Port 25565
+                0x01,                   // Next state: status
+                0x01, 0x00),            // Status request
+                Arrays.copyOf(buf, length));
+    }
+
+    @Test
+    public void statusResponseSplitAcrossReads() throws IOException {
+        byte[] json = STATUS.getBytes(StandardCharsets.UTF_8);
+        byte[] jsonLength = encode(json.length);
+        byte[] packetLength = encode(1 + jsonLength.length + json.length);
+        byte[] packet = new byte[packetLength.length + 1 + jsonLength.length + json.length + 1];
+        int pos = 0;
+        System.arraycopy(packetLength, 0, packet, pos, packetLength.length);
+        pos += packetLength.length;
+        packet[pos++] = 0x00;
+        System.arraycopy(jsonLength, 0, packet, pos, jsonLength.length);
+        pos += jsonLength.length;
+        System.arraycopy(json, 0, packet, pos, json.length);
+        packet[packet.length - 1] = 0x42;  // First byte of whatever comes next
+
+        MinecraftCheck.PacketReader in = new MinecraftCheck.PacketReader(trickle(packet), new byte[8]);
+        JsonScanner scanner = new JsonScanner("version.name", "players.online", "players.max");
+        assertTrue(MinecraftCheck.readStatusResponse(in, scanner));
+        assertEquals("1.20.4", scanner.getString(0));
+        assertEquals(3, scanner.getLong(1, -1));
+        assertEquals(20, scanner.getLong(2, -1));
+        // The whole packet was consumed, favicon included
+        assertEquals(0x42, in.readByte());
+    }
+
+    @Test
+    public void rejectsOtherPackets() throws IOException {
+        MinecraftCheck.PacketReader in = new MinecraftCheck.PacketReader(
+                new ByteArrayInputStream(bytes(0x02, 0x01, 0x00)), new byte[8]);
+        assertFalse(MinecraftCheck.readStatusResponse(in, new JsonScanner("version.name")));
+    }
+
+    @Test
+    public void checksResponderWithPingRoundTrip() throws Exception {
+        try (MinecraftResponder responder = new MinecraftResponder(STATUS)) {
+            responder.splitInto(7);
+            HostReachability.clear();
+            StatusCheckStrategy.Result result = new MinecraftCheck("127.0.0.1", responder.getPort()).check(null);
+            assertEquals(MonitorEntity.Status.ONLINE, result.status);
+            assertTrue(result.message, result.message.startsWith("1.20.4\n3/20 players, "));
+            assertTrue(result.latencyMs >= 0);
+
+            byte[] host = "127.0.0.1".getBytes(StandardCharsets.US_ASCII);
+            byte[] handshake = responder.getHandshake();
+            assertEquals(0x00, handshake[1]);
+            assertEquals(host.length, handshake[4]);
+            assertArrayEquals(host, Arrays.copyOfRange(handshake, 5, 5 + host.length));
+        }
+    }
+
+    @Test
+    public void onlineWithoutPong() throws Exception {
+        try (MinecraftResponder responder = new MinecraftResponder(STATUS)) {
+            responder.ignorePing();
+            HostReachability.clear();
+            StatusCheckStrategy.Result result = new MinecraftCheck("127.0.0.1", responder.getPort()).check(null);
+            assertEquals(MonitorEntity.Status.ONLINE, result.status);
+            assertEquals("1.20.4\n3/20 players", result.message);
+            assertEquals(-1, result.latencyMs);
+        }
+    }
+}
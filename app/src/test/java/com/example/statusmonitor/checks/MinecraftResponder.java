@@ -0,0 +1,128 @@
+package com.example.statusmonitor.checks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/*
+Minimal Server List Ping responder on an ephemeral loopback port for tests, in the
+spirit of HeartbeatResponder. Answers one connection at a time: reads the handshake
+and status request, replies with the status JSON (optionally in small chunks, so
+the check sees it split across reads), then echoes a Ping as Pong unless
+ignorePing() was called.
+*/
+class MinecraftResponder implements Closeable {
+
+    private final ServerSocket server;
+    private final String json;
+    private final Thread thread;
+    private volatile int chunkSize = Integer.MAX_VALUE;
+    private volatile boolean answerPing = true;
+    private volatile byte[] handshake;
+
+    MinecraftResponder(String json) throws IOException {
+        this.server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        this.json = json;
+        this.thread = new Thread(this::serve, "minecraft-responder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    int getPort() {
+        return server.getLocalPort();
+    }
+
+    /** Sends the status response in writes of at most size bytes. */
+    void splitInto(int size) {
+        chunkSize = size;
+    }
+
+    void ignorePing() {
+        answerPing = false;
+    }
+
+    /** Raw bytes of the last handshake + status request packets. */
+    byte[] getHandshake() {
+        return handshake;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void serve() {
+        while (!server.isClosed()) {
+            try (Socket client = server.accept()) {
+                client.setTcpNoDelay(true);
+                DataInputStream in = new DataInputStream(client.getInputStream());
+                OutputStream out = client.getOutputStream();
+
+                ByteArrayOutputStream request = new ByteArrayOutputStream();
+                byte[] first = readPacket(in);
+                request.write(first);
+                request.write(readPacket(in));
+                handshake = request.toByteArray();
+
+                byte[] jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                writeVarInt(body, 0x00);
+                writeVarInt(body, jsonBytes.length);
+                body.write(jsonBytes);
+                ByteArrayOutputStream packet = new ByteArrayOutputStream();
+                writeVarInt(packet, body.size());
+                body.writeTo(packet);
+                byte[] response = packet.toByteArray();
+                for (int off = 0; off < response.length; off += chunkSize) {
+                    out.write(response, off, Math.min(chunkSize, response.length - off));
+                    out.flush();
+                    if (chunkSize < response.length) Thread.sleep(2);
+                }
+
+                byte[] ping = readPacket(in);
+                if (answerPing) out.write(ping);
+                out.flush();
+                // Let the client read before the socket closes
+                in.read();
+            } catch (Exception e) {
+                // Closed, or the client went away
+            }
+        }
+    }
+
+    // Returns the whole packet including its length prefix
+    private static byte[] readPacket(DataInputStream in) throws IOException {
+        ByteArrayOutputStream packet = new ByteArrayOutputStream();
+        int length = readVarInt(in, packet);
+        byte[] body = new byte[length];
+        in.readFully(body);
+        packet.write(body);
+        return packet.toByteArray();
+    }
+
+    private static int readVarInt(InputStream in, ByteArrayOutputStream copy) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            if (b < 0) throw new IOException("EOF");
+            copy.write(b);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.statusmonitor.checks;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MultiPingerTest {
+
+    private static final int ECHO_REPLY = 0;
+    private static final int ECHO_REPLY_V6 = 129;
+
+    private static class Reply {
+        final byte[] data;
+        final InetAddress source;
+        final boolean ipv6;
+
+        Reply(byte[] data, InetAddress source, boolean ipv6) {
+            this.data = data;
+            this.source = source;
+            this.ipv6 = ipv6;
+        }
+    }
+
+    // Replies come from the script, never from the network; await() never sleeps
+    private static class FakeTransport implements MultiPinger.Transport {
+        interface Script {
+            void onSend(FakeTransport transport, InetAddress target, int attempt, byte[] packet, boolean ipv6);
+        }
+
+        final Deque<Reply> queued = new ArrayDeque<>();
+        final List<String> sent = new ArrayList<>();
+        final Map<InetAddress, Long> refuse = new HashMap<>();
+        final Map<InetAddress, Integer> attempts = new HashMap<>();
+        final Script script;
+        boolean closed;
+
+        FakeTransport(Script script) {
+            this.script = script;
+        }
+
+        void reply(byte[] request, int type, InetAddress source, boolean ipv6) {
+            byte[] data = request.clone();
+            data[0] = (byte) type;
+            queued.add(new Reply(data, source, ipv6));
+        }
+
+        @Override
+        public long send(boolean ipv6, byte[] packet, int length, InetAddress target) {
+            sent.add(target.getHostAddress());
+            if (refuse.containsKey(target)) return refuse.get(target);
+            int attempt = attempts.merge(target, 1, Integer::sum) - 1;
+            script.onSend(this, target, attempt, Arrays.copyOf(packet, length), ipv6);
+            return 0;
+        }
+
+        @Override
+        public boolean await(int timeoutMs) {
+            return !queued.isEmpty();
+        }
+
+        @Override
+        public int receive(byte[] buf, InetAddress[] source, boolean[] ipv6) {
+            Reply reply = queued.poll();
+            if (reply == null) return -1;
+            System.arraycopy(reply.data, 0, buf, 0, reply.data.length);
+            source[0] = reply.source;
+            ipv6[0] = reply.ipv6;
+            return reply.data.length;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static InetAddress address(String literal) throws IOException {
+        return InetAddress.getByName(literal);
+    }
+
+    private static int count(List<String> sent, InetAddress target) {
+        int n = 0;
+        for (String s : sent) {
+            if (s.equals(target.getHostAddress())) n++;
+        }
+        return n;
+    }
+
+    @Test
+    public void matchesRepliesBySequenceAndSource() throws IOException {
+        InetAddress a = address("192.0.2.1");
+        InetAddress b = address("192.0.2.2");
+        InetAddress c = address("2001:db8::3");
+        FakeTransport transport = new FakeTransport((t, target, attempt, packet, ipv6) -> {
+            if (target.equals(a)) {
+                // a's sequence, but from someone else, the wrong type, or truncated
+                t.reply(packet, ECHO_REPLY, b, false);
+                t.reply(packet, 8, a, false);
+                t.queued.add(new Reply(Arrays.copyOf(packet, 4), a, false));
+                // From a, but a sequence outside this call's block
+                byte[] stray = packet.clone();
+                stray[6] ^= (byte) 0x80;
+                t.reply(stray, ECHO_REPLY, a, false);
+            } else if (target.equals(c)) {
+                // An ICMPv4 reply type on the v6 socket doesn't count; the v6 one does
+                t.reply(packet, ECHO_REPLY, c, true);
+                t.reply(packet, ECHO_REPLY_V6, c, true);
+            } else {
+                t.reply(packet, ECHO_REPLY, b, false);
+            }
+        });
+
+        long[] rtt = MultiPinger.ping(new InetAddress[] {a, b, c}, transport);
+
+        assertEquals(MultiPinger.NO_REPLY, rtt[0]);
+        assertTrue(rtt[1] >= 0);
+        assertTrue(rtt[2] >= 0);
+        assertEquals(MultiPinger.ATTEMPTS, count(transport.sent, a));
+        assertEquals(1, count(transport.sent, b));
+        assertEquals(1, count(transport.sent, c));
+        assertTrue(transport.closed);
+    }
+
+    @Test
+    public void retriesOnlySilentTargets() throws IOException {
+        InetAddress fast = address("192.0.2.1");
+        InetAddress slow = address("192.0.2.2");
+        InetAddress silent = address("192.0.2.3");
+        FakeTransport transport = new FakeTransport((t, target, attempt, packet, ipv6) -> {
+            if (target.equals(fast)) {
+                // A duplicate must not count as a second answer
+                t.reply(packet, ECHO_REPLY, fast, false);
+                t.reply(packet, ECHO_REPLY, fast, false);
+            } else if (target.equals(slow) && attempt == 2) {
+                t.reply(packet, ECHO_REPLY, slow, false);
+            }
+        });
+
+        long[] rtt = MultiPinger.ping(new InetAddress[] {fast, slow, silent}, transport);
+
+        assertTrue(rtt[0] >= 0);
+        assertTrue(rtt[1] >= 0);
+        assertEquals(MultiPinger.NO_REPLY, rtt[2]);
+        assertEquals(1, count(transport.sent, fast));
+        assertEquals(3, count(transport.sent, slow));
+        assertEquals(3, count(transport.sent, silent));
+    }
+
+    @Test
+    public void lateReplyToEarlierAttemptCounts() throws IOException {
+        InetAddress host = address("192.0.2.1");
+        byte[][] first = new byte[1][];
+        FakeTransport transport = new FakeTransport((t, target, attempt, packet, ipv6) -> {
+            if (attempt == 0) {
+                first[0] = packet;
+            } else {
+                t.reply(first[0], ECHO_REPLY, host, false);
+            }
+        });
+
+        long[] rtt = MultiPinger.ping(new InetAddress[] {host}, transport);
+
+        assertTrue(rtt[0] >= 0);
+        assertEquals(2, transport.sent.size());
+    }
+
+    @Test
+    public void refusedSendsAreAnsweredAndSkipped() throws IOException {
+        InetAddress noRoute = address("192.0.2.1");
+        InetAddress noNet = address("192.0.2.2");
+        FakeTransport transport = new FakeTransport((t, target, attempt, packet, ipv6) -> {});
+        transport.refuse.put(noRoute, MultiPinger.HOST_UNREACHABLE);
+        transport.refuse.put(noNet, MultiPinger.NET_UNREACHABLE);
+
+        long[] rtt = MultiPinger.ping(new InetAddress[] {noRoute, null, noNet}, transport);
+
+        assertEquals(MultiPinger.HOST_UNREACHABLE, rtt[0]);
+        assertEquals(MultiPinger.NO_REPLY, rtt[1]);
+        assertEquals(MultiPinger.NET_UNREACHABLE, rtt[2]);
+        assertEquals(Arrays.asList("192.0.2.1", "192.0.2.2"), transport.sent);
+        assertTrue(transport.closed);
+    }
+
+    @Test
+    public void checksumMatchesRfc1071() {
+        // Example from RFC 1071 section 3: sum 0xddf2, checksum 0x220d
+        byte[] data = {0x00, 0x01, (byte) 0xf2, 0x03, (byte) 0xf4, (byte) 0xf5, (byte) 0xf6, (byte) 0xf7};
+        assertEquals(0x220d, MultiPinger.checksum(data, data.length));
+    }
+
+    @Test
+    public void checksumPadsOddLength() {
+        byte[] data = {8, 0, 0, 0, 0, 0, 0x12, 0x34, (byte) 0xab};
+        assertEquals(0x3acb, MultiPinger.checksum(data, data.length));
+    }
+
+    @Test
+    public void packetWithChecksumSumsToZero() {
+        byte[] packet = {8, 0, 0, 0, 0, 0, 0x12, 0x34, 1, 2, 3, 4};
+        int sum = MultiPinger.checksum(packet, packet.length);
+        packet[2] = (byte) (sum >> 8);
+        packet[3] = (byte) sum;
+        assertEquals(0, MultiPinger.checksum(packet, packet.length));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.statusmonitor.checks;
+
+import com.example.statusmonitor.MonitorEntity;
+import com.example.statusmonitor.StatusCheckStrategy;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class UdpHeartbeatCheckTest {
+
+    @Test
+    public void reportsNameAndUptime() throws Exception {
+        try (HeartbeatResponder responder = new HeartbeatResponder("pve2", 3 * 86400 + 4 * 3600 + 5 * 60 + 6)) {
+            StatusCheckStrategy.Result result = check(responder);
+            assertEquals(MonitorEntity.Status.ONLINE, result.status);
+            assertEquals("pve2", result.message);
+            assertEquals("3 days, 4:05:06", result.uptime);
+            assertTrue(result.latencyMs >= 0);
+        }
+    }
+
+    @Test
+    public void retriesLostDatagram() throws Exception {
+        try (HeartbeatResponder responder = new HeartbeatResponder("pve0", 60)) {
+            responder.dropFirst(1);
+            StatusCheckStrategy.Result result = check(responder);
+            assertEquals(MonitorEntity.Status.ONLINE, result.status);
+            assertEquals("0:01:00", result.uptime);
+        }
+    }
+
+    @Test
+    public void ignoresStaleNonce() throws Exception {
+        try (HeartbeatResponder responder = new HeartbeatResponder("pve1", 1)) {
+            responder.replayFirst();
+            StatusCheckStrategy.Result result = check(responder);
+            assertEquals(MonitorEntity.Status.ONLINE, result.status);
+            assertEquals("pve1", result.message);
+        }
+    }
+
+    @Test
+    public void formatsUptimeLikeTimedelta() {
+        assertEquals("0:00:59", UdpHeartbeatCheck.formatUptime(59));
+        assertEquals("1 day, 0:00:00", UdpHeartbeatCheck.formatUptime(86400));
+    }
+
+    private static StatusCheckStrategy.Result check(HeartbeatResponder responder) {
+        HostReachability.clear();
+        return new UdpHeartbeatCheck(responder.getPort(), "127.0.0.1").check(null);
+    }
+}